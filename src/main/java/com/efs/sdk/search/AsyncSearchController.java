@@ -0,0 +1,106 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.helper.AuthHelper;
+import com.efs.sdk.search.model.search.AsyncSearch;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.model.search.Result;
+import com.efs.sdk.search.services.AsyncSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Long-running searches by the asynchronous search of OpenSearch - searches are submitted, polled and their results fetched page by page.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@RequestMapping(value = AsyncSearchController.ENDPOINT)
+@RestController
+@Tag(name = AsyncSearchController.ENDPOINT)
+public class AsyncSearchController {
+
+    static final String ENDPOINT = SearchController.ENDPOINT + "/async";
+
+    private final AuthHelper authHelper;
+    private final AsyncSearchService searchService;
+
+    public AsyncSearchController(AuthHelper authHelper, AsyncSearchService searchService) {
+        this.authHelper = authHelper;
+        this.searchService = searchService;
+    }
+
+    @Operation(summary = "Submits a long-running search", description = """
+            The search runs in OpenSearch, its results are kept for a while (`search.async.keep-alive`). Page and size of the query are ignored, the
+            results are fetched page by page from `/async/{id}/result`.
+            """)
+    @PostMapping
+    @ApiResponse(responseCode = "200", description = "Search completed while submitting.", useReturnTypeSchema = true)
+    @ApiResponse(responseCode = "202", description = "Search submitted and still running.", useReturnTypeSchema = true)
+    @ApiResponse(responseCode = "401", description = "User is not authorized")
+    @ApiResponse(responseCode = "422", description = "Either the `Query` could not be transformed into an OpenSearch-query or the search could not be " +
+            "submitted")
+    public ResponseEntity<AsyncSearch> submitSearch(@Parameter(hidden = true) JwtAuthenticationToken jwt, @Parameter(description = "Search query defined as " +
+            "JSON", required = true) @RequestBody Query query) throws SearchException {
+        String token = authHelper.getAccessToken(jwt);
+        AsyncSearch search = searchService.submitSearch(query, token);
+        return search.getState() == AsyncSearch.State.RUNNING ? ResponseEntity.accepted().body(search) : ResponseEntity.ok(search);
+    }
+
+    @Operation(summary = "Returns the state of a long-running search")
+    @GetMapping(path = "/{id}")
+    @ApiResponse(responseCode = "200", description = "Successfully looked up the search.", useReturnTypeSchema = true)
+    @ApiResponse(responseCode = "401", description = "User is not authorized")
+    @ApiResponse(responseCode = "404", description = "The search is unknown or expired")
+    public ResponseEntity<AsyncSearch> getSearch(@Parameter(hidden = true) JwtAuthenticationToken jwt, @Parameter(description = "id of the search",
+            required = true) @PathVariable String id) throws SearchException {
+        String token = authHelper.getAccessToken(jwt);
+        return ResponseEntity.ok(searchService.getSearch(id, token));
+    }
+
+    @Operation(summary = "Returns a page of the results of a long-running search")
+    @GetMapping(path = "/{id}/result")
+    @ApiResponse(responseCode = "200", description = "Successfully fetched the results.", useReturnTypeSchema = true)
+    @ApiResponse(responseCode = "401", description = "User is not authorized")
+    @ApiResponse(responseCode = "404", description = "The search is unknown or expired")
+    @ApiResponse(responseCode = "409", description = "The search is still running")
+    @ApiResponse(responseCode = "422", description = "The search failed or its results could not be transformed into a `Result`")
+    public ResponseEntity<Result> getResult(@Parameter(hidden = true) JwtAuthenticationToken jwt, @Parameter(description = "id of the search",
+            required = true) @PathVariable String id, @Parameter(description = "page of the results (starts with 0)", example = "0") @RequestParam(
+            defaultValue = "0") int page, @Parameter(description = "number of results per page", example = "50") @RequestParam(defaultValue = "50") int size)
+            throws SearchException {
+        String token = authHelper.getAccessToken(jwt);
+        return ResponseEntity.ok(searchService.getResult(id, token, page, size));
+    }
+
+    @Operation(summary = "Deletes a long-running search - running searches are cancelled")
+    @DeleteMapping(path = "/{id}")
+    @ApiResponse(responseCode = "204", description = "Successfully deleted the search.")
+    @ApiResponse(responseCode = "401", description = "User is not authorized")
+    @ApiResponse(responseCode = "404", description = "The search is unknown or expired")
+    public ResponseEntity<Void> deleteSearch(@Parameter(hidden = true) JwtAuthenticationToken jwt, @Parameter(description = "id of the search",
+            required = true) @PathVariable String id) throws SearchException {
+        String token = authHelper.getAccessToken(jwt);
+        searchService.deleteSearch(id, token);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -15,8 +15,11 @@ limitations under the License.
  */
 package com.efs.sdk.search;
 
+import com.efs.sdk.search.clients.ArrowResultWriter;
 import com.efs.sdk.search.commons.SearchException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -58,6 +61,16 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         body.put("message", ex.getMessage());
 
         // Return a new ResponseEntity with the error details in the body, and the HTTP status code in the response.
-        return ResponseEntity.status(ex.getHttpStatus()).body(body);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(ex.getHttpStatus());
+        if (ex.getRetryAfter() != null) {
+            // Retry-After is given in whole seconds
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000)));
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(ArrowResultWriter.CONTENT_TYPE)) {
+            // errors can not be expressed as Arrow-stream
+            response.contentType(MediaType.APPLICATION_JSON);
+        }
+        return response.body(body);
     }
 }
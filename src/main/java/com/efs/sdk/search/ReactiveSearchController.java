@@ -0,0 +1,118 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.helper.AuthHelper;
+import com.efs.sdk.search.model.search.Criteria;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.model.search.Result;
+import com.efs.sdk.search.services.ReactiveSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Non-blocking variant of the {@link SearchController} (profile <code>reactive</code>) - the request-thread is released while waiting for OpenSearch, so
+ * long-running searches do not occupy the servlet-container.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@RequestMapping(value = ReactiveSearchController.ENDPOINT)
+@RestController
+@Profile("reactive")
+@Tag(name = ReactiveSearchController.ENDPOINT)
+public class ReactiveSearchController {
+
+    static final String ENDPOINT = SearchController.ENDPOINT + "/reactive";
+
+    private final AuthHelper authHelper;
+    private final ReactiveSearchService searchService;
+
+    public ReactiveSearchController(AuthHelper authHelper, ReactiveSearchService searchService) {
+        this.authHelper = authHelper;
+        this.searchService = searchService;
+    }
+
+    @Operation(summary = "Performs the search for a measurement")
+    @PostMapping
+    @ApiResponse(responseCode = "200", description = "Successfully searched.", useReturnTypeSchema = true)
+    @ApiResponse(responseCode = "401", description = "User is not authorized")
+    @ApiResponse(responseCode = "422", description = "Either the `Query` could not be transformed into an OpenSearch-query or the return-value could not be " +
+            "transformed into a `Result`")
+    public Mono<Result> search(@Parameter(hidden = true) JwtAuthenticationToken jwt, @Parameter(description = "Search query defined as JSON",
+            required = true) @RequestBody Query query) throws SearchException {
+        String token = authHelper.getAccessToken(jwt);
+        return searchService.executeSearch(query, token);
+    }
+
+    @Operation(summary = "Streams the hits of the search as newline-delimited JSON", description = """
+            All hits (up to 10.000) are returned, one source per line. The pages of the query-size are requested from OpenSearch as the client reads the
+            stream.
+            """)
+    @PostMapping(path = "/hits", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiResponse(responseCode = "200", description = "Successfully searched.")
+    @ApiResponse(responseCode = "401", description = "User is not authorized")
+    public Flux<Map<String, Object>> streamHits(@Parameter(hidden = true) JwtAuthenticationToken jwt, @Parameter(description = "Search query defined as JSON",
+            required = true) @RequestBody Query query) throws SearchException {
+        String token = authHelper.getAccessToken(jwt);
+        return searchService.streamHits(query, token);
+    }
+
+    @Operation(summary = "Returns OpenSearch-indices the user has access to. OpenSearch-internal indexes are skipped.")
+    @GetMapping(path = "/index")
+    @ApiResponse(responseCode = "200", description = "Successfully looked up indices.", useReturnTypeSchema = true)
+    @ApiResponse(responseCode = "401", description = "User is not authorized")
+    @ApiResponse(responseCode = "422", description = "The return-value could not be transformed into a result")
+    public Mono<Set<String>> getIndices(@Parameter(hidden = true) JwtAuthenticationToken jwt, @Parameter(description = "wildcard index filter", example =
+            "*") @RequestParam(defaultValue = "*") String filter) throws SearchException {
+        String token = authHelper.getAccessToken(jwt);
+        return searchService.getIndices(token, (filter == null || filter.isEmpty()) ? "*" : filter);
+    }
+
+    @Operation(summary = "Returns a list of all possible filter-criteria (including datatype and supported operators).")
+    @GetMapping(path = "/criteria")
+    @ApiResponse(responseCode = "200", description = "Successfully looked up all possible criteria.", useReturnTypeSchema = true)
+    @ApiResponse(responseCode = "401", description = "User is not authorized")
+    @ApiResponse(responseCode = "422", description = "The return-value could not be transformed into a result")
+    public Mono<List<Criteria>> getCriteria(@Parameter(hidden = true) JwtAuthenticationToken jwt, @Parameter(description = "name of the index or wildcard",
+            example = "*") @RequestParam(defaultValue = "*") String index) throws SearchException {
+        String token = authHelper.getAccessToken(jwt);
+        return searchService.getCriteria(token, (index == null || index.isEmpty()) ? "*" : index);
+    }
+
+    @Operation(summary = "Gets possible search-result-properties")
+    @GetMapping(path = "/resultproperties")
+    @ApiResponse(responseCode = "200", description = "Successfully looked up all possible criteria.", useReturnTypeSchema = true)
+    @ApiResponse(responseCode = "401", description = "User is not authorized")
+    @ApiResponse(responseCode = "422", description = "The return-value could not be transformed into a result")
+    public Mono<Set<String>> getResultProperties(@Parameter(hidden = true) JwtAuthenticationToken jwt, @Parameter(description = "name of the index or wildcard",
+            example = "*") @RequestParam(defaultValue = "*") String index) throws SearchException {
+        String token = authHelper.getAccessToken(jwt);
+        return searchService.getResultProperties(token, (index == null || index.isEmpty()) ? "*" : index);
+    }
+}
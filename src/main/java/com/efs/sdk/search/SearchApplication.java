@@ -15,16 +15,49 @@ limitations under the License.
  */
 package com.efs.sdk.search;
 
+import com.efs.sdk.search.clients.AsyncSearchProperties;
+import com.efs.sdk.search.clients.HttpClientProperties;
+import com.efs.sdk.search.clients.OpenSearchProperties;
+import com.efs.sdk.search.clients.SniffProperties;
+import com.efs.sdk.search.compression.CompressionProperties;
+import com.efs.sdk.search.resilience.BulkheadProperties;
+import com.efs.sdk.search.resilience.CircuitBreakerProperties;
+import com.efs.sdk.search.resilience.ConcurrencyLimitProperties;
+import com.efs.sdk.search.resilience.DeadlineProperties;
+import com.efs.sdk.search.resilience.HedgingProperties;
+import com.efs.sdk.search.security.JwtProperties;
 import com.efs.sdk.search.security.oauth.OAuth2Properties;
+import com.efs.sdk.search.services.IndexAuthorizationProperties;
+import com.efs.sdk.search.services.IndexPruningProperties;
+import com.efs.sdk.search.startup.WarmUpProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.TimeUnit;
+
 @SpringBootApplication
-@EnableConfigurationProperties(OAuth2Properties.class)
+@ImportRuntimeHints(SearchRuntimeHints.class)
+@EnableConfigurationProperties({OAuth2Properties.class, BulkheadProperties.class, ConcurrencyLimitProperties.class, CircuitBreakerProperties.class,
+        DeadlineProperties.class, HttpClientProperties.class, CompressionProperties.class, SniffProperties.class,
+        HedgingProperties.class, AsyncSearchProperties.class, IndexPruningProperties.class, IndexAuthorizationProperties.class,
+        JwtProperties.class, WarmUpProperties.class, OpenSearchProperties.class})
 public class SearchApplication {
 
     public static void main(String[] args) {
@@ -41,13 +74,52 @@ public class SearchApplication {
         return new ObjectMapper();
     }
 
+    /**
+     * Creates the pooled request-factory of the RestTemplate.
+     * <p>
+     * The RestTemplate is only used by the metadata-endpoints, therefore their deadline is used as read-timeout. The pool is published as
+     * <code>httpcomponents.httpclient.pool.*</code>-metrics.
+     *
+     * @param httpClientProperties the pool-configuration
+     * @param deadlineProperties   the deadline-configuration
+     * @param meterRegistry        the meter-registry (if available)
+     * @return The created {@link HttpComponentsClientHttpRequestFactory} (closed on shutdown)
+     */
+    @Bean
+    public HttpComponentsClientHttpRequestFactory restTemplateRequestFactory(HttpClientProperties httpClientProperties, DeadlineProperties deadlineProperties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(httpClientProperties.getMaxConnections())
+                .setMaxConnPerRoute(httpClientProperties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(deadlineProperties.getConnectTimeout().toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(deadlineProperties.getMetadata().toMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(httpClientProperties.getValidateAfterInactivity().toMillis()))
+                        .build())
+                .build();
+        meterRegistry.ifAvailable(registry -> new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "resttemplate").bindTo(registry));
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(httpClientProperties.getConnectionRequestTimeout().toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(deadlineProperties.getMetadata().toMillis()))
+                        .setDefaultKeepAlive(httpClientProperties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(httpClientProperties.getIdleTimeout().toMillis()))
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
     /**
      * Creates an instance of the RestTemplate.
      *
+     * @param requestFactory the pooled request-factory
      * @return The created {@link RestTemplate}
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(HttpComponentsClientHttpRequestFactory requestFactory) {
+        return new RestTemplate(requestFactory);
     }
 }
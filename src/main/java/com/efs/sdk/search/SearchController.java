@@ -15,6 +15,7 @@ limitations under the License.
  */
 package com.efs.sdk.search;
 
+import com.efs.sdk.search.clients.ArrowResultWriter;
 import com.efs.sdk.search.commons.SearchException;
 import com.efs.sdk.search.helper.AuthHelper;
 import com.efs.sdk.search.model.search.Criteria;
@@ -25,6 +26,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
@@ -61,6 +63,25 @@ public class SearchController {
         return ResponseEntity.ok(searchService.executeSearch(query, token));
     }
 
+    @Operation(summary = "Exports the search-result as Apache Arrow IPC-stream", description = """
+            Selected by `Accept: application/vnd.apache.arrow.stream`. All hits (up to 10.000) are returned, one record-batch per page of the query-size.
+
+            The schema is derived from the mapping: numbers become 64-bit floats, dates UTC-timestamps (ms), booleans booleans and everything else strings.
+            """)
+    @PostMapping(produces = ArrowResultWriter.CONTENT_TYPE)
+    @ApiResponse(responseCode = "200", description = "Successfully searched.")
+    @ApiResponse(responseCode = "401", description = "User is not authorized")
+    @ApiResponse(responseCode = "422", description = "Either the `Query` could not be transformed into an OpenSearch-query or the return-value could not be " +
+            "read")
+    public void exportSearch(@Parameter(hidden = true) JwtAuthenticationToken jwt, @Parameter(description = "Search query defined as JSON",
+            required = true) @RequestBody Query query, @Parameter(hidden = true) HttpServletResponse response) throws SearchException {
+        String token = authHelper.getAccessToken(jwt);
+        searchService.exportSearch(query, token, () -> {
+            response.setContentType(ArrowResultWriter.CONTENT_TYPE);
+            return response.getOutputStream();
+        });
+    }
+
     @Operation(summary = "Returns OpenSearch-indices the user has access to. OpenSearch-internal indexes are skipped.")
     @GetMapping(path = "/index")
     @ApiResponse(responseCode = "200", description = "Successfully looked up indices.", useReturnTypeSchema = true)
@@ -0,0 +1,74 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search;
+
+import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.security.oauth.OAuthConfiguration;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hints for the ahead-of-time processing (native image) - the models are (de)serialized by Jackson, which needs reflection on their constructors,
+ * accessors and annotations (records of OpenSearch-responses, Lombok-generated accessors of the search-models). The classes are collected from their
+ * packages at build-time, so new models are covered without further hints.
+ * <p>
+ * The off-heap memory of Arrow and Netty is not covered, so the native executable supports neither the Arrow-export nor the non-blocking endpoints.
+ *
+ * @author e:fs TechHub GmbH
+ */
+class SearchRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<String> MODEL_PACKAGES = List.of(ESResponse.class.getPackageName(), Query.class.getPackageName());
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+        List<Class<?>> types = new ArrayList<>(getModelTypes(classLoader));
+        // the openid-configuration is read by the RestTemplate
+        types.add(OAuthConfiguration.class);
+        bindingRegistrar.registerReflectionHints(hints.reflection(), types.toArray(Class<?>[]::new));
+
+        hints.resources().registerPattern("description.md");
+        hints.resources().registerPattern("warm-up/*/*.json");
+    }
+
+    private static List<Class<?>> getModelTypes(ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                // records, enums and nested classes are models as well
+                return true;
+            }
+        };
+        scanner.addIncludeFilter((reader, factory) -> true);
+        List<Class<?>> types = new ArrayList<>();
+        for (String modelPackage : MODEL_PACKAGES) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(modelPackage)) {
+                types.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+            }
+        }
+        return types;
+    }
+}
@@ -25,6 +25,7 @@ import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.security.*;
+import org.springdoc.core.customizers.OpenApiCustomizer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -49,10 +50,10 @@ public class SpringDocConfig {
     @Value("${apidoc.title}")
     private String title;
 
-    private final OAuthConfiguration oAuthConfig;
+    private final OAuthConfigurationHelper oAuthConfigurationHelper;
 
     public SpringDocConfig(OAuthConfigurationHelper oAuthConfigurationHelper) {
-        this.oAuthConfig = oAuthConfigurationHelper.getOpenidConfigProperty();
+        this.oAuthConfigurationHelper = oAuthConfigurationHelper;
     }
 
     /**
@@ -68,16 +69,29 @@ public class SpringDocConfig {
                 .addSecurityItem(new SecurityRequirement().addList(SECURITY_REFERENCE));
     }
 
+    /**
+     * Adds the OAuth-flows to the security-scheme once the API documentation is requested - the endpoints of the issuer are not resolved on startup.
+     *
+     * @return The customizer.
+     */
+    @Bean
+    public OpenApiCustomizer oauthFlowsCustomizer() {
+        return openApi -> {
+            OAuthConfiguration oAuthConfig = oAuthConfigurationHelper.getOpenidConfigProperty();
+            openApi.getComponents().getSecuritySchemes().get(SECURITY_REFERENCE)
+                    .flows(new OAuthFlows().authorizationCode(new OAuthFlow().authorizationUrl(oAuthConfig.authorizationEndpoint())
+                            .tokenUrl(getTokenEndpoint(oAuthConfig)).scopes(new Scopes().addString("profile",
+                                    "Request profile"))));
+        };
+    }
+
     private SecurityScheme securityScheme() {
         return new SecurityScheme()
                 .type(SecurityScheme.Type.OAUTH2)
                 .scheme("bearer")
                 .bearerFormat("jwt")
                 .in(SecurityScheme.In.HEADER)
-                .name("Authorization")
-                .flows(new OAuthFlows().authorizationCode(new OAuthFlow().authorizationUrl(oAuthConfig.authorizationEndpoint())
-                        .tokenUrl(getTokenEndpoint()).scopes(new Scopes().addString("profile",
-                                "Request profile"))));
+                .name("Authorization");
     }
 
     /**
@@ -86,9 +100,10 @@ public class SpringDocConfig {
      * <br>
      * Therefore we replace the domain with the issuer-url, which is generated based on the frontend-url.
      *
+     * @param oAuthConfig The openid-configuration of the issuer
      * @return The token-endpoint
      */
-    private String getTokenEndpoint() {
+    private String getTokenEndpoint(OAuthConfiguration oAuthConfig) {
         String tokenEndpoint = oAuthConfig.tokenEndpoint();
         String issuer = oAuthConfig.issuer();
         int strOffset = tokenEndpoint.indexOf("/protocol");
@@ -0,0 +1,226 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.model.elasticsearch.ESHit;
+import com.efs.sdk.search.model.elasticsearch.ESHits;
+import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.search.DataType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.EXPORT_FAILED;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes search-hits as Apache Arrow IPC-stream - one record-batch per page of hits.
+ * <p>
+ * The schema is derived from the data-types of the result-properties: {@link DataType#NUMBER} becomes a 64-bit float, {@link DataType#DATE} a
+ * UTC-timestamp (milliseconds), {@link DataType#BOOLEAN} a boolean and everything else an UTF-8-string (objects and arrays as JSON). Values that do not
+ * match the type of their column are written as null. The vectors are refilled for every batch, so memory is bounded by the size of a page.
+ *
+ * @author e:fs TechHub GmbH
+ */
+public class ArrowResultWriter implements AutoCloseable {
+
+    public static final String CONTENT_TYPE = "application/vnd.apache.arrow.stream";
+
+    private static final BufferAllocator ROOT_ALLOCATOR = new RootAllocator();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<String> properties;
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final ArrowStreamWriter writer;
+
+    /**
+     * Creates the writer and writes the schema.
+     *
+     * @param properties the result-properties (the columns)
+     * @param types      the data-types of the properties - properties without a type are written as strings
+     * @param out        the stream to write to
+     * @throws SearchException if the schema could not be written
+     */
+    public ArrowResultWriter(List<String> properties, Map<String, DataType> types, OutputStream out) throws SearchException {
+        this.properties = properties;
+        this.allocator = ROOT_ALLOCATOR.newChildAllocator("export", 0, Long.MAX_VALUE);
+        Schema schema = new Schema(properties.stream().map(property -> Field.nullable(property, arrowType(types.get(property)))).toList());
+        this.root = VectorSchemaRoot.create(schema, allocator);
+        this.writer = new ArrowStreamWriter(root, null, out);
+        try {
+            writer.start();
+        } catch (IOException e) {
+            root.close();
+            allocator.close();
+            throw new SearchException(EXPORT_FAILED, e.getMessage());
+        }
+    }
+
+    private static ArrowType arrowType(DataType type) {
+        if (type == null) {
+            return ArrowType.Utf8.INSTANCE;
+        }
+        return switch (type) {
+            case NUMBER -> new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+            case DATE -> new ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC");
+            case BOOLEAN -> ArrowType.Bool.INSTANCE;
+            default -> ArrowType.Utf8.INSTANCE;
+        };
+    }
+
+    /**
+     * Writes the hits of a page as record-batch.
+     *
+     * @param response the page
+     * @return the number of hits written
+     * @throws SearchException if the hits could not be read or written
+     */
+    public int writeBatch(ESResponse response) throws SearchException {
+        ColumnCollector collector = new ColumnCollector(properties);
+        ESHits hits = response.hits();
+        int rows = hits == null || hits.hits() == null ? 0 : hits.hits().size();
+        try {
+            if (rows > 0) {
+                for (ESHit hit : hits.hits()) {
+                    collector.add(hit.source());
+                }
+            }
+            List<List<Object>> columns = collector.build(false).getValues();
+            root.allocateNew();
+            for (int i = 0; i < properties.size(); i++) {
+                FieldVector vector = root.getVector(i);
+                List<Object> values = columns.get(i);
+                for (int row = 0; row < rows; row++) {
+                    set(vector, row, values.get(row));
+                }
+                vector.setValueCount(rows);
+            }
+            root.setRowCount(rows);
+            writer.writeBatch();
+            return rows;
+        } catch (IOException e) {
+            throw new SearchException(EXPORT_FAILED, e.getMessage());
+        }
+    }
+
+    private static void set(FieldVector vector, int row, Object value) throws JsonProcessingException {
+        if (value == null) {
+            return;
+        }
+        if (vector instanceof Float8Vector numbers) {
+            Double number = toDouble(value);
+            if (number != null) {
+                numbers.setSafe(row, number);
+            }
+        } else if (vector instanceof TimeStampMilliTZVector timestamps) {
+            Long millis = toEpochMillis(value);
+            if (millis != null) {
+                timestamps.setSafe(row, millis);
+            }
+        } else if (vector instanceof BitVector booleans) {
+            if (value instanceof Boolean bool) {
+                booleans.setSafe(row, bool ? 1 : 0);
+            } else if ("true".equalsIgnoreCase(value.toString()) || "false".equalsIgnoreCase(value.toString())) {
+                booleans.setSafe(row, Boolean.parseBoolean(value.toString()) ? 1 : 0);
+            }
+        } else if (vector instanceof VarCharVector strings) {
+            String string = value instanceof String || value instanceof Number || value instanceof Boolean ? value.toString() : MAPPER.writeValueAsString(value);
+            strings.setSafe(row, string.getBytes(UTF_8));
+        }
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return Double.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts a date of OpenSearch - epoch-milliseconds or ISO-8601 (date-times without offset are considered as UTC).
+     */
+    private static Long toEpochMillis(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        String date = value.toString();
+        try {
+            return OffsetDateTime.parse(date).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // try the next format
+        }
+        try {
+            return LocalDateTime.parse(date).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // try the next format
+        }
+        try {
+            return LocalDate.parse(date).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // try the next format
+        }
+        try {
+            return Long.valueOf(date);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the end of the stream and releases the memory of the vectors.
+     */
+    @Override
+    public void close() throws SearchException {
+        try {
+            writer.end();
+        } catch (IOException e) {
+            throw new SearchException(EXPORT_FAILED, e.getMessage());
+        } finally {
+            writer.close();
+            root.close();
+            allocator.close();
+        }
+    }
+}
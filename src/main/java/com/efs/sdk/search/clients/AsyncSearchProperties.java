@@ -0,0 +1,102 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of asynchronous searches, e.g.
+ * <pre>
+ * search:
+ *   async:
+ *     keep-alive: 1d
+ *     wait-for-completion: 1s
+ *     max-hits: 1000
+ *     result-cache-ttl: 5m
+ *     result-cache-max-hits: 100000
+ * </pre>
+ * The hits of an asynchronous search are stored by OpenSearch up to <code>max-hits</code> and returned page by page - the stored hits of a completed
+ * search are fetched once and cached per caller for <code>result-cache-ttl</code> (<code>0</code> disables the cache). The cache is bounded by the total
+ * number of cached hits, as a search may store anything from no hit to <code>max-hits</code>.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.async")
+public class AsyncSearchProperties {
+
+    /**
+     * how long the results are kept by OpenSearch
+     */
+    private Duration keepAlive = Duration.ofDays(1);
+    /**
+     * how long submitting waits for the search to complete
+     */
+    private Duration waitForCompletion = Duration.ofSeconds(1);
+    /**
+     * number of hits stored per search (at most 10.000)
+     */
+    private int maxHits = 1000;
+    /**
+     * how long the stored hits of a completed search are cached for paging
+     */
+    private Duration resultCacheTtl = Duration.ofMinutes(5);
+    /**
+     * total number of hits cached over all completed searches
+     */
+    private long resultCacheMaxHits = 100_000;
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Duration getWaitForCompletion() {
+        return waitForCompletion;
+    }
+
+    public void setWaitForCompletion(Duration waitForCompletion) {
+        this.waitForCompletion = waitForCompletion;
+    }
+
+    public int getMaxHits() {
+        return maxHits;
+    }
+
+    public void setMaxHits(int maxHits) {
+        this.maxHits = maxHits;
+    }
+
+    public Duration getResultCacheTtl() {
+        return resultCacheTtl;
+    }
+
+    public void setResultCacheTtl(Duration resultCacheTtl) {
+        this.resultCacheTtl = resultCacheTtl;
+    }
+
+    public long getResultCacheMaxHits() {
+        return resultCacheMaxHits;
+    }
+
+    public void setResultCacheMaxHits(long resultCacheMaxHits) {
+        this.resultCacheMaxHits = resultCacheMaxHits;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import com.efs.sdk.search.model.elasticsearch.RawSource;
+import com.efs.sdk.search.model.search.Columns;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Collects the <code>_source</code> of hits into columns - one list of values per result-property.
+ * <p>
+ * Raw documents are streamed token by token, only the values of the requested properties are materialized (subtrees of unrequested properties are skipped).
+ * Without requested properties every leaf of the documents becomes a column, in the order the leaves are encountered. Arrays are treated as values.
+ *
+ * @author e:fs TechHub GmbH
+ */
+class ColumnCollector {
+
+    private final boolean dynamic;
+    private final Map<String, List<Object>> columns = new LinkedHashMap<>();
+    private final Set<String> prefixes = new HashSet<>();
+    private int rows;
+
+    ColumnCollector(List<String> properties) {
+        this.dynamic = properties == null || properties.isEmpty();
+        if (!dynamic) {
+            for (String property : properties) {
+                columns.putIfAbsent(property, new ArrayList<>());
+                for (int i = property.indexOf('.'); i > 0; i = property.indexOf('.', i + 1)) {
+                    prefixes.add(property.substring(0, i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the <code>_source</code> of a hit as next row.
+     *
+     * @param source the <code>_source</code> (may be null)
+     * @throws IOException if a raw document could not be read
+     */
+    void add(Map<String, Object> source) throws IOException {
+        rows++;
+        columns.values().forEach(values -> values.add(null));
+        if (source instanceof RawSource raw) {
+            try (JsonParser parser = raw.createParser()) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    addObject(parser, null);
+                }
+            }
+        } else if (source != null) {
+            addMap(source, null);
+        }
+    }
+
+    private void addObject(JsonParser parser, String prefix) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String path = path(prefix, parser.currentName());
+            JsonToken token = parser.nextToken();
+            boolean descend = token == JsonToken.START_OBJECT && (dynamic || prefixes.contains(path));
+            if (columns.containsKey(path) && !dynamic) {
+                Object value = readValue(parser, token);
+                set(path, value);
+                if (descend) {
+                    // property requested along with properties nested in it
+                    addMap(asMap(value), path);
+                }
+            } else if (descend) {
+                addObject(parser, path);
+            } else if (dynamic) {
+                set(path, readValue(parser, token));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void addMap(Map<String, Object> source, String prefix) {
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            String path = path(prefix, entry.getKey());
+            boolean descend = entry.getValue() instanceof Map<?, ?> && (dynamic || prefixes.contains(path));
+            if (dynamic ? !descend : columns.containsKey(path)) {
+                set(path, entry.getValue());
+            }
+            if (descend) {
+                addMap(asMap(entry.getValue()), path);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    private static Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            default -> parser.readValueAs(Object.class);
+        };
+    }
+
+    private void set(String path, Object value) {
+        List<Object> values = columns.get(path);
+        if (values == null) {
+            // column discovered late - earlier rows do not have the property
+            values = new ArrayList<>(Collections.nCopies(rows, null));
+            columns.put(path, values);
+        }
+        values.set(rows - 1, value);
+    }
+
+    private static String path(String prefix, String name) {
+        return prefix == null ? name : prefix + "." + name;
+    }
+
+    /**
+     * Builds the columns collected so far.
+     *
+     * @param dictionaryEncoding whether to encode low-cardinality string-columns by a dictionary
+     * @return the columns
+     */
+    Columns build(boolean dictionaryEncoding) {
+        List<String> properties = new ArrayList<>(columns.keySet());
+        List<List<Object>> values = new ArrayList<>(columns.values());
+        Map<String, List<String>> dictionaries = new LinkedHashMap<>();
+        if (dictionaryEncoding) {
+            for (int i = 0; i < properties.size(); i++) {
+                List<String> dictionary = encode(values.get(i));
+                if (dictionary != null) {
+                    dictionaries.put(properties.get(i), dictionary);
+                }
+            }
+        }
+        return new Columns(properties, values, dictionaries);
+    }
+
+    /**
+     * Replaces the values of a string-column by indices into a dictionary - if the column holds at most half as many distinct values as values.
+     *
+     * @param values the values of the column
+     * @return the dictionary or null if the column is not encoded
+     */
+    private static List<String> encode(List<Object> values) {
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        int count = 0;
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (!(value instanceof String string)) {
+                return null;
+            }
+            codes.putIfAbsent(string, codes.size());
+            count++;
+        }
+        if (count == 0 || codes.size() * 2 > count) {
+            return null;
+        }
+        values.replaceAll(value -> value == null ? null : codes.get(value));
+        return new ArrayList<>(codes.keySet());
+    }
+}
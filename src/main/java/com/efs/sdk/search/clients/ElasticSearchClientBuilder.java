@@ -15,15 +15,194 @@ limitations under the License.
  */
 package com.efs.sdk.search.clients;
 
+import com.efs.sdk.search.resilience.BulkheadProperties;
+import com.efs.sdk.search.resilience.BulkheadType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.message.BasicHeader;
+import org.elasticsearch.client.Node;
+import org.elasticsearch.client.Request;
 import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
+import org.elasticsearch.client.sniff.ElasticsearchNodesSniffer;
+import org.elasticsearch.client.sniff.Sniffer;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Provides the {@link RestClient}s to OpenSearch.
+ * <p>
+ * Clients are shared between requests (the user-token is set per request), every {@link BulkheadType} uses its own connection-pool. The URL may list
+ * several nodes (comma-separated), requests are balanced by the {@link NodeBalancer} - optionally, the nodes are sniffed from the cluster.
+ */
+@Slf4j
 public abstract class ElasticSearchClientBuilder {
 
     protected final String elasticsearchUrl;
+    private final HttpHost[] hosts;
+    private final BulkheadProperties bulkheadProperties;
+    private final NodeBalancer nodeBalancer;
+    private final SniffProperties sniffProperties;
+    private final Map<BulkheadType, RestClient> restClients = new ConcurrentHashMap<>();
+    private final List<Sniffer> sniffers = new CopyOnWriteArrayList<>();
+    private RestClient sniffClient;
 
-    ElasticSearchClientBuilder(String elasticsearchUrl) {
+    ElasticSearchClientBuilder(String elasticsearchUrl, BulkheadProperties bulkheadProperties, NodeBalancer nodeBalancer, SniffProperties sniffProperties) {
         this.elasticsearchUrl = elasticsearchUrl;
+        this.hosts = Arrays.stream(elasticsearchUrl.split(",")).map(String::trim).filter(url -> !url.isEmpty()).map(HttpHost::create)
+                .toArray(HttpHost[]::new);
+        this.bulkheadProperties = bulkheadProperties;
+        this.nodeBalancer = nodeBalancer;
+        this.sniffProperties = sniffProperties;
+    }
+
+    /**
+     * Get the client of the given endpoint-class.
+     *
+     * @param type the endpoint-class
+     * @return the client or <code>null</code> if it could not be built
+     */
+    RestClient getRestClient(BulkheadType type) {
+        return restClients.computeIfAbsent(type, t -> {
+            NodeFailureListener failureListener = new NodeFailureListener();
+            RestClient restClient = buildRestClient(RestClient.builder(hosts).setNodeSelector(nodeBalancer.newSelector()).setFailureListener(failureListener),
+                    bulkheadProperties.get(t).getMaxConnections());
+            if (restClient != null && sniffProperties.isEnabled()) {
+                failureListener.sniffer = startSniffer(restClient);
+            }
+            return restClient;
+        });
+    }
+
+    /**
+     * Builds a client - the builder is set up with the nodes, the connection (e.g. SSL) is configured by the implementation, which has to add the
+     * {@link NodeBalancer} as request-interceptor.
+     *
+     * @param builder        the builder
+     * @param maxConnections the size of the connection-pool
+     * @return the client or <code>null</code> if it could not be built
+     */
+    abstract RestClient buildRestClient(RestClientBuilder builder, int maxConnections);
+
+    /**
+     * Builds the clients of all endpoint-classes and opens a connection of each - the request is not authorized, it only establishes the connection
+     * (including TLS) ahead of the first search.
+     *
+     * @throws IOException if OpenSearch is not reachable
+     */
+    public void warmUp() throws IOException {
+        for (BulkheadType type : BulkheadType.values()) {
+            RestClient restClient = getRestClient(type);
+            if (restClient == null) {
+                throw new IOException("unable to build client of " + type);
+            }
+            Request request = new Request("HEAD", "/");
+            request.addParameter("ignore", "401,403");
+            NodeBalancer.Lease lease = nodeBalancer.lease(request);
+            long start = System.nanoTime();
+            String outcome = "error";
+            try {
+                restClient.performRequest(request);
+                outcome = "success";
+            } finally {
+                lease.release(System.nanoTime() - start, outcome);
+            }
+        }
+    }
+
+    NodeBalancer getNodeBalancer() {
+        return nodeBalancer;
+    }
+
+    /**
+     * Get the URL requests are sent to (the first node, including a path-prefix, if any) - used by clients that do not use the {@link RestClient}.
+     *
+     * @return the base-URL
+     */
+    String getBaseUrl() {
+        return hosts[0].toURI();
     }
 
-    abstract RestClient buildRestClient(String token);
+    /**
+     * Sniffs the nodes of the given client periodically and after failures.
+     */
+    private Sniffer startSniffer(RestClient restClient) {
+        RestClient client = getSniffClient();
+        if (client == null) {
+            return null;
+        }
+        ElasticsearchNodesSniffer.Scheme scheme = "https".equalsIgnoreCase(hosts[0].getSchemeName()) ? ElasticsearchNodesSniffer.Scheme.HTTPS :
+                ElasticsearchNodesSniffer.Scheme.HTTP;
+        Sniffer sniffer = Sniffer.builder(restClient)
+                .setSniffIntervalMillis((int) sniffProperties.getInterval().toMillis())
+                .setSniffAfterFailureDelayMillis((int) sniffProperties.getAfterFailureDelay().toMillis())
+                .setNodesSniffer(new ElasticsearchNodesSniffer(client, sniffProperties.getTimeout().toMillis(), scheme))
+                .build();
+        sniffers.add(sniffer);
+        return sniffer;
+    }
+
+    /**
+     * The nodes are sniffed by a separate client, which is not balanced and sends the configured authorization instead of a user-token.
+     */
+    private synchronized RestClient getSniffClient() {
+        if (sniffClient == null) {
+            RestClientBuilder builder = RestClient.builder(hosts);
+            if (sniffProperties.getAuthorization() != null) {
+                builder.setDefaultHeaders(new Header[]{new BasicHeader(HttpHeaders.AUTHORIZATION, sniffProperties.getAuthorization())});
+            }
+            sniffClient = buildRestClient(builder, 1);
+        }
+        return sniffClient;
+    }
+
+    @PreDestroy
+    public void close() {
+        sniffers.forEach(Sniffer::close);
+        sniffers.clear();
+        for (RestClient restClient : restClients.values()) {
+            closeQuietly(restClient);
+        }
+        restClients.clear();
+        synchronized (this) {
+            closeQuietly(sniffClient);
+            sniffClient = null;
+        }
+    }
+
+    private static void closeQuietly(RestClient restClient) {
+        if (restClient == null) {
+            return;
+        }
+        try {
+            restClient.close();
+        } catch (IOException e) {
+            log.warn(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Records failed nodes and triggers sniffing (if enabled) - the client excludes failed nodes until their backoff expired.
+     */
+    private class NodeFailureListener extends RestClient.FailureListener {
+
+        private volatile Sniffer sniffer;
+
+        @Override
+        public void onFailure(Node node) {
+            log.warn("OpenSearch-node '{}' failed and is excluded until its backoff expired", node.getHost());
+            nodeBalancer.onFailure(node);
+            if (sniffer != null) {
+                sniffer.sniffOnFailure();
+            }
+        }
+    }
 }
@@ -15,37 +15,34 @@ limitations under the License.
  */
 package com.efs.sdk.search.clients;
 
-import org.apache.http.Header;
-import org.apache.http.HttpHost;
+import com.efs.sdk.search.resilience.BulkheadProperties;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
-import org.apache.http.message.BasicHeader;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import javax.net.ssl.SSLContext;
 
-import static java.lang.String.format;
-
 @Component
 @Profile("!local")
 public class ElasticSearchClientBuilderProd extends ElasticSearchClientBuilder {
 
-    ElasticSearchClientBuilderProd(@Value("${search.elasticsearch.url}") String elasticsearchUrl) {
-        super(elasticsearchUrl);
+    ElasticSearchClientBuilderProd(@Value("${search.elasticsearch.url}") String elasticsearchUrl, BulkheadProperties bulkheadProperties, NodeBalancer nodeBalancer,
+            SniffProperties sniffProperties) {
+        super(elasticsearchUrl, bulkheadProperties, nodeBalancer, sniffProperties);
     }
 
-    public RestClient buildRestClient(String token) {
-        Header[] defaultHeaders =
-                new Header[]{new BasicHeader("Authorization",
-                        format("Bearer %s", token))};
+    RestClient buildRestClient(RestClientBuilder builder, int maxConnections) {
         try {
             SSLContext sslContext = new SSLContextBuilder().loadTrustMaterial(null, (cert, authType) -> true).build();
 
-            return RestClient.builder(HttpHost.create(elasticsearchUrl)).setDefaultHeaders(defaultHeaders)
-                    .setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder.setSSLContext(sslContext).setSSLHostnameVerifier(new NoopHostnameVerifier()))
+            return builder
+                    .setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder.setSSLContext(sslContext).setSSLHostnameVerifier(new NoopHostnameVerifier())
+                            .setMaxConnTotal(maxConnections).setMaxConnPerRoute(maxConnections)
+                            .addInterceptorLast(getNodeBalancer()))
                     .build();
         } catch (Exception e) {
             // Error should never be thrown
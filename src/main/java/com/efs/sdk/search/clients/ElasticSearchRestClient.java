@@ -16,24 +16,63 @@ limitations under the License.
 package com.efs.sdk.search.clients;
 
 import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.metrics.QueryFingerprint;
+import com.efs.sdk.search.metrics.SearchMetrics;
+import com.efs.sdk.search.metrics.SlowQueryLog;
+import com.efs.sdk.search.resilience.AdaptiveConcurrencyLimiter;
+import com.efs.sdk.search.resilience.BulkheadType;
+import com.efs.sdk.search.resilience.CircuitBreaker;
+import com.efs.sdk.search.resilience.CircuitBreakers;
+import com.efs.sdk.search.resilience.Deadline;
+import com.efs.sdk.search.resilience.Deadlines;
+import com.efs.sdk.search.resilience.Hedging;
+import com.efs.sdk.search.resilience.Bulkheads;
+import com.efs.sdk.search.model.elasticsearch.ESAsyncSearch;
 import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.elasticsearch.RawSource;
 import com.efs.sdk.search.model.search.Query;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.Cancellable;
 import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
 import org.elasticsearch.client.RestClient;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URLEncoder;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.*;
+import static com.efs.sdk.search.metrics.Stage.*;
+import static com.efs.sdk.search.resilience.BulkheadType.METADATA;
+import static com.efs.sdk.search.resilience.BulkheadType.SEARCH;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.http.entity.ContentType.APPLICATION_JSON;
 
 @Component
@@ -47,57 +86,394 @@ public class ElasticSearchRestClient {
     static final String ENDPOINT_SEARCH = "/_search";
     static final String ENDPOINT_MAPPING = "/_mappings";
     static final String ENDPOINT_SEARCH_WITH_HITS = ENDPOINT_SEARCH + "?track_total_hits=true";
+    static final String ENDPOINT_ASYNC_SEARCH = "/_plugins/_asynchronous_search";
+    static final String ASYNC_SEARCH_STATUS_FIELDS = "id,state,start_time_in_millis,expiration_time_in_millis,response.hits.total";
+    static final String CONTENT_TYPE_SMILE = "application/smile";
 
     private final ObjectMapper objectMapper;
     private final QueryBuilder queryBuilder;
     private final ElasticSearchClientBuilder clientBuilder;
+    private final SearchMetrics searchMetrics;
+    private final SlowQueryLog slowQueryLog;
+    private final Bulkheads bulkheads;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final CircuitBreaker<String> mappingsBreaker;
+    private final Deadlines deadlines;
+    private final Hedging hedging;
+    private final SearchRouting searchRouting;
+    private final OpenSearchProperties properties;
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
 
-    public ElasticSearchRestClient(ElasticSearchClientBuilder clientBuilder, ObjectMapper objectMapper, QueryBuilder queryBuilder) {
+    public ElasticSearchRestClient(ElasticSearchClientBuilder clientBuilder, ObjectMapper objectMapper, QueryBuilder queryBuilder, SearchMetrics searchMetrics,
+            SlowQueryLog slowQueryLog, Bulkheads bulkheads, AdaptiveConcurrencyLimiter concurrencyLimiter, CircuitBreakers circuitBreakers, Deadlines deadlines,
+            Hedging hedging, SearchRouting searchRouting, OpenSearchProperties properties) {
         this.clientBuilder = clientBuilder;
         this.objectMapper = objectMapper;
         this.queryBuilder = queryBuilder;
+        this.searchMetrics = searchMetrics;
+        this.slowQueryLog = slowQueryLog;
+        this.bulkheads = bulkheads;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.deadlines = deadlines;
+        this.hedging = hedging;
+        this.searchRouting = searchRouting;
+        this.properties = properties;
+        // every failure of the request counts - the indices are derived from the spaces of the user, so client-errors are not expected here
+        this.mappingsBreaker = circuitBreakers.create("opensearch-mappings", e -> true);
     }
 
 
+    /**
+     * Get the mappings of the given indices - if OpenSearch is unavailable, the last successful answer for the same indices is returned.
+     */
     public Map<String, Object> getMappings(String token, String indicesString) throws SearchException {
-        String inputString = getGetResponseBody(indicesString + ENDPOINT_MAPPING, "", token);
-        return readValue(inputString, Map.class);
+        return getMappings(token, indicesString, false);
     }
 
-    protected String getGetResponseBody(String endpoint, String body, String token) throws SearchException {
-        try {
-            Response response = executeGetRequest(endpoint, body, token);
+    /**
+     * Get the mappings of the given indices - missing indices are skipped if <code>ignoreUnavailable</code> is set (e.g. for pruned index-lists).
+     */
+    public Map<String, Object> getMappings(String token, String indicesString, boolean ignoreUnavailable) throws SearchException {
+        String inputString = searchMetrics.record(OPENSEARCH, () -> mappingsBreaker.execute(indicesString, () -> getGetResponseBody(
+                indicesString + ENDPOINT_MAPPING + (ignoreUnavailable ? "?ignore_unavailable=true" : ""), "", token, METADATA)));
+        return searchMetrics.record(PARSE, () -> readValue(inputString, Map.class));
+    }
+
+    /**
+     * Get the names of the indices matching the given pattern (comma-separated, wildcards allowed).
+     */
+    public Set<String> getIndexNames(String token, String indexPattern) throws SearchException {
+        String inputString = searchMetrics.record(OPENSEARCH, () -> getGetResponseBody(indexPattern + ENDPOINT_ALIAS, "", token, METADATA));
+        Map<String, Object> aliases = searchMetrics.record(PARSE, () -> readValue(inputString, Map.class));
+        return aliases.keySet();
+    }
+
+    /**
+     * Executes a GET-request within the concurrency-limit and the bulkhead of the given endpoint-class and returns the response-body - the request is
+     * aborted once the deadline of the current request expired.
+     */
+    protected String getGetResponseBody(String endpoint, String body, String token, BulkheadType type) throws SearchException {
+        return getGetResponse(endpoint, body, token, type, null, false, EntityUtils::toString);
+    }
+
+    private <T> T getGetResponse(String endpoint, String body, String token, BulkheadType type, String accept, boolean hedged, EntityReader<T> entityReader)
+            throws SearchException {
+        return getResponse("GET", endpoint, body, token, type, accept, hedged, false, response -> {
             int statusCode = response.getStatusLine().getStatusCode();
             if (statusCode < 200 || statusCode > 299) {
                 throw new SearchException(EXTRACTION_ERROR);
             }
-            return EntityUtils.toString(response.getEntity());
-        } catch (IOException e) {
-            throw new SearchException(UNABLE_EXTRACT_RETURN_VALUE);
-        }
+            return entityReader.read(response.getEntity());
+        });
     }
 
+    /**
+     * Executes a request within the concurrency-limit and the bulkhead of the given endpoint-class - the request is aborted once the deadline of the
+     * current request expired. If <code>ignoreNotFound</code> is set, 404-responses are passed to the reader instead of failing the request.
+     */
+    private <T> T getResponse(String method, String endpoint, String body, String token, BulkheadType type, String accept, boolean hedged,
+            boolean ignoreNotFound, ResponseReader<T> responseReader) throws SearchException {
+        Deadline deadline = deadlines.current(type);
+        deadline.check();
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(type);
+        try {
+            return bulkheads.get(type).execute(() -> {
+                // the permit is held until the request is finished, even if the caller stopped waiting for it on the deadline
+                if (!permit.start()) {
+                    throw new SearchException(DEADLINE_EXCEEDED);
+                }
+                long start = System.nanoTime();
+                boolean timedOut = false;
+                try {
+                    Response response = executeRequest(method, endpoint, body, token, type, deadline.remaining(), accept, hedged, ignoreNotFound);
+                    return responseReader.read(response);
+                } catch (IOException e) {
+                    throw new SearchException(UNABLE_EXTRACT_RETURN_VALUE);
+                } catch (SearchException e) {
+                    timedOut = e.getHttpStatus() == HttpStatus.GATEWAY_TIMEOUT;
+                    throw e;
+                } finally {
+                    // cancelled on the deadline
+                    if (timedOut || Thread.currentThread().isInterrupted()) {
+                        permit.onTimeout();
+                    } else {
+                        permit.onSample(System.nanoTime() - start);
+                    }
+                    permit.close();
+                }
+            }, deadline);
+        } finally {
+            // the request never started, e.g. the bulkhead was saturated or the deadline expired while it was queued
+            permit.abandon();
+        }
+    }
 
     public ESResponse executeSearch(Query query, String token) throws SearchException {
+        // fingerprint has to be taken before building the query, as building escapes the filter-values
+        return executeSearch(query, token, QueryFingerprint.of(query));
+    }
 
-        String queryStr = queryBuilder.buildSearch(query);
-        String responseBody = getGetResponseBody(format("%s%s", query.getIndexName(), ENDPOINT_SEARCH_WITH_HITS), queryStr, token);
-        return readValue(responseBody, ESResponse.class);
+    /**
+     * Executes the search - the slow-query-log aggregates it by the given fingerprint.
+     *
+     * @param query       the query
+     * @param token       the access-token
+     * @param fingerprint the fingerprint of the query as requested by the caller, i.e. before its indices were narrowed or pruned
+     * @return the response
+     * @throws SearchException if the search failed
+     */
+    public ESResponse executeSearch(Query query, String token, String fingerprint) throws SearchException {
+        String queryStr = searchMetrics.record(QUERY_BUILD, () -> queryBuilder.buildSearch(query));
+        // OpenSearch times out before the deadline, so there is time left for returning a partial result
+        Duration remaining = deadlines.current(SEARCH).remaining();
+        long opensearchTimeout = Math.max(1, remaining.minus(deadlines.getMargin()).toMillis());
+        long start = System.nanoTime();
+        byte[] responseBody = searchMetrics.record(OPENSEARCH, () -> getGetResponse(format("%s%s%s", query.getIndexName(), ENDPOINT_SEARCH_WITH_HITS,
+                searchRouting.getParameters(query, token, opensearchTimeout)), queryStr, token, SEARCH, properties.isSmile() ? CONTENT_TYPE_SMILE : null, hedging.isEnabled(), EntityUtils::toByteArray));
+        long duration = System.nanoTime() - start;
+        ESResponse response = searchMetrics.record(PARSE, () -> readSearchResponse(responseBody));
+        slowQueryLog.record(fingerprint, queryStr, duration, getTotalHits(response));
+        return response;
     }
 
-    protected Response executeGetRequest(String endpoint, String body, String token) throws SearchException {
-        try (RestClient restClient = clientBuilder.buildRestClient(token)) {
-            StringEntity entity = new StringEntity(body, APPLICATION_JSON);
-            if (restClient == null) {
-                throw new SearchException(UNABLE_GET_ES_CLIENT);
-            }
-            return restClient.performRequest(buildRequest("GET", endpoint, Collections.emptyMap(), entity));
+    /**
+     * Submits the search as asynchronous search - OpenSearch keeps the results for the given keep-alive.
+     *
+     * @param query             the query (from and size are taken as is)
+     * @param token             the access-token
+     * @param waitForCompletion how long to wait for the search to complete (bound by the deadline)
+     * @param keepAlive         how long OpenSearch keeps the results
+     * @return the asynchronous search
+     * @throws SearchException if the search could not be submitted
+     */
+    public ESAsyncSearch submitAsyncSearch(Query query, String token, Duration waitForCompletion, Duration keepAlive) throws SearchException {
+        String queryStr = searchMetrics.record(QUERY_BUILD, () -> queryBuilder.buildSearch(query));
+        Duration remaining = deadlines.current(SEARCH).remaining().minus(deadlines.getMargin());
+        long waitMillis = Math.max(0, Math.min(waitForCompletion.toMillis(), remaining.toMillis()));
+        String endpoint = format("%s?index=%s&track_total_hits=true&keep_on_completion=true&wait_for_completion_timeout=%dms&keep_alive=%dms%s",
+                ENDPOINT_ASYNC_SEARCH, URLEncoder.encode(query.getIndexName(), UTF_8), waitMillis, keepAlive.toMillis(),
+                query.isIgnoreUnavailable() ? "&ignore_unavailable=true" : "");
+        byte[] responseBody = searchMetrics.record(OPENSEARCH, () -> getResponse("POST", endpoint, queryStr, token, SEARCH, null, false, false,
+                response -> EntityUtils.toByteArray(response.getEntity())));
+        return searchMetrics.record(PARSE, () -> readResponse(responseBody, ESAsyncSearch.class));
+    }
+
+    /**
+     * Get the asynchronous search including its (partial) results.
+     *
+     * @param id    the id of the asynchronous search
+     * @param token the access-token
+     * @return the asynchronous search
+     * @throws SearchException if the search is unknown/expired or could not be read
+     */
+    public ESAsyncSearch getAsyncSearch(String id, String token) throws SearchException {
+        return readAsyncSearch(asyncSearchEndpoint(id), token);
+    }
+
+    /**
+     * Get the state of the asynchronous search - the hits are filtered out by OpenSearch, only their total is returned.
+     *
+     * @param id    the id of the asynchronous search
+     * @param token the access-token
+     * @return the asynchronous search without hits
+     * @throws SearchException if the search is unknown/expired or could not be read
+     */
+    public ESAsyncSearch getAsyncSearchStatus(String id, String token) throws SearchException {
+        return readAsyncSearch(format("%s?filter_path=%s", asyncSearchEndpoint(id), ASYNC_SEARCH_STATUS_FIELDS), token);
+    }
+
+    private ESAsyncSearch readAsyncSearch(String endpoint, String token) throws SearchException {
+        byte[] responseBody = searchMetrics.record(OPENSEARCH, () -> getResponse("GET", endpoint, "", token, SEARCH, null, false, true,
+                response -> readAsyncSearchResponse(response, EntityUtils::toByteArray)));
+        return searchMetrics.record(PARSE, () -> readResponse(responseBody, ESAsyncSearch.class));
+    }
+
+    /**
+     * Deletes the asynchronous search - running searches are cancelled.
+     *
+     * @param id    the id of the asynchronous search
+     * @param token the access-token
+     * @throws SearchException if the search is unknown/expired or could not be deleted
+     */
+    public void deleteAsyncSearch(String id, String token) throws SearchException {
+        searchMetrics.record(OPENSEARCH, () -> getResponse("DELETE", asyncSearchEndpoint(id), "", token, SEARCH, null, false, true,
+                response -> readAsyncSearchResponse(response, EntityUtils::toString)));
+    }
+
+    private static String asyncSearchEndpoint(String id) {
+        return format("%s/%s", ENDPOINT_ASYNC_SEARCH, URLEncoder.encode(id, UTF_8));
+    }
+
+    private static <T> T readAsyncSearchResponse(Response response, EntityReader<T> entityReader) throws IOException, SearchException {
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode == 404) {
+            throw new SearchException(ASYNC_SEARCH_NOT_FOUND);
+        }
+        if (statusCode < 200 || statusCode > 299) {
+            throw new SearchException(EXTRACTION_ERROR);
+        }
+        return entityReader.read(response.getEntity());
+    }
+
+    private long getTotalHits(ESResponse response) {
+        if (response == null || response.hits() == null || response.hits().total() == null || response.hits().total().value() == null) {
+            return 0;
+        }
+        return response.hits().total().value();
+    }
+
+    protected Response executeGetRequest(String endpoint, String body, String token, BulkheadType type, Duration timeout) throws SearchException {
+        return executeRequest("GET", endpoint, body, token, type, timeout, null, false, false);
+    }
+
+    /**
+     * Executes a request - the response is requested in the given format (e.g. Smile), if set. Hedged requests are sent a second time to another node,
+     * if there is no answer after the {@link Hedging#getDelay() hedging-delay}.
+     */
+    private Response executeRequest(String method, String endpoint, String body, String token, BulkheadType type, Duration timeout, String accept,
+            boolean hedged, boolean ignoreNotFound) throws SearchException {
+        RestClient restClient = clientBuilder.getRestClient(type);
+        if (restClient == null) {
+            throw new SearchException(UNABLE_GET_ES_CLIENT);
+        }
+        try {
+            RequestSupplier requests = () -> buildRequest(method, endpoint, body, token, timeout, accept, ignoreNotFound);
+            return hedged ? performHedged(restClient, requests) : performRequest(restClient, requests.get());
+        } catch (SocketTimeoutException e) {
+            log.warn("request to '{}' timed out after {} ms", endpoint, timeout.toMillis());
+            throw new SearchException(DEADLINE_EXCEEDED);
         } catch (IOException e) {
             log.error(e.getMessage(), e);
             throw new SearchException(SEARCH_FAILED);
         }
     }
 
+    private Request buildRequest(String method, String endpoint, String body, String token, Duration timeout, String accept, boolean ignoreNotFound) {
+        StringEntity entity = new StringEntity(body, APPLICATION_JSON);
+        // the RestClient does not fail on ignored status-codes
+        Request request = buildRequest(method, endpoint, ignoreNotFound ? Map.of("ignore", "404") : Collections.emptyMap(), entity);
+        int timeoutMillis = (int) Math.max(1, timeout.toMillis());
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) Math.min(deadlines.getConnectTimeout().toMillis(), timeoutMillis))
+                .setConnectionRequestTimeout(timeoutMillis)
+                .setSocketTimeout(timeoutMillis)
+                .build();
+        RequestOptions.Builder options = RequestOptions.DEFAULT.toBuilder()
+                .addHeader("Authorization", format("Bearer %s", token))
+                .setRequestConfig(requestConfig);
+        if (accept != null) {
+            options.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        if (properties.isCompression()) {
+            // the RestClient decompresses gzip-responses while reading them
+            options.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+        request.setOptions(options);
+        return request;
+    }
+
+    /**
+     * Performs the request on the nodes ordered by the {@link NodeBalancer}, the node serving it is released afterwards.
+     */
+    private Response performRequest(RestClient restClient, Request request) throws IOException {
+        NodeBalancer.Lease lease = clientBuilder.getNodeBalancer().lease(request);
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            Response response = restClient.performRequest(request);
+            outcome = "success";
+            return response;
+        } finally {
+            lease.release(System.nanoTime() - start, outcome);
+        }
+    }
+
+    /**
+     * Performs the request and - if there is no answer after the hedging-delay and the budget allows - the same request on another node. The first
+     * successful answer is returned, the other request is cancelled.
+     */
+    private Response performHedged(RestClient restClient, RequestSupplier requests) throws IOException {
+        hedging.onRequest();
+        Attempt primary = performAsync(restClient, requests.get(), null);
+        Attempt hedge = null;
+        try {
+            try {
+                return primary.response().get(hedging.getDelay().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (!hedging.tryAcquire()) {
+                    return primary.response().get();
+                }
+            }
+            hedge = performAsync(restClient, requests.get(), primary.lease().getHost());
+            Response response = firstSuccessful(primary.response(), hedge.response()).get();
+            if (hedge.response().isDone() && hedge.response().getNow(null) == response) {
+                hedging.onHedgeWon();
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("hedged request interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            primary.cancel();
+            if (hedge != null) {
+                hedge.cancel();
+            }
+        }
+    }
+
+    /**
+     * Performs the request asynchronously - the node serving it is released (and the latency recorded) once the request completed. The primary request
+     * is the one that avoids no node.
+     */
+    private Attempt performAsync(RestClient restClient, Request request, HttpHost avoid) {
+        NodeBalancer nodeBalancer = clientBuilder.getNodeBalancer();
+        NodeBalancer.Lease lease = nodeBalancer.lease(request);
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        long start = System.nanoTime();
+        nodeBalancer.avoid(avoid);
+        Cancellable cancellable = restClient.performRequestAsync(request, new ResponseListener() {
+            @Override
+            public void onSuccess(Response result) {
+                response.complete(result);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                response.completeExceptionally(exception);
+            }
+        });
+        response.whenComplete((result, exception) -> {
+            long nanos = System.nanoTime() - start;
+            boolean cancelled = exception instanceof CancellationException;
+            lease.release(nanos, exception == null ? "success" : cancelled ? "cancelled" : "error");
+            // a primary cancelled in favour of its hedge took at least this long - leaving it out would bias the delay towards the fast searches
+            if (exception == null || cancelled && avoid == null) {
+                hedging.record(nanos);
+            }
+        });
+        return new Attempt(response, cancellable, lease);
+    }
+
+    private static CompletableFuture<Response> firstSuccessful(CompletableFuture<Response> first, CompletableFuture<Response> second) {
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<Response> attempt : List.of(first, second)) {
+            attempt.whenComplete((response, exception) -> {
+                if (exception == null) {
+                    result.complete(response);
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(exception);
+                }
+            });
+        }
+        return result;
+    }
+
     protected Request buildRequest(String method, String endpoint, Map<String, String> params, StringEntity entity) {
         Request request = new Request(method, endpoint);
         request.setEntity(entity);
@@ -109,6 +485,30 @@ public class ElasticSearchRestClient {
     }
 
 
+    /**
+     * Reads the search-response - with raw sources, the <code>_source</code> of the hits is not parsed but referenced within the response-body (and written to
+     * the result as-is). Smile-responses are recognized by their header and always parsed.
+     */
+    ESResponse readSearchResponse(byte[] content) throws SearchException {
+        return readResponse(content, ESResponse.class);
+    }
+
+    private <T> T readResponse(byte[] content, Class<T> clazz) throws SearchException {
+        try {
+            if (isSmile(content)) {
+                return smileMapper.readValue(content, clazz);
+            }
+            ObjectReader reader = objectMapper.readerFor(clazz);
+            return (properties.isRawSource() ? reader.withAttribute(RawSource.ATTR_RAW_INPUT, content) : reader).readValue(content);
+        } catch (IOException e) {
+            throw new SearchException(UNABLE_EXTRACT_STRING_TO_OBJECT, new String(content, UTF_8));
+        }
+    }
+
+    private static boolean isSmile(byte[] content) {
+        return content.length >= 3 && content[0] == ':' && content[1] == ')' && content[2] == '\n';
+    }
+
     private <T> T readValue(String content, Class<T> clazz) throws SearchException {
         try {
             return objectMapper.readValue(content, clazz);
@@ -116,4 +516,28 @@ public class ElasticSearchRestClient {
             throw new SearchException(UNABLE_EXTRACT_STRING_TO_OBJECT, content);
         }
     }
+
+    private record Attempt(CompletableFuture<Response> response, Cancellable cancellable, NodeBalancer.Lease lease) {
+
+        void cancel() {
+            if (!response.isDone()) {
+                cancellable.cancel();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RequestSupplier {
+        Request get();
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(Response response) throws IOException, SearchException;
+    }
+
+    @FunctionalInterface
+    private interface EntityReader<T> {
+        T read(HttpEntity entity) throws IOException;
+    }
 }
@@ -0,0 +1,98 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the connection-pool of the RestTemplate (organizationmanager, OAuth-configuration).
+ * <p>
+ * Connect- and read-timeouts are derived from the deadlines (<code>search.deadline.*</code>).
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.http-client")
+public class HttpClientProperties {
+
+    private int maxConnections = 50;
+    private int maxConnectionsPerRoute = 20;
+    /**
+     * duration an idle connection is kept alive, if the server does not send a <code>Keep-Alive</code>-header
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+    /**
+     * idle connections are evicted after this duration
+     */
+    private Duration idleTimeout = Duration.ofMinutes(1);
+    /**
+     * maximum duration to wait for a connection from the pool
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+    /**
+     * pooled connections are validated before being reused after this period of inactivity
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public Duration getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+}
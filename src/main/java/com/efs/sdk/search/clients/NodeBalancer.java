@@ -0,0 +1,248 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import org.elasticsearch.client.Node;
+import org.elasticsearch.client.NodeSelector;
+import org.elasticsearch.client.Request;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Balances the requests over the OpenSearch-nodes by least outstanding requests - ties are broken randomly, dedicated master-nodes (known by sniffing)
+ * are only used if there is no other node.
+ * <p>
+ * The nodes are ordered, not filtered: the {@link org.elasticsearch.client.RestClient} sends the request to the first node and fails over to the next
+ * ones, nodes that failed are excluded by the client itself until their backoff expired. A request is counted as outstanding on the node that actually
+ * serves it - the request carries a {@link Lease}, which the interceptor of the client moves to the target of every attempt, and which has to be
+ * released once the request completed.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+public class NodeBalancer implements NodeSelector, HttpRequestInterceptor {
+
+    static final String METRIC_NODE = "search.opensearch.node";
+    static final String METRIC_OUTSTANDING = "search.opensearch.node.outstanding";
+    static final String METRIC_FAILURES = "search.opensearch.node.failures";
+    static final String TAG_NODE = "node";
+    static final String TAG_OUTCOME = "outcome";
+    /**
+     * Internal header that links an attempt to its {@link Lease} - it is removed before the request is sent.
+     */
+    static final String HEADER_LEASE = "X-Search-Node-Lease";
+
+    private final MeterRegistry registry;
+    private final Map<HttpHost, AtomicInteger> outstanding = new ConcurrentHashMap<>();
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final ThreadLocal<HttpHost> avoided = new ThreadLocal<>();
+
+    public NodeBalancer(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Orders the nodes by least outstanding requests, the node to avoid and dedicated master-nodes last. Nodes that are not passed as a list (the
+     * client only passes its dead nodes that way, of which it retries the one with the shortest backoff) are left as they are.
+     *
+     * @param nodes the nodes
+     */
+    @Override
+    public void select(Iterable<Node> nodes) {
+        HttpHost avoid = avoided.get();
+        avoided.remove();
+        if (!(nodes instanceof List<Node> candidates) || candidates.size() < 2) {
+            return;
+        }
+        // a snapshot, as the counters change while sorting
+        Map<Node, Integer> load = new HashMap<>();
+        candidates.forEach(node -> load.put(node, outstanding(node.getHost()).get()));
+        Collections.shuffle(candidates, ThreadLocalRandom.current());
+        candidates.sort(Comparator.comparing(NodeBalancer::isDedicatedMaster)
+                .thenComparing(node -> node.getHost().equals(avoid))
+                .thenComparing(load::get));
+    }
+
+    /**
+     * Creates the selector of a client. The client rotates the selected nodes round-robin by a counter of its own, which the selector mirrors to keep
+     * the least loaded node first - if concurrent requests interleave, the request may start on another node of the order, which only costs balance.
+     *
+     * @return the selector
+     */
+    NodeSelector newSelector() {
+        AtomicInteger rotations = new AtomicInteger();
+        return new NodeSelector() {
+            @Override
+            public void select(Iterable<Node> nodes) {
+                NodeBalancer.this.select(nodes);
+                if (nodes instanceof List<Node> candidates && !candidates.isEmpty()) {
+                    Collections.rotate(candidates, -Math.floorMod(rotations.getAndIncrement(), candidates.size()));
+                }
+            }
+
+            @Override
+            public String toString() {
+                return NodeBalancer.this.toString();
+            }
+        };
+    }
+
+    /**
+     * Avoids the given node for the next request of the current thread, if there is another one (e.g. for hedging).
+     *
+     * @param host the node to avoid (may be null)
+     */
+    public void avoid(HttpHost host) {
+        if (host == null) {
+            avoided.remove();
+        } else {
+            avoided.set(host);
+        }
+    }
+
+    /**
+     * Opens the lease of the given request - the request is counted on the node serving it until the lease is released.
+     *
+     * @param request the request
+     * @return the lease
+     */
+    public Lease lease(Request request) {
+        Lease lease = new Lease(UUID.randomUUID().toString());
+        leases.put(lease.id, lease);
+        request.setOptions(request.getOptions().toBuilder().addHeader(HEADER_LEASE, lease.id));
+        return lease;
+    }
+
+    /**
+     * Moves the lease of the request to the node the attempt is sent to - called by the client for every attempt, including fail-overs.
+     */
+    @Override
+    public void process(HttpRequest request, HttpContext context) {
+        Header header = request.getFirstHeader(HEADER_LEASE);
+        if (header == null) {
+            return;
+        }
+        request.removeHeaders(HEADER_LEASE);
+        Lease lease = leases.get(header.getValue());
+        HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+        if (lease != null && target != null) {
+            lease.serve(target);
+        }
+    }
+
+    /**
+     * Records the failure of a node - the node is excluded by the client until its backoff expired.
+     *
+     * @param node the node
+     */
+    public void onFailure(Node node) {
+        Counter.builder(METRIC_FAILURES).tag(TAG_NODE, node.getHost().toHostString()).register(registry).increment();
+    }
+
+    /**
+     * The request of a lease is counted as outstanding on the node that serves it.
+     */
+    public final class Lease {
+
+        private final String id;
+        private HttpHost host;
+        private boolean released;
+
+        private Lease(String id) {
+            this.id = id;
+        }
+
+        /**
+         * Get the node that serves the request.
+         *
+         * @return the node (null if no attempt was sent yet)
+         */
+        public synchronized HttpHost getHost() {
+            return host;
+        }
+
+        synchronized void serve(HttpHost target) {
+            if (released || target.equals(host)) {
+                return;
+            }
+            if (host != null) {
+                outstanding(host).decrementAndGet();
+            }
+            outstanding(target).incrementAndGet();
+            host = target;
+        }
+
+        /**
+         * Releases the node serving the request and records the duration of the request.
+         *
+         * @param nanos   the duration of the request in nanoseconds
+         * @param outcome the outcome of the request
+         */
+        public synchronized void release(long nanos, String outcome) {
+            if (released) {
+                return;
+            }
+            released = true;
+            leases.remove(id);
+            if (host != null) {
+                outstanding(host).decrementAndGet();
+                Timer.builder(METRIC_NODE).tag(TAG_NODE, host.toHostString()).tag(TAG_OUTCOME, outcome).register(registry).record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    int getOutstanding(HttpHost host) {
+        return outstanding(host).get();
+    }
+
+    private AtomicInteger outstanding(HttpHost host) {
+        return outstanding.computeIfAbsent(host, h -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder(METRIC_OUTSTANDING, counter, AtomicInteger::get).tag(TAG_NODE, h.toHostString()).register(registry);
+            return counter;
+        });
+    }
+
+    private static boolean isDedicatedMaster(Node node) {
+        Node.Roles roles = node.getRoles();
+        return roles != null && roles.isMasterEligible() && !roles.canContainData() && !roles.isIngest();
+    }
+
+    @Override
+    public String toString() {
+        return "LEAST_OUTSTANDING";
+    }
+}
@@ -0,0 +1,64 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the requests to OpenSearch and of reading their responses.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.opensearch")
+public class OpenSearchProperties {
+
+    /**
+     * whether the <code>_source</code> of the hits is passed to the search-result as raw JSON instead of being parsed and re-serialized
+     */
+    private boolean rawSource = true;
+    /**
+     * whether search-results are requested as Smile instead of JSON
+     */
+    private boolean smile;
+    /**
+     * whether responses are requested gzip-compressed
+     */
+    private boolean compression = true;
+
+    public boolean isRawSource() {
+        return rawSource;
+    }
+
+    public void setRawSource(boolean rawSource) {
+        this.rawSource = rawSource;
+    }
+
+    public boolean isSmile() {
+        return smile;
+    }
+
+    public void setSmile(boolean smile) {
+        this.smile = smile;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+}
@@ -15,8 +15,14 @@ limitations under the License.
  */
 package com.efs.sdk.search.clients;
 
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.helper.AuthHelper;
+import com.efs.sdk.search.metrics.ServerTiming;
+import com.efs.sdk.search.resilience.CircuitBreaker;
+import com.efs.sdk.search.resilience.CircuitBreakers;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
-import net.minidev.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
@@ -25,10 +31,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Duration;
 import java.util.List;
 
 @Component
@@ -37,10 +45,26 @@ public class OrganizationManagerClient {
 
     private final RestTemplate restTemplate;
     private final String allSpacesEndpoint;
+    private final CircuitBreaker<List<String>> spacesBreaker;
+    /**
+     * the accessible spaces per user - null, if not cached
+     */
+    private final Cache<String, List<String>> spaces;
 
-    public OrganizationManagerClient(RestTemplate restTemplate, @Value("${search.organizationmanager-endpoints.spaces}") String allSpacesEndpoint) {
+    /**
+     * @param spacesCacheTtl     how long the accessible spaces are cached per user - if not set, they are cached for 30 seconds with the index
+     *                           authorization pre-check only, which looks them up per search (otherwise revoked permissions would be effective late)
+     * @param indexAuthorization whether the index authorization pre-check is enabled
+     */
+    public OrganizationManagerClient(RestTemplate restTemplate, @Value("${search.organizationmanager-endpoints.spaces}") String allSpacesEndpoint,
+            CircuitBreakers circuitBreakers, @Value("${search.organizationmanager-endpoints.spaces-cache-ttl:#{null}}") Duration spacesCacheTtl,
+            @Value("${search.index-authorization.enabled:false}") boolean indexAuthorization) {
         this.restTemplate = restTemplate;
         this.allSpacesEndpoint = allSpacesEndpoint;
+        // client-errors (e.g. missing permissions) are answers of a healthy organizationmanager
+        this.spacesBreaker = circuitBreakers.create("organizationmanager-spaces", e -> !(e instanceof HttpClientErrorException));
+        Duration ttl = spacesCacheTtl != null ? spacesCacheTtl : indexAuthorization ? Duration.ofSeconds(30) : Duration.ZERO;
+        this.spaces = ttl.isZero() ? null : Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(ttl).build();
     }
 
 
@@ -50,19 +74,38 @@ public class OrganizationManagerClient {
      * Lists all spaces of given organization
      * (only allowed, if user has access to the organization or if space and organization are public).
      * If permissions is set, list only the spaces the user has requested permissions to.
+     * The answer may be cached per user for a short while. If the organizationmanager is unavailable, the last successful answer for the same user is returned.
      *
      * @param token the (user) token that is used to make the request
      * @return the spaces
      * @throws RestClientException on 4xx client error or 5xx server error
+     * @throws SearchException     if the organizationmanager is unavailable and there is no previous answer for the user
      */
-    public List<String> getAllSpaces(String token) throws RestClientException {
+    public List<String> getAllSpaces(String token) throws SearchException {
+        String userKey = AuthHelper.getUserKey(token);
+        List<String> cached = spaces == null ? null : spaces.getIfPresent(userKey);
+        if (spaces != null) {
+            ServerTiming.markCurrent("spaces", cached != null ? "hit" : "miss");
+        }
+        if (cached != null) {
+            return cached;
+        }
+        return spacesBreaker.execute(userKey, () -> {
+            List<String> allSpaces = requestAllSpaces(token);
+            // only actual answers are cached - the last answer served while the organizationmanager is unavailable must not outlive the outage
+            if (spaces != null && allSpaces != null) {
+                spaces.put(userKey, allSpaces);
+            }
+            return allSpaces;
+        });
+    }
+
+    private List<String> requestAllSpaces(String token) throws RestClientException {
         MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
         headers.add("Authorization", "Bearer " + token);
 
-        JSONObject requestJson = new JSONObject();
-        requestJson.appendField("permissions", "READ");
-
-        HttpEntity<String> request = new HttpEntity<>(requestJson.toString(), headers);
+        // permissions are passed as query-parameter - GET-requests are sent without body
+        HttpEntity<String> request = new HttpEntity<>(headers);
         UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(allSpacesEndpoint)
                 .queryParam("permissions", "READ");
         ParameterizedTypeReference<List<String>> responseType = new ParameterizedTypeReference<>() {
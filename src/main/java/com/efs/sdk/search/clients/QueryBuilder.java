@@ -21,9 +21,11 @@ import com.efs.sdk.search.model.search.Operator;
 import com.efs.sdk.search.model.search.Query;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.*;
 import static com.efs.sdk.search.model.search.DataType.STRING;
@@ -41,11 +43,21 @@ public class QueryBuilder {
      * property for fulltext-search
      */
     private static final String PROP_ALL_FIELDS = "_all_fields";
+    /**
+     * date-math relative to 'now' without rounding, e.g. 'now-7d'
+     */
+    private static final Pattern NOW_RELATIVE = Pattern.compile("now([+-]\\d+[yMwdhHms])*");
+    private static final Pattern DATE_ROUNDING = Pattern.compile("[yMwdhHms]");
 
     private final ObjectMapper objectMapper;
+    private final String dateRounding;
 
-    public QueryBuilder(ObjectMapper objectMapper) {
+    public QueryBuilder(ObjectMapper objectMapper, @Value("${search.query.date-rounding:}") String dateRounding) {
+        if (!dateRounding.isEmpty() && !DATE_ROUNDING.matcher(dateRounding).matches()) {
+            throw new IllegalArgumentException(format("invalid date-rounding '%s'", dateRounding));
+        }
         this.objectMapper = objectMapper;
+        this.dateRounding = dateRounding;
     }
 
     public String buildSearch(Query query) throws SearchException {
@@ -106,7 +118,7 @@ public class QueryBuilder {
                 case LTE -> queryParts.add(getBoundFilter(filter.getProperty(), "*", filter.getValue(), true));
                 case BETWEEN -> {
                     // convert bounds to single value
-                    filter.setValue(format("[ %s TO %s ]", filter.getLowerBound(), filter.getUpperBound()));
+                    filter.setValue(format("[ %s TO %s ]", roundDate(filter.getLowerBound()), roundDate(filter.getUpperBound())));
                     equalFilter.computeIfAbsent(filter.getProperty(), k -> new ArrayList<>()).add(filter);
                 }
                 default -> throw new SearchException(UNKNOWN_OPERATOR, filter.getOperator().toString());
@@ -180,9 +192,20 @@ public class QueryBuilder {
 
     private String getBoundFilter(String property, String lowerBound, String upperBound, boolean inclusive) {
         if (inclusive) {
-            return format("%s:[ %s TO %s ]", property, lowerBound, upperBound);
+            return format("%s:[ %s TO %s ]", property, roundDate(lowerBound), roundDate(upperBound));
+        }
+        return format("%s:{ %s TO %s }", property, roundDate(lowerBound), roundDate(upperBound));
+    }
+
+    /**
+     * Rounds 'now'-relative values (e.g. 'now-7d' to 'now-7d/h'), if a date-rounding is configured - otherwise every request has another 'now' and
+     * OpenSearch cannot cache the filter.
+     */
+    private String roundDate(String value) {
+        if (dateRounding.isEmpty() || !NOW_RELATIVE.matcher(value.trim()).matches()) {
+            return value;
         }
-        return format("%s:{ %s TO %s }", property, lowerBound, upperBound);
+        return format("%s/%s", value.trim(), dateRounding);
     }
 
     private List<Filter> escapeFilters(List<Filter> filter) {
@@ -0,0 +1,220 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.model.elasticsearch.ESHit;
+import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.resilience.Deadline;
+import com.efs.sdk.search.resilience.Deadlines;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.efs.sdk.search.clients.ElasticSearchRestClient.ENDPOINT_MAPPING;
+import static com.efs.sdk.search.clients.ElasticSearchRestClient.ENDPOINT_SEARCH_WITH_HITS;
+import static com.efs.sdk.search.clients.QueryBuilder.MAX_QUERY_SIZE;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.*;
+import static com.efs.sdk.search.resilience.BulkheadType.SEARCH;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Non-blocking variant of the {@link ElasticSearchRestClient} (profile <code>reactive</code>) - requests are sent by a {@link WebClient} on a shared
+ * event-loop, so waiting for OpenSearch does not occupy a thread.
+ * <p>
+ * Bulkheads and the concurrency-limit do not apply, the number of requests in flight is bounded by the connection-pool instead. Queries are built and
+ * responses are read the same way as by the {@link ElasticSearchRestClient}.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+@Profile("reactive")
+@Slf4j
+public class ReactiveElasticSearchClient {
+
+    private final WebClient webClient;
+    private final ElasticSearchRestClient restClient;
+    private final QueryBuilder queryBuilder;
+    private final ObjectMapper objectMapper;
+    private final Deadlines deadlines;
+    private final SearchRouting searchRouting;
+
+    public ReactiveElasticSearchClient(ElasticSearchClientBuilder clientBuilder, ElasticSearchRestClient restClient, QueryBuilder queryBuilder,
+            ObjectMapper objectMapper, Deadlines deadlines, SearchRouting searchRouting, @Value("${search.opensearch.compression:true}") boolean compression,
+            @Value("${search.reactive.max-connections:500}") int maxConnections, @Value("${search.reactive.max-in-memory-size:64MB}") DataSize maxInMemorySize) {
+        this.restClient = restClient;
+        this.queryBuilder = queryBuilder;
+        this.objectMapper = objectMapper;
+        this.deadlines = deadlines;
+        this.searchRouting = searchRouting;
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.builder("opensearch").maxConnections(maxConnections).build())
+                .compress(compression)
+                .secure(spec -> spec.sslContext(buildSslContext()).handlerConfigurator(handler -> disableHostnameVerification(handler.engine())));
+        this.webClient = WebClient.builder()
+                .baseUrl(clientBuilder.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                // a page of hits is read at once (up to 10.000 hits)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
+                .build();
+    }
+
+    /**
+     * Executes the search - OpenSearch times out before the deadline, so there is time left for returning a partial result.
+     *
+     * @param query    the query
+     * @param token    the access-token
+     * @param deadline the deadline of the search
+     * @return the response
+     */
+    public Mono<ESResponse> executeSearch(Query query, String token, Deadline deadline) {
+        return Mono.fromCallable(() -> {
+            deadline.check();
+            return queryBuilder.buildSearch(query);
+        }).flatMap(queryStr -> {
+            Duration remaining = deadline.remaining();
+            long opensearchTimeout = Math.max(1, remaining.minus(deadlines.getMargin()).toMillis());
+            String endpoint = format("/%s%s%s", query.getIndexName(), ENDPOINT_SEARCH_WITH_HITS,
+                    searchRouting.getParameters(query, token, opensearchTimeout));
+            return exchange(webClient.post().uri(endpoint).contentType(MediaType.APPLICATION_JSON).bodyValue(queryStr), token, remaining);
+        }).flatMap(content -> Mono.fromCallable(() -> restClient.readSearchResponse(content)));
+    }
+
+    /**
+     * Streams the hits of the query (up to 10.000) - pages of the query-size are requested one after another and only once all hits of the previous page
+     * have been requested downstream, so a slow consumer slows down the requests to OpenSearch. Every page has its own deadline.
+     *
+     * @param query the query (its page is ignored)
+     * @param token the access-token
+     * @return the hits
+     */
+    public Flux<ESHit> streamHits(Query query, String token) {
+        int size = Math.max(1, Math.min(query.getSize(), MAX_QUERY_SIZE));
+        return Flux.defer(() -> {
+            AtomicBoolean lastPage = new AtomicBoolean();
+            return Flux.range(0, MAX_QUERY_SIZE / size)
+                    .takeWhile(page -> !lastPage.get())
+                    // without prefetch, the next page is only fetched once the hits of the current one completed
+                    .concatMap(page -> fetchPage(query, page, size, token)
+                            .doOnNext(current -> lastPage.set(!current.isFull(size)))
+                            .flatMapIterable(Page::hits), 0);
+        });
+    }
+
+    private Mono<Page> fetchPage(Query query, int page, int size, String token) {
+        return executeSearch(query.forPage(page, size), token, Deadline.after(deadlines.getTimeout(SEARCH))).map(Page::new);
+    }
+
+    /**
+     * Get the mappings of the given indices.
+     *
+     * @param token         the access-token
+     * @param indicesString the indices (comma-separated)
+     * @param deadline      the deadline of the request
+     * @return the mappings by index
+     */
+    public Mono<Map<String, Object>> getMappings(String token, String indicesString, Deadline deadline) {
+        return Mono.fromCallable(() -> {
+                    deadline.check();
+                    return deadline.remaining();
+                })
+                .flatMap(remaining -> exchange(webClient.get().uri("/" + indicesString + ENDPOINT_MAPPING), token, remaining))
+                .flatMap(content -> Mono.fromCallable(() -> readMappings(content)));
+    }
+
+    private Mono<byte[]> exchange(WebClient.RequestHeadersSpec<?> request, String token, Duration timeout) {
+        return request.header(HttpHeaders.AUTHORIZATION, format("Bearer %s", token))
+                .retrieve()
+                .onStatus(status -> !status.is2xxSuccessful(), response -> response.releaseBody().then(Mono.error(new SearchException(EXTRACTION_ERROR))))
+                .bodyToMono(byte[].class)
+                .timeout(timeout)
+                // parsing and building results must not block the event-loop
+                .publishOn(Schedulers.boundedElastic())
+                .onErrorMap(TimeoutException.class, e -> new SearchException(DEADLINE_EXCEEDED))
+                .onErrorMap(WebClientRequestException.class, e -> {
+                    log.error(e.getMessage(), e);
+                    return new SearchException(SEARCH_FAILED);
+                });
+    }
+
+    private Map<String, Object> readMappings(byte[] content) throws SearchException {
+        try {
+            return objectMapper.readValue(content, new TypeReference<>() {
+            });
+        } catch (Exception e) {
+            throw new SearchException(UNABLE_EXTRACT_STRING_TO_OBJECT, new String(content, UTF_8));
+        }
+    }
+
+    /**
+     * OpenSearch is trusted the same way as by the {@link ElasticSearchClientBuilder}s.
+     */
+    private static SslContext buildSslContext() {
+        try {
+            return SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE).build();
+        } catch (SSLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void disableHostnameVerification(SSLEngine engine) {
+        SSLParameters parameters = engine.getSSLParameters();
+        parameters.setEndpointIdentificationAlgorithm(null);
+        engine.setSSLParameters(parameters);
+    }
+
+    private record Page(ESResponse response) {
+
+        List<ESHit> hits() {
+            return response.hits() == null || response.hits().hits() == null ? Collections.emptyList() : response.hits().hits();
+        }
+
+        /**
+         * Whether there may be more hits - a page that timed out is the last one.
+         */
+        boolean isFull(int size) {
+            return hits().size() >= size && !Boolean.TRUE.equals(response.timedOut());
+        }
+    }
+}
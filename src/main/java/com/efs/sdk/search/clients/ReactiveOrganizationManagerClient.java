@@ -0,0 +1,84 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.resilience.Deadline;
+import com.efs.sdk.search.resilience.DeadlineProperties;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.DEADLINE_EXCEEDED;
+
+/**
+ * Non-blocking variant of the {@link OrganizationManagerClient} (profile <code>reactive</code>).
+ * <p>
+ * There is no fallback to previous answers, a failing organizationmanager fails the request - a hanging one is abandoned once the deadline of the
+ * request expired.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+@Profile("reactive")
+public class ReactiveOrganizationManagerClient {
+
+    private final WebClient webClient;
+    private final String allSpacesEndpoint;
+
+    public ReactiveOrganizationManagerClient(WebClient.Builder webClientBuilder, DeadlineProperties deadlineProperties,
+            @Value("${search.organizationmanager-endpoints.spaces}") String allSpacesEndpoint) {
+        HttpClient httpClient = HttpClient.create().option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) deadlineProperties.getConnectTimeout().toMillis());
+        this.webClient = webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+        this.allSpacesEndpoint = allSpacesEndpoint;
+    }
+
+    /**
+     * Get the spaces the user has read-permissions to.
+     *
+     * @param token    the (user) token that is used to make the request
+     * @param deadline the deadline of the request
+     * @return the spaces
+     */
+    public Mono<List<String>> getAllSpaces(String token, Deadline deadline) {
+        // permissions are passed as query-parameter - GET-requests are sent without body
+        String uri = UriComponentsBuilder.fromHttpUrl(allSpacesEndpoint).queryParam("permissions", "READ").toUriString();
+        return Mono.fromCallable(() -> {
+                    deadline.check();
+                    return deadline.remaining();
+                })
+                .flatMap(remaining -> webClient.get()
+                        .uri(uri)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .retrieve()
+                        .bodyToMono(new ParameterizedTypeReference<List<String>>() {
+                        })
+                        .defaultIfEmpty(List.of())
+                        .timeout(remaining))
+                .onErrorMap(TimeoutException.class, e -> new SearchException(DEADLINE_EXCEEDED));
+    }
+}
@@ -15,35 +15,73 @@ limitations under the License.
  */
 package com.efs.sdk.search.clients;
 
+import com.efs.sdk.search.commons.SearchException;
 import com.efs.sdk.search.model.elasticsearch.ESHit;
 import com.efs.sdk.search.model.elasticsearch.ESHits;
 import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.search.Columns;
 import com.efs.sdk.search.model.search.Result;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static com.efs.sdk.search.clients.QueryBuilder.MAX_QUERY_SIZE;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.EXTRACTION_ERROR;
 
 @Component
 public class ResultBuilder {
 
     public Result buildResult(ESResponse response) {
+        Result searchResult = buildResultWithoutHits(response);
+        searchResult.setHits(collectHits(response));
+        return searchResult;
+    }
+
+    /**
+     * Builds the result in columnar layout - the hits are collected into one array of values per result-property without building a map per hit.
+     *
+     * @param response           the response of OpenSearch
+     * @param resultProperties   the result-properties (all properties of the hits if empty)
+     * @param dictionaryEncoding whether to encode low-cardinality string-columns by a dictionary
+     * @return the result
+     * @throws SearchException if a hit could not be read
+     */
+    public Result buildColumnarResult(ESResponse response, List<String> resultProperties, boolean dictionaryEncoding) throws SearchException {
+        Result searchResult = buildResultWithoutHits(response);
+        searchResult.setColumns(collectColumns(response, resultProperties, dictionaryEncoding));
+        return searchResult;
+    }
+
+    private Result buildResultWithoutHits(ESResponse response) {
         Result searchResult = new Result();
         int cnt = response.hits().total().value();
-
-        List<Map<String, Object>> hitsSources = collectHits(response);
         Number took = response.took();
 
-        searchResult.setHits(hitsSources);
         searchResult.setMaxResults(Math.min(cnt, MAX_QUERY_SIZE));
         searchResult.setMax(cnt);
         searchResult.setDuration(took);
+        searchResult.setTimedOut(Boolean.TRUE.equals(response.timedOut()));
         return searchResult;
     }
 
+    private Columns collectColumns(ESResponse response, List<String> resultProperties, boolean dictionaryEncoding) throws SearchException {
+        ColumnCollector collector = new ColumnCollector(resultProperties);
+        ESHits hits = response.hits();
+        if (hits != null && hits.hits() != null) {
+            try {
+                for (ESHit hit : hits.hits()) {
+                    collector.add(hit.source());
+                }
+            } catch (IOException e) {
+                throw new SearchException(EXTRACTION_ERROR);
+            }
+        }
+        return collector.build(dictionaryEncoding);
+    }
+
     private List<Map<String, Object>> collectHits(ESResponse response) {
         ESHits hits = response.hits();
         if (hits == null) {
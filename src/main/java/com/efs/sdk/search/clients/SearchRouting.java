@@ -0,0 +1,150 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import com.efs.sdk.search.model.search.Query;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Builds the routing-parameters of a search, so repeated searches hit the caches of OpenSearch:
+ * <ul>
+ *     <li><code>request_cache=true</code> for searches without hits (size 0) - the timeout of these searches is rounded down to full seconds, as
+ *     it is part of the cache-key</li>
+ *     <li>a <code>preference</code> derived from the user or the session, so the pages of a search are served by the same (warm) shard-copies</li>
+ * </ul>
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Slf4j
+@Component
+public class SearchRouting {
+
+    static final String CLAIM_SUBJECT = "sub";
+    static final String CLAIM_SESSION = "sid";
+    /**
+     * claim of the session in access-tokens of Keycloak
+     */
+    static final String CLAIM_SESSION_STATE = "session_state";
+    /**
+     * number of hex-digits of the hashed user/session used as preference
+     */
+    private static final int PREFERENCE_LENGTH = 16;
+
+    private final ObjectMapper objectMapper;
+    private final boolean requestCache;
+    private final Preference preference;
+
+    public SearchRouting(ObjectMapper objectMapper, @Value("${search.opensearch.request-cache:false}") boolean requestCache,
+            @Value("${search.opensearch.preference:none}") Preference preference) {
+        this.objectMapper = objectMapper;
+        this.requestCache = requestCache;
+        this.preference = preference;
+    }
+
+    /**
+     * Get the query-parameters (starting with <code>&amp;</code>) of the search.
+     *
+     * @param query         the query
+     * @param token         the access-token (already validated)
+     * @param timeoutMillis the timeout of OpenSearch
+     * @return the query-parameters
+     */
+    public String getParameters(Query query, String token, long timeoutMillis) {
+        StringBuilder parameters = new StringBuilder();
+        boolean cached = requestCache && query.getSize() == 0;
+        long timeout = cached && timeoutMillis >= TimeUnit.SECONDS.toMillis(1) ? TimeUnit.SECONDS.toMillis(TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)) :
+                timeoutMillis;
+        parameters.append(format("&timeout=%dms", timeout));
+        if (cached) {
+            parameters.append("&request_cache=true");
+        }
+        if (query.isIgnoreUnavailable()) {
+            parameters.append("&ignore_unavailable=true");
+        }
+        String preferenceValue = getPreference(token);
+        if (preferenceValue != null) {
+            parameters.append("&preference=").append(preferenceValue);
+        }
+        return parameters.toString();
+    }
+
+    /**
+     * Derives the preference from the claims of the token - the user (or session) is hashed, so it does not show up in the logs of OpenSearch.
+     *
+     * @return the preference (null if disabled or the token has no such claim)
+     */
+    String getPreference(String token) {
+        if (preference == Preference.NONE || token == null) {
+            return null;
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            String value = preference == Preference.SESSION ? claims.path(CLAIM_SESSION).asText(claims.path(CLAIM_SESSION_STATE).asText(null)) : null;
+            if (value == null) {
+                value = claims.path(CLAIM_SUBJECT).asText(null);
+            }
+            return value == null ? null : hash(value);
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("unable to read claims of token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, PREFERENCE_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * What the preference of a search is derived from.
+     */
+    public enum Preference {
+        /**
+         * no preference - OpenSearch selects the shard-copies by adaptive replica selection
+         */
+        NONE,
+        /**
+         * the subject of the token
+         */
+        USER,
+        /**
+         * the session of the token (the subject, if there is no session)
+         */
+        SESSION
+    }
+}
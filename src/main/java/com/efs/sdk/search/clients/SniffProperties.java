@@ -0,0 +1,86 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of sniffing the OpenSearch-nodes, e.g.
+ * <pre>
+ * search:
+ *   elasticsearch:
+ *     sniff:
+ *       enabled: true
+ *       interval: 5m
+ *       after-failure-delay: 1m
+ *       authorization: Basic ...
+ * </pre>
+ * The nodes are looked up by <code>GET /_nodes/http</code>, which is not requested with a user-token - the request is sent with the given authorization
+ * (if any).
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.elasticsearch.sniff")
+public class SniffProperties {
+
+    private boolean enabled = false;
+    private Duration interval = Duration.ofMinutes(5);
+    private Duration afterFailureDelay = Duration.ofMinutes(1);
+    private Duration timeout = Duration.ofSeconds(1);
+    private String authorization;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public Duration getAfterFailureDelay() {
+        return afterFailureDelay;
+    }
+
+    public void setAfterFailureDelay(Duration afterFailureDelay) {
+        this.afterFailureDelay = afterFailureDelay;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public String getAuthorization() {
+        return authorization;
+    }
+
+    public void setAuthorization(String authorization) {
+        this.authorization = authorization;
+    }
+}
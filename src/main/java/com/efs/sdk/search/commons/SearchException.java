@@ -18,6 +18,7 @@ package com.efs.sdk.search.commons;
 import org.springframework.http.HttpStatus;
 
 import java.io.Serial;
+import java.time.Duration;
 
 public class SearchException extends Exception {
 
@@ -26,17 +27,33 @@ public class SearchException extends Exception {
 
     private final HttpStatus httpStatus;
     private final int errorCode;
+    private final transient Duration retryAfter;
 
     public SearchException(SEARCH_ERROR error) {
         super(error.code + ": " + error.msg);
         httpStatus = error.status;
         errorCode = error.code;
+        retryAfter = null;
     }
 
     public SearchException(SEARCH_ERROR error, String additionalMessage) {
         super(error.code + ": " + error.msg + " " + additionalMessage);
         httpStatus = error.status;
         errorCode = error.code;
+        retryAfter = null;
+    }
+
+    /**
+     * Creates an exception advising the client to retry after the given duration (returned as <code>Retry-After</code>-header).
+     *
+     * @param error      the error
+     * @param retryAfter the duration the client should wait before retrying
+     */
+    public SearchException(SEARCH_ERROR error, Duration retryAfter) {
+        super(error.code + ": " + error.msg);
+        httpStatus = error.status;
+        errorCode = error.code;
+        this.retryAfter = retryAfter;
     }
 
     public HttpStatus getHttpStatus() {
@@ -47,6 +64,10 @@ public class SearchException extends Exception {
         return errorCode;
     }
 
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
 
     /**
      * Provides the errors to the application.
@@ -67,6 +88,15 @@ public class SearchException extends Exception {
         UNABLE_EXTRACT_STRING_TO_OBJECT(10014, HttpStatus.UNPROCESSABLE_ENTITY, "unable to extract string to object:"),
         UNABLE_GET_ES_CLIENT(10015, HttpStatus.INTERNAL_SERVER_ERROR, "unable to connect to elasticsearch. Try again later..."),
         EXTRACTION_ERROR_MAPPING(10020, HttpStatus.UNPROCESSABLE_ENTITY, "error parsing mapping-result"),
+        BULKHEAD_FULL(10021, HttpStatus.SERVICE_UNAVAILABLE, "too many concurrent requests. Try again later..."),
+        CONCURRENCY_LIMIT_EXCEEDED(10022, HttpStatus.SERVICE_UNAVAILABLE, "elasticsearch is overloaded. Try again later..."),
+        CIRCUIT_OPEN(10023, HttpStatus.SERVICE_UNAVAILABLE, "dependency is unavailable and no previous answer is known. Try again later..."),
+        DEADLINE_EXCEEDED(10024, HttpStatus.GATEWAY_TIMEOUT, "request exceeded its deadline and was aborted."),
+        EXPORT_FAILED(10025, HttpStatus.INTERNAL_SERVER_ERROR, "error writing export-stream"),
+        ASYNC_SEARCH_NOT_FOUND(10026, HttpStatus.NOT_FOUND, "asynchronous search not found or expired"),
+        ASYNC_SEARCH_RUNNING(10027, HttpStatus.CONFLICT, "asynchronous search is still running, no results available yet"),
+        ASYNC_SEARCH_FAILED(10028, HttpStatus.UNPROCESSABLE_ENTITY, "asynchronous search failed"),
+        INDEX_FORBIDDEN(10029, HttpStatus.FORBIDDEN, "no accessible index matches the index-name"),
         UNKNOWN_ERROR(50000, HttpStatus.INTERNAL_SERVER_ERROR, "something unexpected happened.");
         // @formatter:on
 
@@ -0,0 +1,251 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.compression;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Buffers the response until the minimum size is reached, then decides whether it is compressed - smaller responses are written uncompressed.
+ * <p>
+ * The <code>Content-Length</code> set by the application is withheld, as it does not apply to the compressed response.
+ *
+ * @author e:fs TechHub GmbH
+ */
+class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Predicate<String> compressible;
+    private final int level;
+    private final int minSize;
+    private CompressingOutputStream outputStream;
+    private PrintWriter writer;
+    private long contentLength = -1;
+
+    CompressingResponseWrapper(HttpServletResponse response, Predicate<String> compressible, int level, int minSize) {
+        super(response);
+        this.compressible = compressible;
+        this.level = level;
+        this.minSize = Math.max(1, minSize);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new CompressingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            outputStream = new CompressingOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            contentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setHeader(name, value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (outputStream != null) {
+            outputStream.flush();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (outputStream != null) {
+            outputStream.resetBuffer();
+        }
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        contentLength = -1;
+        super.reset();
+    }
+
+    /**
+     * Writes the remaining response - uncompressed, if the minimum size has not been reached.
+     *
+     * @throws IOException if the response could not be written
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.close();
+        } else if (outputStream != null) {
+            outputStream.close();
+        } else if (contentLength >= 0) {
+            super.setContentLengthLong(contentLength);
+        }
+    }
+
+    private class CompressingOutputStream extends ServletOutputStream {
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.min(minSize, BUFFER_SIZE));
+        private OutputStream target;
+        private GZIPOutputStream gzip;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target != null) {
+                target.write(b, off, len);
+                return;
+            }
+            buffer.write(b, off, len);
+            if (buffer.size() >= minSize) {
+                decide(true);
+            }
+        }
+
+        /**
+         * Decides whether the response is compressed and writes the buffered bytes.
+         */
+        private void decide(boolean minSizeReached) throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            boolean compress = minSizeReached && compressible.test(response.getContentType()) && !response.containsHeader(HttpHeaders.CONTENT_ENCODING);
+            if (compressible.test(response.getContentType())) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            if (compress) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, CompressionFilter.GZIP);
+                gzip = new GZIPOutputStream(response.getOutputStream(), BUFFER_SIZE, true) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+                target = gzip;
+            } else {
+                if (!minSizeReached) {
+                    response.setContentLength(buffer.size());
+                } else if (contentLength >= 0) {
+                    response.setContentLengthLong(contentLength);
+                }
+                target = response.getOutputStream();
+            }
+            buffer.writeTo(target);
+            buffer = null;
+        }
+
+        void resetBuffer() {
+            if (target == null) {
+                buffer.reset();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // a flush before the minimum size is reached does not force the decision
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (target == null) {
+                decide(false);
+            }
+            if (gzip != null) {
+                gzip.finish();
+            }
+            target.flush();
+        }
+
+        /**
+         * The compressed bytes are passed on as they are produced, so readiness and listener are those of the wrapped stream.
+         */
+        @Override
+        public boolean isReady() {
+            try {
+                return getResponse().getOutputStream().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                getResponse().getOutputStream().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.compression;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compresses responses with gzip, if the client accepts it (<code>Accept-Encoding</code>).
+ * <p>
+ * Only responses of the configured content-types and at least the configured size are compressed - the response is buffered until that size is reached.
+ * <p>
+ * Opt-in alternative to the compression of the embedded server (<code>server.compression.*</code>), which always uses the default gzip-level - large
+ * search-results are compressed considerably cheaper at a lower level. Only one of both should be enabled.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(value = "search.compression.enabled", havingValue = "true")
+public class CompressionFilter extends OncePerRequestFilter {
+
+    static final String GZIP = "gzip";
+
+    private final CompressionProperties properties;
+    private final List<MimeType> mimeTypes;
+
+    public CompressionFilter(CompressionProperties properties) {
+        this.properties = properties;
+        this.mimeTypes = properties.getMimeTypes().stream().map(MimeTypeUtils::parseMimeType).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (!acceptsGzip(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        CompressingResponseWrapper responseWrapper = new CompressingResponseWrapper(response, this::isCompressible, properties.getLevel(),
+                (int) properties.getMinResponseSize().toBytes());
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // asynchronous responses (e.g. reactive return-values) are written after the filter-chain returned
+                request.getAsyncContext().addListener(new FinishingListener(responseWrapper));
+            } else {
+                responseWrapper.finish();
+            }
+        }
+    }
+
+    static boolean acceptsGzip(HttpServletRequest request) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+                String name = parts[0].trim();
+                if ((GZIP.equalsIgnoreCase(name) || "*".equals(name)) && !isRejected(parts)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the coding has a quality of 0 (e.g. <code>gzip;q=0</code>).
+     */
+    private static boolean isRejected(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+        return mimeTypes.stream().anyMatch(type -> type.includes(mimeType));
+    }
+
+    /**
+     * Finishes the compressed response once the asynchronous request completed.
+     */
+    private record FinishingListener(CompressingResponseWrapper responseWrapper) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) throws IOException {
+            responseWrapper.finish();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // the request is completed (or dispatched) afterwards
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // the request is completed afterwards
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // the listener has to be registered with every new cycle
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
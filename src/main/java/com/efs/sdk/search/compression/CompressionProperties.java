@@ -0,0 +1,80 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.compression;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Configuration of the compression of responses.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.compression")
+public class CompressionProperties {
+
+    /**
+     * whether responses are compressed (gzip) if the client accepts it
+     */
+    private boolean enabled;
+    /**
+     * the gzip-level (1: fastest - 9: smallest)
+     */
+    private int level = 4;
+    /**
+     * responses smaller than this are not compressed
+     */
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+    /**
+     * the content-types that are compressed
+     */
+    private List<String> mimeTypes = List.of("application/json", "application/*+json", "application/x-jackson-smile", "application/cbor",
+            "application/vnd.apache.arrow.stream", "text/html", "text/plain", "text/css", "application/javascript");
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public DataSize getMinResponseSize() {
+        return minResponseSize;
+    }
+
+    public void setMinResponseSize(DataSize minResponseSize) {
+        this.minResponseSize = minResponseSize;
+    }
+
+    public List<String> getMimeTypes() {
+        return mimeTypes;
+    }
+
+    public void setMimeTypes(List<String> mimeTypes) {
+        this.mimeTypes = mimeTypes;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.concurrent;
+
+import com.efs.sdk.search.commons.SearchException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.SEARCH_FAILED;
+
+/**
+ * Executes independent downstream-calls of a request (e.g. the chunks of a mappings-lookup).
+ * <p>
+ * With virtual threads enabled ('search.virtual-threads.enabled'), the calls are executed concurrently - each on its own virtual
+ * thread, inheriting the request-attributes and the security-context of the caller. Otherwise they are executed one after another by the caller.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Slf4j
+@Component
+public class FanOut {
+
+    private final ExecutorService executor;
+
+    public FanOut(@Value("${search.virtual-threads.enabled:false}") boolean virtualThreads) {
+        this.executor = virtualThreads ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fan-out-", 0).factory()) : null;
+    }
+
+    /**
+     * @return true, if the calls are executed concurrently
+     */
+    public boolean isConcurrent() {
+        return executor != null;
+    }
+
+    /**
+     * Executes the given calls and waits for all of them.
+     *
+     * @param calls the calls
+     * @param <T>   the type of the results
+     * @return the results in the order of the calls
+     * @throws SearchException the failure of the first failed call (the remaining calls are cancelled)
+     */
+    public <T> List<T> invokeAll(List<FanOutCallable<T>> calls) throws SearchException {
+        List<T> results = new ArrayList<>(calls.size());
+        if (executor == null || calls.size() < 2) {
+            for (FanOutCallable<T> call : calls) {
+                results.add(call.call());
+            }
+            return results;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        List<Future<T>> futures = new ArrayList<>(calls.size());
+        for (FanOutCallable<T> call : calls) {
+            futures.add(executor.submit(() -> {
+                RequestContextHolder.setRequestAttributes(attributes);
+                SecurityContextHolder.setContext(securityContext);
+                try {
+                    return call.call();
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SearchException(SEARCH_FAILED);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SearchException searchException) {
+                throw searchException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            log.error(e.getMessage(), e);
+            throw new SearchException(SEARCH_FAILED);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A downstream-call.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface FanOutCallable<T> {
+        T call() throws SearchException;
+    }
+}
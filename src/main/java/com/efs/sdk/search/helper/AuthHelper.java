@@ -16,6 +16,8 @@ limitations under the License.
 package com.efs.sdk.search.helper;
 
 import com.efs.sdk.search.commons.SearchException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
@@ -31,4 +33,15 @@ public class AuthHelper {
         Jwt jwt = authToken.getToken();
         return jwt.getTokenValue();
     }
+
+    /**
+     * Get the key of the caller for per-user caches - the token changes with every refresh, so it is only used without authenticated user.
+     *
+     * @param token the access-token of the request
+     * @return the name of the authenticated user or the token
+     */
+    public static String getUserKey(String token) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getName() != null ? authentication.getName() : token;
+    }
 }
@@ -34,6 +34,9 @@ import static java.lang.String.format;
 @Component
 public class ParseHelper {
 
+    private static final String MAPPINGS = "mappings";
+    private static final String PROPERTIES = "properties";
+
     public static String wildcardToRegex(String pattern) {
         return "^" + pattern.replace("*", ".*").replace("?", ".") + "$";
     }
@@ -75,6 +78,41 @@ public class ParseHelper {
         }
     }
 
+    /**
+     * Collects the criteria of the given mappings (by index).
+     */
+    public List<Criteria> collectCriteria(List<Map<String, Object>> filteredMappingsList) throws SearchException {
+        Set<Criteria> criteria = new HashSet<>();
+        for (Map<String, Object> filteredMappings : filteredMappingsList) {
+            for (Object object : filteredMappings.values()) {
+                Map<String, Map<String, Map<String, ESFieldProperty>>> mapping = parseMappingsFromObject(object);
+                if (mapping.containsKey(MAPPINGS) && mapping.get(MAPPINGS).containsKey(PROPERTIES)) {
+                    parseProperties(criteria, "", mapping.get(MAPPINGS).get(PROPERTIES));
+                }
+            }
+        }
+        return new ArrayList<>(criteria);
+    }
+
+    /**
+     * Collects the property-names of the given mappings (by index).
+     */
+    public Set<String> collectPropertyNames(List<Map<String, Object>> filteredMappingsList) throws SearchException {
+        Set<String> propertyNames = new HashSet<>();
+        for (Map<String, Object> filteredMappings : filteredMappingsList) {
+            for (Object object : filteredMappings.values()) {
+                Map<String, Map<String, Map<String, ESFieldProperty>>> mappings = parseMappingsFromObject(object);
+                if (mappings != null && !mappings.isEmpty() && mappings.containsKey(MAPPINGS)) {
+                    Map<String, Map<String, ESFieldProperty>> mapping = mappings.get(MAPPINGS);
+                    if (mapping != null && !mapping.isEmpty() && mapping.containsKey(PROPERTIES)) {
+                        parsePropertyNames(propertyNames, "", mapping.get(PROPERTIES));
+                    }
+                }
+            }
+        }
+        return propertyNames;
+    }
+
     protected DataType getDataType(ESFieldProperty property) {
         if (List.of("float", "long").contains(property.type().toLowerCase())) {
             return NUMBER;
@@ -0,0 +1,42 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.metrics;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers the {@link SearchMetricsInterceptor} for the search-endpoints.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private static final String SEARCH_ENDPOINTS = "/v1.0/**";
+
+    private final SearchMetrics searchMetrics;
+
+    public MetricsConfig(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SearchMetricsInterceptor(searchMetrics)).addPathPatterns(SEARCH_ENDPOINTS);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.metrics;
+
+import com.efs.sdk.search.model.search.Filter;
+import com.efs.sdk.search.model.search.Operator;
+import com.efs.sdk.search.model.search.Query;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Creates a fingerprint of the shape of a {@link Query}: index-pattern, properties, operators and the classes of the values - literals are stripped.
+ * <p>
+ * Queries differing in their values only share the same fingerprint, e.g.
+ * <code>index=org_space*;filter=[metadata.project.projectId EQ string];properties=[uuid];size=50</code>
+ *
+ * @author e:fs TechHub GmbH
+ */
+public final class QueryFingerprint {
+
+    private static final Pattern NUMBER = Pattern.compile("^-?\\d+(\\.\\d+)?$");
+    private static final Pattern DATE = Pattern.compile("^(now.*|\\d{4}-\\d{2}(-\\d{2})?([T ].*)?)$");
+
+    private QueryFingerprint() {
+    }
+
+    public static String of(Query query) {
+        String filters = query.getFilter() == null ? "" : query.getFilter().stream()
+                .filter(Objects::nonNull)
+                .map(QueryFingerprint::filterShape)
+                .sorted()
+                .collect(joining(","));
+        List<String> resultProperties = query.getResultProperties() == null ? List.of() : query.getResultProperties();
+        String properties = resultProperties.stream().sorted().collect(joining(","));
+        return format("index=%s;filter=[%s];properties=[%s];size=%d", query.getIndexName(), filters, properties, query.getSize());
+    }
+
+    private static String filterShape(Filter filter) {
+        if (filter.getOperator() == Operator.BETWEEN) {
+            return format("%s BETWEEN %s..%s", filter.getProperty(), valueClass(filter.getLowerBound()), valueClass(filter.getUpperBound()));
+        }
+        return format("%s %s %s", filter.getProperty(), filter.getOperator(), valueClass(filter.getValue()));
+    }
+
+    static String valueClass(String value) {
+        if (value == null) {
+            return "null";
+        }
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return "empty";
+        }
+        if ("true".equalsIgnoreCase(trimmed) || "false".equalsIgnoreCase(trimmed)) {
+            return "boolean";
+        }
+        if (NUMBER.matcher(trimmed).matches()) {
+            return "number";
+        }
+        if (DATE.matcher(trimmed).matches()) {
+            return "date";
+        }
+        if (trimmed.contains("*") || trimmed.contains("?")) {
+            return "wildcard";
+        }
+        return trimmed.contains(" ") ? "terms" : "string";
+    }
+}
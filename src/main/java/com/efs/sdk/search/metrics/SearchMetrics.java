@@ -0,0 +1,165 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.metrics;
+
+import com.efs.sdk.search.commons.SearchException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+
+/**
+ * Publishes stage-level timers of the request path.
+ * <p>
+ * Every timer is tagged by the endpoint (the matched request-pattern) and the outcome, the endpoint is resolved from the current request - outside a request it
+ * is tagged as {@value #NO_ENDPOINT}.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+public class SearchMetrics {
+
+    static final String METRIC_STAGE = "search.stage";
+    static final String METRIC_REQUEST = "search.request";
+    static final String METRIC_TOOK = "search.opensearch.took";
+    static final String METRIC_OVERHEAD = "search.overhead";
+
+    static final String TAG_STAGE = "stage";
+    static final String TAG_ENDPOINT = "endpoint";
+    static final String TAG_OUTCOME = "outcome";
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_ERROR = "error";
+    static final String NO_ENDPOINT = "none";
+
+    /**
+     * request-attribute holding the OpenSearch-'took' (in ms) of the current request
+     */
+    static final String ATTR_TOOK = SearchMetrics.class.getName() + ".took";
+
+    private final MeterRegistry registry;
+    private final Duration[] slo;
+
+    public SearchMetrics(MeterRegistry registry, @Value("${search.metrics.slo:10ms,25ms,50ms,100ms,250ms,500ms,1s,2500ms,5s,10s}") Duration[] slo) {
+        this.registry = registry;
+        this.slo = slo;
+    }
+
+    /**
+     * Executes the given callable and records its duration as the given stage.
+     *
+     * @param stage    the stage
+     * @param callable the work of the stage
+     * @param <T>      the type of the result
+     * @return the result of the callable
+     * @throws SearchException if the callable failed
+     */
+    public <T> T record(Stage stage, StageCallable<T> callable) throws SearchException {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = callable.call();
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } finally {
+            recordStage(stage, System.nanoTime() - start, outcome);
+        }
+    }
+
+    /**
+     * Records the duration of a stage that has been measured elsewhere - the duration is added to the {@link ServerTiming} of the current request as well.
+     *
+     * @param stage   the stage
+     * @param nanos   the duration in nanoseconds
+     * @param outcome the outcome
+     */
+    public void recordStage(Stage stage, long nanos, String outcome) {
+        timer(METRIC_STAGE, outcome).tag(TAG_STAGE, stage.getTagValue()).register(registry).record(nanos, TimeUnit.NANOSECONDS);
+        ServerTiming serverTiming = ServerTiming.current();
+        if (serverTiming != null) {
+            serverTiming.add(stage.getTagValue(), nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Records the 'took' reported by OpenSearch and remembers it for the current request.
+     *
+     * @param took the 'took' in milliseconds (may be null)
+     */
+    public void recordTook(Number took) {
+        if (took == null) {
+            return;
+        }
+        timer(METRIC_TOOK, OUTCOME_SUCCESS).register(registry).record(took.longValue(), TimeUnit.MILLISECONDS);
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ATTR_TOOK, took.longValue(), SCOPE_REQUEST);
+        }
+        ServerTiming serverTiming = ServerTiming.current();
+        if (serverTiming != null) {
+            serverTiming.add("took", took.doubleValue());
+        }
+    }
+
+    /**
+     * Records the end-to-end duration of a request and - if OpenSearch reported a 'took' - the overhead of the service.
+     *
+     * @param nanos   the end-to-end duration in nanoseconds
+     * @param outcome the outcome
+     */
+    public void recordRequest(long nanos, String outcome) {
+        timer(METRIC_REQUEST, outcome).register(registry).record(nanos, TimeUnit.NANOSECONDS);
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object took = attributes == null ? null : attributes.getAttribute(ATTR_TOOK, SCOPE_REQUEST);
+        if (took instanceof Long tookMillis) {
+            long overhead = Math.max(0, nanos - TimeUnit.MILLISECONDS.toNanos(tookMillis));
+            timer(METRIC_OVERHEAD, outcome).register(registry).record(overhead, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer.Builder timer(String name, String outcome) {
+        return Timer.builder(name)
+                .tag(TAG_ENDPOINT, currentEndpoint())
+                .tag(TAG_OUTCOME, outcome)
+                .serviceLevelObjectives(slo);
+    }
+
+    private String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NO_ENDPOINT;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, SCOPE_REQUEST);
+        return pattern == null ? NO_ENDPOINT : pattern.toString();
+    }
+
+    /**
+     * Work of a single stage.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface StageCallable<T> {
+        T call() throws SearchException;
+    }
+}
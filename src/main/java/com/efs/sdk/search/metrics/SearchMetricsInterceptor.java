@@ -0,0 +1,55 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import static com.efs.sdk.search.metrics.RequestStartFilter.ATTR_START;
+import static com.efs.sdk.search.metrics.SearchMetrics.OUTCOME_ERROR;
+import static com.efs.sdk.search.metrics.SearchMetrics.OUTCOME_SUCCESS;
+
+/**
+ * Records the authentication-stage (everything between the arrival of the request and the invocation of the handler) as well as the end-to-end duration of
+ * a request.
+ *
+ * @author e:fs TechHub GmbH
+ */
+public class SearchMetricsInterceptor implements HandlerInterceptor {
+
+    private final SearchMetrics searchMetrics;
+
+    public SearchMetricsInterceptor(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(ATTR_START) instanceof Long start) {
+            searchMetrics.recordStage(Stage.AUTH, System.nanoTime() - start, OUTCOME_SUCCESS);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ATTR_START) instanceof Long start) {
+            String outcome = ex == null && response.getStatus() < 400 ? OUTCOME_SUCCESS : OUTCOME_ERROR;
+            searchMetrics.recordRequest(System.nanoTime() - start, outcome);
+        }
+    }
+}
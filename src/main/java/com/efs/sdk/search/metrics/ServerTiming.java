@@ -0,0 +1,98 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.metrics;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+
+/**
+ * Collects the per-request breakdown that is returned as <code>Server-Timing</code>-header.
+ * <p>
+ * An instance is only bound to a request if the header is enabled - {@link #current()} returns <code>null</code> otherwise.
+ *
+ * @author e:fs TechHub GmbH
+ */
+public class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    /**
+     * request-attribute holding the {@link ServerTiming} of the current request
+     */
+    static final String ATTR_SERVER_TIMING = ServerTiming.class.getName();
+
+    private final Map<String, Double> durations = new LinkedHashMap<>();
+    private final Map<String, String> markers = new LinkedHashMap<>();
+
+    /**
+     * Get the {@link ServerTiming} bound to the current request.
+     *
+     * @return the {@link ServerTiming} or <code>null</code> if not enabled/outside a request
+     */
+    public static ServerTiming current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return attributes.getAttribute(ATTR_SERVER_TIMING, SCOPE_REQUEST) instanceof ServerTiming serverTiming ? serverTiming : null;
+    }
+
+    /**
+     * Marks an event of the current request (e.g. a cache hit or miss), does nothing if not enabled.
+     *
+     * @param name        the name of the metric (e.g. <code>spaces</code>)
+     * @param description the description (e.g. <code>hit</code>)
+     */
+    public static void markCurrent(String name, String description) {
+        ServerTiming serverTiming = current();
+        if (serverTiming != null) {
+            serverTiming.mark(name, description);
+        }
+    }
+
+    /**
+     * Adds a duration - multiple durations of the same name are summed up.
+     *
+     * @param name   the name of the metric
+     * @param millis the duration in milliseconds
+     */
+    public synchronized void add(String name, double millis) {
+        durations.merge(name, millis, Double::sum);
+    }
+
+    public synchronized void mark(String name, String description) {
+        markers.put(name, description);
+    }
+
+    /**
+     * Renders the header-value, e.g. <code>auth;dur=1.2, opensearch;dur=40.3, spaces;desc="hit"</code>.
+     *
+     * @return the header-value
+     */
+    public synchronized String toHeaderValue() {
+        StringJoiner joiner = new StringJoiner(", ");
+        durations.forEach((name, millis) -> joiner.add(String.format(Locale.ROOT, "%s;dur=%.1f", name, millis)));
+        markers.forEach((name, description) -> joiner.add(String.format("%s;desc=\"%s\"", name, description)));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.metrics;
+
+import com.efs.sdk.search.model.search.Query;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates executed searches by their {@link QueryFingerprint} and logs searches exceeding a latency- or hit-threshold together with the rendered
+ * OpenSearch-query.
+ * <p>
+ * The number of tracked fingerprints is bounded, rarely used fingerprints are evicted first.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+@Slf4j
+public class SlowQueryLog {
+
+    private final Cache<String, ShapeStats> shapes;
+    private final long thresholdNanos;
+    private final long hitsThreshold;
+    private final int top;
+
+    public SlowQueryLog(@Value("${search.slow-query.threshold:2s}") Duration threshold, @Value("${search.slow-query.hits-threshold:10000}") long hitsThreshold,
+            @Value("${search.slow-query.top:20}") int top, @Value("${search.slow-query.max-shapes:1000}") long maxShapes) {
+        this.thresholdNanos = threshold.toNanos();
+        this.hitsThreshold = hitsThreshold;
+        this.top = top;
+        this.shapes = Caffeine.newBuilder().maximumSize(maxShapes).build();
+    }
+
+    /**
+     * Records an executed search.
+     *
+     * @param fingerprint the fingerprint of the search (see {@link QueryFingerprint#of(Query)})
+     * @param renderedQuery the OpenSearch-query
+     * @param nanos the duration of the OpenSearch-request in nanoseconds
+     * @param hits the total number of hits
+     */
+    public void record(String fingerprint, String renderedQuery, long nanos, long hits) {
+        shapes.get(fingerprint, ShapeStats::new).add(nanos, hits);
+        if (nanos >= thresholdNanos || hits >= hitsThreshold) {
+            log.warn("slow query ({} ms, {} hits) [{}]: {}", TimeUnit.NANOSECONDS.toMillis(nanos), hits, fingerprint, renderedQuery);
+        }
+    }
+
+    /**
+     * Get the fingerprints with the highest accumulated duration.
+     *
+     * @return the top-N fingerprints by cost
+     */
+    public List<SlowQueryEntry> getTopByCost() {
+        return getTop(Comparator.comparingDouble(SlowQueryEntry::totalMillis).reversed());
+    }
+
+    /**
+     * Get the most frequently executed fingerprints.
+     *
+     * @return the top-N fingerprints by frequency
+     */
+    public List<SlowQueryEntry> getTopByFrequency() {
+        return getTop(Comparator.comparingLong(SlowQueryEntry::count).reversed());
+    }
+
+    private List<SlowQueryEntry> getTop(Comparator<SlowQueryEntry> comparator) {
+        return shapes.asMap().values().stream().map(ShapeStats::toEntry).sorted(comparator).limit(top).toList();
+    }
+
+    /**
+     * Aggregated statistics of a fingerprint.
+     *
+     * @param fingerprint the fingerprint
+     * @param count       the number of executions
+     * @param totalMillis the accumulated duration
+     * @param avgMillis   the average duration
+     * @param maxMillis   the maximum duration
+     * @param maxHits     the maximum number of hits
+     */
+    public record SlowQueryEntry(String fingerprint, long count, double totalMillis, double avgMillis, double maxMillis, long maxHits) {
+    }
+
+    private static class ShapeStats {
+
+        private final String fingerprint;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong maxHits = new AtomicLong();
+
+        ShapeStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        void add(long nanos, long hits) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            maxHits.accumulateAndGet(hits, Math::max);
+        }
+
+        SlowQueryEntry toEntry() {
+            long cnt = count.sum();
+            double totalMillis = totalNanos.sum() / 1_000_000d;
+            return new SlowQueryEntry(fingerprint, cnt, totalMillis, cnt == 0 ? 0 : totalMillis / cnt, maxNanos.get() / 1_000_000d, maxHits.get());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.metrics;
+
+/**
+ * Stages of the request path that are measured individually.
+ *
+ * @author e:fs TechHub GmbH
+ */
+public enum Stage {
+    AUTH("auth"),
+    SPACES("spaces"),
+    QUERY_BUILD("query_build"),
+    OPENSEARCH("opensearch"),
+    PARSE("parse"),
+    RESULT_BUILD("result_build");
+
+    private final String tagValue;
+
+    Stage(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+}
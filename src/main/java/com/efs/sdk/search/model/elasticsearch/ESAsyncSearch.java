@@ -0,0 +1,31 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.model.elasticsearch;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Response of the asynchronous search of OpenSearch - the search-response is present once (partial) results are available.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ESAsyncSearch(
+        String id,
+        String state,
+        @JsonProperty("start_time_in_millis") Long startTime,
+        @JsonProperty("expiration_time_in_millis") Long expirationTime,
+        ESResponse response) {
+}
@@ -17,6 +17,7 @@ package com.efs.sdk.search.model.elasticsearch;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import java.util.Map;
 
@@ -27,6 +28,6 @@ public record ESHit(
         @JsonProperty("_type") String type,
         @JsonProperty("_id") String id,
         @JsonProperty("_score") Number score,
-        @JsonProperty("_source") Map<String, Object> source) {
+        @JsonProperty("_source") @JsonDeserialize(using = RawSource.Deserializer.class) Map<String, Object> source) {
 
 }
@@ -0,0 +1,140 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.model.elasticsearch;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * <code>_source</code> of a hit kept as raw JSON.
+ * <p>
+ * The document references the bytes of the OpenSearch-response (no copy) and is written to JSON-responses as-is (binary formats like Smile or CBOR
+ * receive its token-stream) - it is only parsed if its entries are accessed. Raw documents are only created if the response is read from a byte-array given as attribute {@link #ATTR_RAW_INPUT}, otherwise
+ * <code>_source</code> is read as regular map.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@JsonSerialize(using = RawSource.Serializer.class)
+public final class RawSource extends AbstractMap<String, Object> {
+
+    /**
+     * reader-attribute holding the byte-array the response is read from
+     */
+    public static final String ATTR_RAW_INPUT = RawSource.class.getName() + ".input";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final byte[] buffer;
+    private final int offset;
+    private final int length;
+    private Map<String, Object> parsed;
+
+    RawSource(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (parsed == null) {
+            try {
+                parsed = Collections.unmodifiableMap(MAPPER.readValue(buffer, offset, length, MAP_TYPE));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return parsed.entrySet();
+    }
+
+    /**
+     * Creates a parser over the raw JSON - allows to stream the document without parsing it into a map.
+     *
+     * @return the parser, positioned before the first token
+     * @throws IOException if the parser could not be created
+     */
+    public JsonParser createParser() throws IOException {
+        return MAPPER.createParser(buffer, offset, length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, offset, length, UTF_8);
+    }
+
+    /**
+     * Reads <code>_source</code> as {@link RawSource} if the input is available, as map otherwise.
+     */
+    public static class Deserializer extends StdDeserializer<Map<String, Object>> {
+
+        public Deserializer() {
+            super(Map.class);
+        }
+
+        @Override
+        public Map<String, Object> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.START_OBJECT && ctxt.getAttribute(ATTR_RAW_INPUT) instanceof byte[] input) {
+                long start = p.currentTokenLocation().getByteOffset();
+                p.skipChildren();
+                long end = p.currentLocation().getByteOffset();
+                if (start >= 0 && end <= input.length && input[(int) start] == '{' && input[(int) end - 1] == '}') {
+                    return new RawSource(input, (int) start, (int) (end - start));
+                }
+                throw ctxt.instantiationException(RawSource.class, "unable to locate _source in raw input");
+            }
+            return ctxt.readValue(p, ctxt.getTypeFactory().constructType(MAP_TYPE));
+        }
+    }
+
+    /**
+     * Writes the raw JSON to JSON-generators, copies its tokens to any other generator.
+     */
+    public static class Serializer extends StdSerializer<RawSource> {
+
+        public Serializer() {
+            super(RawSource.class);
+        }
+
+        @Override
+        public void serialize(RawSource value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            // textual JSON receives the document as-is, binary formats (and token-buffers) its tokens
+            if (!gen.canWriteBinaryNatively()) {
+                gen.writeRawValue(value.toString());
+                return;
+            }
+            try (JsonParser parser = MAPPER.createParser(value.buffer, value.offset, value.length)) {
+                parser.nextToken();
+                gen.copyCurrentStructure(parser);
+            }
+        }
+    }
+}
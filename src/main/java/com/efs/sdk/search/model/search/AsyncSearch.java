@@ -0,0 +1,49 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.model.search;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AsyncSearch {
+    @Schema(description = "The id of the asynchronous search.", example = "FklfVlU4eFdIUTh1Q1hyM3ZnT19fUVEUd29ZVzhwVUJxb0RpZ1FBd0ZsdEYAAAAAAAAAAQ==")
+    private String id;
+    @Schema(description = "The state of the asynchronous search.", example = "RUNNING")
+    private State state;
+    @JsonProperty("start_time")
+    @Schema(description = "The start of the search (epoch-milliseconds).", example = "1696410000000")
+    private Long startTime;
+    @JsonProperty("expiration_time")
+    @Schema(description = "The time the results are deleted (epoch-milliseconds).", example = "1696496400000")
+    private Long expirationTime;
+    @Schema(description = "The total number of results (so far).", example = "123456")
+    private long max;
+
+    /**
+     * States of an asynchronous search.
+     */
+    public enum State {
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+}
@@ -0,0 +1,42 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.model.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class Columns {
+    @Schema(description = "The names of the columns - the result-properties (dot-separated), in the order of the values.", example = """
+            ["metadata.project.projectId", "metadata.customer.customerInfo"]""")
+    private List<String> properties;
+    @Schema(description = "One array per column holding the value of every hit (null if the hit does not have the property). Values of dictionary-encoded columns are indices into the dictionary of the column.", example = """
+            [["sdk", "sdk", "other"], [0, 0, 1]]""")
+    private List<List<Object>> values;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "The dictionaries of the dictionary-encoded columns by property-name.", example = """
+            {"metadata.customer.customerInfo": ["demo", "other"]}""")
+    private Map<String, List<String>> dictionaries;
+}
@@ -39,4 +39,19 @@ public class Filter {
     @Schema(description = "The data-type of the property.", example = "STRING")
     private DataType dataType;
 
+    /**
+     * Copies the filter - building the OpenSearch-query modifies the value of a filter, so queries executed more than once need copies.
+     *
+     * @return the copy
+     */
+    public Filter copy() {
+        Filter copy = new Filter();
+        copy.setProperty(property);
+        copy.setOperator(operator);
+        copy.setValue(value);
+        copy.setLowerBound(lowerBound);
+        copy.setUpperBound(upperBound);
+        copy.setDataType(dataType);
+        return copy;
+    }
 }
@@ -15,12 +15,14 @@ limitations under the License.
  */
 package com.efs.sdk.search.model.search;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Getter
 @Setter
@@ -55,4 +57,34 @@ public class Query {
             "metadata.project.projectId"
             ]""")
     private List<String> resultProperties = new ArrayList<>();
+    @Schema(description = "The layout of the hits: 'rows' (one map per hit - default) or 'columns' (one array of values per result-property).", example = "rows")
+    private ResultLayout layout = ResultLayout.ROWS;
+    @JsonProperty("dictionary_encoding")
+    @Schema(description = "Encode low-cardinality string-columns by a dictionary (only applies to layout 'columns' - default: false).", example = "false")
+    private boolean dictionaryEncoding = false;
+    /**
+     * Whether missing indices are skipped - set for pruned index-lists, which may name indices deleted since their lookup.
+     */
+    @JsonIgnore
+    private boolean ignoreUnavailable = false;
+
+    /**
+     * Copies the query for the given page - the filters are copied, as building the OpenSearch-query modifies them.
+     *
+     * @param page the page
+     * @param size the number of results per page
+     * @return the copy
+     */
+    public Query forPage(int page, int size) {
+        Query copy = new Query();
+        copy.setSize(size);
+        copy.setPage(page);
+        copy.setIndexName(indexName);
+        copy.setFilter(filter.stream().map(Filter::copy).collect(Collectors.toCollection(ArrayList::new)));
+        copy.setResultProperties(new ArrayList<>(resultProperties));
+        copy.setLayout(layout);
+        copy.setDictionaryEncoding(dictionaryEncoding);
+        copy.setIgnoreUnavailable(ignoreUnavailable);
+        return copy;
+    }
 }
@@ -15,6 +15,7 @@ limitations under the License.
  */
 package com.efs.sdk.search.model.search;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
@@ -37,8 +38,15 @@ public class Result {
     @JsonProperty("max_results")
     @Schema(description = "The maximum number of results that can be returned. Returns max if < 1000, else 1000.", example = "100")
     private int maxResults ;
-    @Schema(description = "The search result, list of result-maps.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "The search result, list of result-maps (layout 'rows').")
     private List<Map<String, Object>> hits;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "The search result as columns (layout 'columns').")
+    private Columns columns;
     @Schema(description = "The duration of search", example = "0.52")
     private Number duration;
+    @JsonProperty("timed_out")
+    @Schema(description = "True, if the search timed out - the hits are a partial result then.", example = "false")
+    private boolean timedOut;
 }
\ No newline at end of file
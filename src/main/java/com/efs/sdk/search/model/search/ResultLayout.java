@@ -0,0 +1,36 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.model.search;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Layout of the hits in a {@link Result}.
+ *
+ * @author e:fs TechHub GmbH
+ */
+public enum ResultLayout {
+    /**
+     * one map per hit (default)
+     */
+    @JsonProperty("rows")
+    ROWS,
+    /**
+     * one array of values per result-property, see {@link Columns}
+     */
+    @JsonProperty("columns")
+    COLUMNS
+}
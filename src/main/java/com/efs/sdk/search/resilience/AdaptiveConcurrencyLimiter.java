@@ -0,0 +1,205 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import com.efs.sdk.search.commons.SearchException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.CONCURRENCY_LIMIT_EXCEEDED;
+
+/**
+ * Limits the number of concurrent OpenSearch-requests by an adaptive limit, driven by the gradient of the latency.
+ * <p>
+ * The latency is tracked as short-term and as long-term average. Their ratio (the gradient) is about one as long as the latencies do not change -
+ * regardless of how long the requests of this service take, e.g. heavy analytical searches. The limit only shrinks while the recent latencies rise
+ * above the long-term average (by more than the tolerance), i.e. while requests start queueing in OpenSearch, and otherwise grows by its square root.
+ * Timed out requests decrease the limit multiplicatively. The limit only grows as long as it is actually used. Requests exceeding the limit are
+ * rejected immediately with {@link SearchException.SEARCH_ERROR#CONCURRENCY_LIMIT_EXCEEDED}.
+ * <p>
+ * Searches are prioritized: metadata-requests may only use a share of the limit.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    static final String METRIC_LIMIT = "search.concurrency.limit";
+    static final String METRIC_INFLIGHT = "search.concurrency.inflight";
+    static final String METRIC_REJECTED = "search.concurrency.rejected";
+    /**
+     * weight of a sample in the short-term average of the latency
+     */
+    private static final double SHORT_WEIGHT = 0.1;
+    /**
+     * weight of a new limit against the current one, so single samples do not change the limit abruptly
+     */
+    private static final double SMOOTHING = 0.2;
+
+    private final ConcurrencyLimitProperties properties;
+    private final Map<BulkheadType, Counter> rejected = new EnumMap<>(BulkheadType.class);
+
+    private double limit;
+    private int inflight;
+    private double shortLatency;
+    private double longLatency;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+
+        Gauge.builder(METRIC_LIMIT, this, AdaptiveConcurrencyLimiter::getLimit).register(registry);
+        Gauge.builder(METRIC_INFLIGHT, this, AdaptiveConcurrencyLimiter::getInflight).register(registry);
+        for (BulkheadType type : BulkheadType.values()) {
+            rejected.put(type, Counter.builder(METRIC_REJECTED).tag(Bulkhead.TAG_BULKHEAD, type.getTagValue()).register(registry));
+        }
+    }
+
+    /**
+     * Acquires a permit for an OpenSearch-request - the permit has to be closed once the request is finished (or abandoned, if it never started).
+     *
+     * @param type the endpoint-class of the request
+     * @return the permit
+     * @throws SearchException if the limit is exceeded
+     */
+    public Permit acquire(BulkheadType type) throws SearchException {
+        if (!properties.isEnabled()) {
+            return new Permit(false);
+        }
+        synchronized (this) {
+            int current = (int) limit;
+            int allowed = type == BulkheadType.SEARCH ? current : Math.max(1, (int) (current * properties.getMetadataShare()));
+            if (inflight >= allowed) {
+                rejected.get(type).increment();
+                log.debug("concurrency-limit {} exceeded, rejecting {}-request", current, type.getTagValue());
+                throw new SearchException(CONCURRENCY_LIMIT_EXCEEDED, properties.getRetryAfter());
+            }
+            inflight++;
+        }
+        return new Permit(true);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInflight() {
+        return inflight;
+    }
+
+    private synchronized void onSample(long latencyNanos) {
+        double latency = Math.max(1, latencyNanos);
+        if (shortLatency == 0) {
+            shortLatency = latency;
+            longLatency = latency;
+        }
+        shortLatency += (latency - shortLatency) * SHORT_WEIGHT;
+        longLatency += (latency - longLatency) / properties.getLongWindow();
+        if (longLatency > 2 * shortLatency) {
+            // the latencies dropped (e.g. after an overload), the long-term average recovers faster
+            longLatency *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longLatency / shortLatency));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        if (newLimit > limit && inflight * 2 < limit) {
+            // only grow if the limit is actually used
+            return;
+        }
+        limit = clamp(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    private synchronized void onTimeout() {
+        limit = clamp(limit * properties.getBackoffRatio());
+    }
+
+    private double clamp(double newLimit) {
+        return Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+    }
+
+    private synchronized void release() {
+        inflight--;
+    }
+
+    /**
+     * Permit for a single OpenSearch-request - held by the request from its start until it is finished, even if the caller stopped waiting for it.
+     */
+    public class Permit implements AutoCloseable {
+
+        private static final int NEW = 0;
+        private static final int STARTED = 1;
+        private static final int RELEASED = 2;
+
+        private final boolean acquired;
+        private final AtomicInteger state = new AtomicInteger(NEW);
+
+        private Permit(boolean acquired) {
+            this.acquired = acquired;
+        }
+
+        /**
+         * Marks the request as started.
+         *
+         * @return false, if the permit was already abandoned - the request must not be sent then
+         */
+        public boolean start() {
+            return !acquired || state.compareAndSet(NEW, STARTED);
+        }
+
+        /**
+         * Adjusts the limit according to the latency of the request.
+         *
+         * @param latencyNanos the latency of the OpenSearch-request in nanoseconds
+         */
+        public void onSample(long latencyNanos) {
+            if (acquired) {
+                AdaptiveConcurrencyLimiter.this.onSample(latencyNanos);
+            }
+        }
+
+        /**
+         * Decreases the limit, as the request timed out.
+         */
+        public void onTimeout() {
+            if (acquired) {
+                AdaptiveConcurrencyLimiter.this.onTimeout();
+            }
+        }
+
+        /**
+         * Releases the permit, if the request was never started (e.g. rejected by the bulkhead or cancelled while queued).
+         */
+        public void abandon() {
+            if (acquired && state.compareAndSet(NEW, RELEASED)) {
+                release();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (acquired && state.getAndSet(RELEASED) != RELEASED) {
+                release();
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import com.efs.sdk.search.commons.SearchException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.BULKHEAD_FULL;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.DEADLINE_EXCEEDED;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.SEARCH_FAILED;
+
+/**
+ * Bounded executor isolating the OpenSearch-requests of an endpoint-class.
+ * <p>
+ * At most 'maxConcurrent' requests are executed concurrently, at most 'queueCapacity' requests are waiting - further requests are rejected immediately with
+ * {@link SearchException.SEARCH_ERROR#BULKHEAD_FULL}. Requests are executed by a pool of platform threads, or - as virtual threads must not be pooled - each
+ * on its own virtual thread, bounded by a semaphore instead of the size of the pool.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Slf4j
+public class Bulkhead {
+
+    static final String METRIC_ACTIVE = "search.bulkhead.active";
+    static final String METRIC_QUEUED = "search.bulkhead.queued";
+    static final String METRIC_SATURATION = "search.bulkhead.saturation";
+    static final String METRIC_REJECTED = "search.bulkhead.rejected";
+    static final String TAG_BULKHEAD = "bulkhead";
+
+    private final BulkheadType type;
+    private final ExecutorService executor;
+    /**
+     * the pool of platform threads (null with virtual threads)
+     */
+    private final ThreadPoolExecutor pool;
+    /**
+     * the permits of concurrent requests on virtual threads (null with platform threads)
+     */
+    private final Semaphore permits;
+    /**
+     * the running and waiting requests on virtual threads
+     */
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final int maxConcurrent;
+    private final int capacity;
+    private final Duration retryAfter;
+    private final Counter rejected;
+
+    public Bulkhead(BulkheadType type, BulkheadProperties.Settings settings, Duration retryAfter, MeterRegistry registry) {
+        this(type, settings, retryAfter, registry, false);
+    }
+
+    /**
+     * Creates the bulkhead - the number of concurrent requests is bounded regardless of the kind of threads.
+     *
+     * @param virtualThreads whether the requests are executed on virtual threads (on a pool of daemon-threads prefixed by the bulkhead-name otherwise)
+     */
+    public Bulkhead(BulkheadType type, BulkheadProperties.Settings settings, Duration retryAfter, MeterRegistry registry, boolean virtualThreads) {
+        this.type = type;
+        this.retryAfter = retryAfter;
+        this.maxConcurrent = settings.getMaxConcurrent();
+        this.capacity = settings.getMaxConcurrent() + settings.getQueueCapacity();
+        String threadNamePrefix = "bulkhead-" + type.getTagValue() + "-";
+        if (virtualThreads) {
+            this.pool = null;
+            this.permits = new Semaphore(settings.getMaxConcurrent(), true);
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+        } else {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+            threadFactory.setDaemon(true);
+            this.pool = new ThreadPoolExecutor(settings.getMaxConcurrent(), settings.getMaxConcurrent(), 60L, TimeUnit.SECONDS,
+                    settings.getQueueCapacity() > 0 ? new ArrayBlockingQueue<>(settings.getQueueCapacity()) : new SynchronousQueue<>(), threadFactory,
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.pool.allowCoreThreadTimeOut(true);
+            this.permits = null;
+            this.executor = pool;
+        }
+
+        Gauge.builder(METRIC_ACTIVE, this, Bulkhead::getActive).tag(TAG_BULKHEAD, type.getTagValue()).register(registry);
+        Gauge.builder(METRIC_QUEUED, this, Bulkhead::getQueued).tag(TAG_BULKHEAD, type.getTagValue()).register(registry);
+        Gauge.builder(METRIC_SATURATION, this, Bulkhead::getSaturation).tag(TAG_BULKHEAD, type.getTagValue()).register(registry);
+        this.rejected = Counter.builder(METRIC_REJECTED).tag(TAG_BULKHEAD, type.getTagValue()).register(registry);
+    }
+
+    /**
+     * Executes the given callable within the bulkhead and waits for its result.
+     *
+     * @param callable the callable
+     * @param <T>      the type of the result
+     * @return the result of the callable
+     * @throws SearchException if the bulkhead is saturated or the callable failed
+     */
+    public <T> T execute(BulkheadCallable<T> callable) throws SearchException {
+        return execute(callable, null);
+    }
+
+    /**
+     * Executes the given callable within the bulkhead and waits for its result at most until the given deadline - afterwards the callable is cancelled.
+     *
+     * @param callable the callable
+     * @param deadline the deadline (may be null)
+     * @param <T>      the type of the result
+     * @return the result of the callable
+     * @throws SearchException if the bulkhead is saturated, the deadline expired or the callable failed
+     */
+    public <T> T execute(BulkheadCallable<T> callable, Deadline deadline) throws SearchException {
+        Future<T> future;
+        try {
+            future = submit(callable);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("bulkhead '{}' saturated, rejecting request", type.getTagValue());
+            throw new SearchException(BULKHEAD_FULL, retryAfter);
+        }
+        try {
+            return deadline == null ? future.get() : future.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new SearchException(DEADLINE_EXCEEDED);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SearchException(SEARCH_FAILED);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SearchException searchException) {
+                throw searchException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            log.error(e.getMessage(), e);
+            throw new SearchException(SEARCH_FAILED);
+        }
+    }
+
+    private <T> Future<T> submit(BulkheadCallable<T> callable) {
+        if (permits == null) {
+            return pool.submit(callable::call);
+        }
+        if (admitted.incrementAndGet() > capacity) {
+            admitted.decrementAndGet();
+            throw new RejectedExecutionException("bulkhead '" + type.getTagValue() + "' saturated");
+        }
+        try {
+            return executor.submit(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        return callable.call();
+                    } finally {
+                        permits.release();
+                    }
+                } finally {
+                    admitted.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admitted.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private int getActive() {
+        return permits == null ? pool.getActiveCount() : maxConcurrent - permits.availablePermits();
+    }
+
+    private int getQueued() {
+        return permits == null ? pool.getQueue().size() : Math.max(0, admitted.get() - getActive());
+    }
+
+    /**
+     * Get the saturation of the bulkhead (running and waiting requests relative to the capacity).
+     *
+     * @return the saturation between 0 and 1
+     */
+    public double getSaturation() {
+        return capacity == 0 ? 1 : (double) (getActive() + getQueued()) / capacity;
+    }
+
+    public BulkheadType getType() {
+        return type;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Work executed within a bulkhead.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface BulkheadCallable<T> {
+        T call() throws SearchException;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the bulkheads, e.g.
+ * <pre>
+ * search:
+ *   bulkhead:
+ *     retry-after: 1s
+ *     search:
+ *       max-concurrent: 20
+ *       queue-capacity: 100
+ *       max-connections: 20
+ *     metadata:
+ *       max-concurrent: 4
+ *       queue-capacity: 20
+ *       max-connections: 4
+ * </pre>
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.bulkhead")
+public class BulkheadProperties {
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private Settings search = new Settings(20, 100, 20);
+    private Settings metadata = new Settings(4, 20, 4);
+
+    public Settings get(BulkheadType type) {
+        return type == BulkheadType.SEARCH ? search : metadata;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Settings getSearch() {
+        return search;
+    }
+
+    public void setSearch(Settings search) {
+        this.search = search;
+    }
+
+    public Settings getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(Settings metadata) {
+        this.metadata = metadata;
+    }
+
+    public static class Settings {
+
+        /**
+         * maximum number of concurrent OpenSearch-requests
+         */
+        private int maxConcurrent;
+        /**
+         * maximum number of OpenSearch-requests waiting for execution - further requests are rejected
+         */
+        private int queueCapacity;
+        /**
+         * size of the connection-pool
+         */
+        private int maxConnections;
+
+        public Settings() {
+        }
+
+        public Settings(int maxConcurrent, int queueCapacity, int maxConnections) {
+            this.maxConcurrent = maxConcurrent;
+            this.queueCapacity = queueCapacity;
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+    }
+}
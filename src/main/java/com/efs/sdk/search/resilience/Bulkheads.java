@@ -0,0 +1,51 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Provides a {@link Bulkhead} per {@link BulkheadType}.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+public class Bulkheads {
+
+    private final Map<BulkheadType, Bulkhead> bulkheads = new EnumMap<>(BulkheadType.class);
+
+    public Bulkheads(BulkheadProperties properties, MeterRegistry registry, @Value("${search.virtual-threads.enabled:false}") boolean virtualThreads) {
+        for (BulkheadType type : BulkheadType.values()) {
+            // with virtual threads the blocking requests to OpenSearch do not occupy platform-threads
+            bulkheads.put(type, new Bulkhead(type, properties.get(type), properties.getRetryAfter(), registry, virtualThreads));
+        }
+    }
+
+    public Bulkhead get(BulkheadType type) {
+        return bulkheads.get(type);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.metrics.ServerTiming;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.CIRCUIT_OPEN;
+
+/**
+ * Circuit-breaker with stale-while-revalidate fallback.
+ * <p>
+ * Every successful answer is remembered per key (e.g. per user or per index). After 'failureThreshold' consecutive failures the circuit opens: while open, the
+ * last successful answer is served (marked by a <code>Warning</code>- and <code>Age</code>-header) without calling the dependency. Once 'openDuration' has
+ * elapsed, a single probe is executed in the background - if it succeeds, the circuit closes again. Without a last successful answer, requests are rejected
+ * with {@link SearchException.SEARCH_ERROR#CIRCUIT_OPEN} (or used as probe, if one is due).
+ *
+ * @param <V> the type of the answers
+ * @author e:fs TechHub GmbH
+ */
+@Slf4j
+public class CircuitBreaker<V> {
+
+    static final String METRIC_STATE = "search.circuitbreaker.state";
+    static final String METRIC_STALE = "search.circuitbreaker.stale";
+    static final String TAG_NAME = "name";
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private final String name;
+    private final CircuitBreakerProperties properties;
+    private final Predicate<Exception> isFailure;
+    private final Executor probeExecutor;
+    private final Cache<String, StaleValue<V>> lastGood;
+    private final Counter staleServed;
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openUntil;
+
+    /**
+     * @param name          the name of the circuit-breaker (used as tag and server-timing-marker)
+     * @param properties    the configuration
+     * @param isFailure     decides whether an exception counts as failure of the dependency (others are passed through untouched)
+     * @param probeExecutor the executor running the background-probes
+     * @param registry      the meter-registry
+     */
+    public CircuitBreaker(String name, CircuitBreakerProperties properties, Predicate<Exception> isFailure, Executor probeExecutor, MeterRegistry registry) {
+        this.name = name;
+        this.properties = properties;
+        this.isFailure = isFailure;
+        this.probeExecutor = probeExecutor;
+        this.lastGood = Caffeine.newBuilder().maximumSize(properties.getMaxEntries()).expireAfterWrite(properties.getStaleTtl()).build();
+
+        Gauge.builder(METRIC_STATE, this, c -> c.getState().ordinal()).tag(TAG_NAME, name).register(registry);
+        this.staleServed = Counter.builder(METRIC_STALE).tag(TAG_NAME, name).register(registry);
+    }
+
+    /**
+     * Executes the given callable - or serves the last successful answer of the given key, if the circuit is open.
+     *
+     * @param key      the key the answer is remembered by
+     * @param callable the call of the dependency
+     * @return the (possibly stale) answer
+     * @throws SearchException if the callable failed without a last successful answer, or the circuit is open without a last successful answer
+     */
+    public V execute(String key, CircuitBreakerCallable<V> callable) throws SearchException {
+        if (!properties.isEnabled()) {
+            return callable.call();
+        }
+        StaleValue<V> last = lastGood.getIfPresent(key);
+        State current = getState();
+        if (current == State.CLOSED) {
+            return call(key, callable, last);
+        }
+
+        boolean probe = current == State.HALF_OPEN && probing.compareAndSet(false, true);
+        if (last == null) {
+            if (!probe) {
+                throw new SearchException(CIRCUIT_OPEN, remainingOpen());
+            }
+            try {
+                return call(key, callable, null);
+            } finally {
+                probing.set(false);
+            }
+        }
+        if (probe) {
+            probeInBackground(key, callable);
+        }
+        return serveStale(last);
+    }
+
+    public State getState() {
+        synchronized (this) {
+            if (state == State.OPEN && System.nanoTime() - openUntil >= 0) {
+                return State.HALF_OPEN;
+            }
+            return state;
+        }
+    }
+
+    private V call(String key, CircuitBreakerCallable<V> callable, StaleValue<V> last) throws SearchException {
+        V value;
+        try {
+            value = callable.call();
+        } catch (SearchException | RuntimeException e) {
+            if (!isFailure.test(e)) {
+                throw e;
+            }
+            onFailure(e);
+            if (last == null) {
+                throw e;
+            }
+            return serveStale(last);
+        }
+        lastGood.put(key, new StaleValue<>(value, System.currentTimeMillis()));
+        onSuccess();
+        return value;
+    }
+
+    private void probeInBackground(String key, CircuitBreakerCallable<V> callable) {
+        try {
+            probeExecutor.execute(() -> {
+                try {
+                    call(key, callable, null);
+                } catch (SearchException | RuntimeException e) {
+                    log.debug("probe of circuit-breaker '{}' failed: {}", name, e.getMessage());
+                } finally {
+                    probing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            probing.set(false);
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("circuit-breaker '{}' closed", name);
+        }
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    private synchronized void onFailure(Exception e) {
+        failures++;
+        if (state == State.OPEN || failures >= properties.getFailureThreshold()) {
+            if (state != State.OPEN) {
+                log.warn("circuit-breaker '{}' opened after {} failures: {}", name, failures, e.getMessage());
+            }
+            state = State.OPEN;
+            openUntil = System.nanoTime() + properties.getOpenDuration().toNanos();
+        }
+    }
+
+    private synchronized Duration remainingOpen() {
+        return Duration.ofNanos(Math.max(0, openUntil - System.nanoTime()));
+    }
+
+    private V serveStale(StaleValue<V> last) {
+        staleServed.increment();
+        ServerTiming.markCurrent(name, "stale");
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes && attributes.getResponse() != null) {
+            long age = TimeUnit.MILLISECONDS.toSeconds(Math.max(0, System.currentTimeMillis() - last.createdAt()));
+            attributes.getResponse().setHeader(HttpHeaders.WARNING, STALE_WARNING);
+            attributes.getResponse().setHeader(HttpHeaders.AGE, String.valueOf(age));
+        }
+        return last.value();
+    }
+
+    /**
+     * States of a circuit-breaker - 'half-open' means the circuit is open, but recovery may be probed.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Call of the guarded dependency.
+     *
+     * @param <V> the type of the answer
+     */
+    @FunctionalInterface
+    public interface CircuitBreakerCallable<V> {
+        V call() throws SearchException;
+    }
+
+    private record StaleValue<V>(V value, long createdAt) {
+    }
+}
@@ -0,0 +1,63 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+/**
+ * Creates {@link CircuitBreaker}s sharing the configuration and a single thread for background-probes.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+public class CircuitBreakers {
+
+    private final CircuitBreakerProperties properties;
+    private final MeterRegistry registry;
+    private final ExecutorService probeExecutor;
+
+    public CircuitBreakers(CircuitBreakerProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("circuitbreaker-probe-");
+        threadFactory.setDaemon(true);
+        this.probeExecutor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    /**
+     * Creates a circuit-breaker.
+     *
+     * @param name      the name of the circuit-breaker
+     * @param isFailure decides whether an exception counts as failure of the dependency
+     * @param <V>       the type of the answers
+     * @return the circuit-breaker
+     */
+    public <V> CircuitBreaker<V> create(String name, Predicate<Exception> isFailure) {
+        return new CircuitBreaker<>(name, properties, isFailure, probeExecutor, registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        probeExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import com.efs.sdk.search.commons.SearchException;
+
+import java.time.Duration;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.DEADLINE_EXCEEDED;
+
+/**
+ * Point in time by which a request has to be answered.
+ *
+ * @author e:fs TechHub GmbH
+ */
+public final class Deadline {
+
+    private final long expiresAt;
+
+    /**
+     * @param expiresAt the expiry as {@link System#nanoTime()}
+     */
+    Deadline(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Creates a deadline expiring after the given timeout from now.
+     *
+     * @param timeout the timeout
+     * @return the deadline
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAt - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAt - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Aborts the remaining work of an expired request.
+     *
+     * @throws SearchException if the deadline is expired
+     */
+    public void check() throws SearchException {
+        if (isExpired()) {
+            throw new SearchException(DEADLINE_EXCEEDED);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the end-to-end {@link Deadline}s of the endpoints and the timeouts of the HTTP-clients.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.deadline")
+public class DeadlineProperties {
+
+    /**
+     * deadline of the search-endpoint, measured from the arrival of the request
+     */
+    private Duration search = Duration.ofSeconds(30);
+    /**
+     * deadline of the metadata-endpoints (index, criteria, resultproperties), measured from the arrival of the request
+     */
+    private Duration metadata = Duration.ofSeconds(10);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    /**
+     * time reserved for transferring and processing a partial result - OpenSearch is asked to time out earlier by this
+     */
+    private Duration margin = Duration.ofMillis(500);
+
+    public Duration get(BulkheadType type) {
+        return type == BulkheadType.SEARCH ? search : metadata;
+    }
+
+    public Duration getSearch() {
+        return search;
+    }
+
+    public void setSearch(Duration search) {
+        this.search = search;
+    }
+
+    public Duration getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(Duration metadata) {
+        this.metadata = metadata;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getMargin() {
+        return margin;
+    }
+
+    public void setMargin(Duration margin) {
+        this.margin = margin;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import com.efs.sdk.search.metrics.RequestStartFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+
+/**
+ * Provides the {@link Deadline} of the current request.
+ * <p>
+ * The deadline is measured from the arrival of the request and bound to it, so every stage of the request shares the same deadline. Outside a request (e.g.
+ * background-probes) a deadline is started on every lookup.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+public class Deadlines {
+
+    /**
+     * request-attribute holding the {@link Deadline} of the current request
+     */
+    static final String ATTR_DEADLINE = Deadlines.class.getName() + ".deadline";
+
+    private final DeadlineProperties properties;
+
+    public Deadlines(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Starts the deadline of the current request for the given endpoint-class.
+     *
+     * @param type the endpoint-class
+     * @return the deadline
+     */
+    public Deadline start(BulkheadType type) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Deadline.after(properties.get(type));
+        }
+        Object start = attributes.getAttribute(RequestStartFilter.ATTR_START, SCOPE_REQUEST);
+        long startNanos = start instanceof Long nanos ? nanos : System.nanoTime();
+        Deadline deadline = new Deadline(startNanos + properties.get(type).toNanos());
+        attributes.setAttribute(ATTR_DEADLINE, deadline, SCOPE_REQUEST);
+        return deadline;
+    }
+
+    /**
+     * Get the deadline of the current request - starts it, if not yet started.
+     *
+     * @param type the endpoint-class
+     * @return the deadline
+     */
+    public Deadline current(BulkheadType type) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(ATTR_DEADLINE, SCOPE_REQUEST) instanceof Deadline deadline) {
+            return deadline;
+        }
+        return start(type);
+    }
+
+    /**
+     * Get the timeout of the given endpoint-class - used to start deadlines that are not bound to the current request.
+     *
+     * @param type the endpoint-class
+     * @return the timeout
+     */
+    public Duration getTimeout(BulkheadType type) {
+        return properties.get(type);
+    }
+
+    public Duration getConnectTimeout() {
+        return properties.getConnectTimeout();
+    }
+
+    public Duration getMargin() {
+        return properties.getMargin();
+    }
+}
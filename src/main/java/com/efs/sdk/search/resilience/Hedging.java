@@ -0,0 +1,130 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Decides whether a search is hedged, i.e. sent a second time to another node if there is no answer after a delay.
+ * <p>
+ * The delay is the configured percentile of the recent latencies, so only the slowest searches are hedged. The additional load is capped by a budget:
+ * every search saves up a share of a hedge, a hedge is only sent if a full one was saved up.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+public class Hedging {
+
+    static final String METRIC_HEDGE = "search.hedge";
+    static final String TAG_RESULT = "result";
+    static final String RESULT_SENT = "sent";
+    static final String RESULT_WON = "won";
+    static final String RESULT_BUDGET_EXHAUSTED = "budget_exhausted";
+    /**
+     * the delay is derived from the latencies once this number has been recorded
+     */
+    private static final int MIN_SAMPLES = 20;
+    /**
+     * the delay is recomputed after this number of latencies
+     */
+    private static final int RECOMPUTE_INTERVAL = 16;
+    /**
+     * tolerance for the rounding errors of the saved up shares
+     */
+    private static final double TOKEN_TOLERANCE = 1e-9;
+
+    private final HedgingProperties properties;
+    private final long[] latencies;
+    private final Counter sent;
+    private final Counter won;
+    private final Counter budgetExhausted;
+
+    private long recorded;
+    private double tokens;
+    private volatile long delayNanos;
+
+    public Hedging(HedgingProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.latencies = new long[Math.max(MIN_SAMPLES, properties.getWindowSize())];
+        this.delayNanos = Math.max(properties.getMinDelay().toNanos(), properties.getInitialDelay().toNanos());
+        this.sent = Counter.builder(METRIC_HEDGE).tag(TAG_RESULT, RESULT_SENT).register(registry);
+        this.won = Counter.builder(METRIC_HEDGE).tag(TAG_RESULT, RESULT_WON).register(registry);
+        this.budgetExhausted = Counter.builder(METRIC_HEDGE).tag(TAG_RESULT, RESULT_BUDGET_EXHAUSTED).register(registry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Get the delay after which a search is hedged.
+     *
+     * @return the delay
+     */
+    public Duration getDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    /**
+     * Saves up the share of a hedge for a search.
+     */
+    public synchronized void onRequest() {
+        tokens = Math.min(properties.getMaxBurst(), tokens + properties.getBudget());
+    }
+
+    /**
+     * Acquires a hedge from the budget.
+     *
+     * @return whether a hedge may be sent
+     */
+    public synchronized boolean tryAcquire() {
+        if (tokens + TOKEN_TOLERANCE < 1) {
+            budgetExhausted.increment();
+            return false;
+        }
+        tokens = Math.max(0, tokens - 1);
+        sent.increment();
+        return true;
+    }
+
+    /**
+     * Records that the hedge answered first.
+     */
+    public void onHedgeWon() {
+        won.increment();
+    }
+
+    /**
+     * Records the latency of a successful request, or the elapsed time of a request cancelled in favour of its hedge as a lower bound of its latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        latencies[(int) (recorded % latencies.length)] = nanos;
+        recorded++;
+        if (recorded >= MIN_SAMPLES && recorded % RECOMPUTE_INTERVAL == 0) {
+            long[] window = Arrays.copyOf(latencies, (int) Math.min(recorded, latencies.length));
+            Arrays.sort(window);
+            int index = (int) Math.min(window.length - 1, Math.ceil(properties.getPercentile() * window.length) - 1);
+            delayNanos = Math.max(properties.getMinDelay().toNanos(), window[Math.max(0, index)]);
+        }
+    }
+}
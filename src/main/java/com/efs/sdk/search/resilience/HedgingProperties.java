@@ -0,0 +1,118 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of {@link Hedging} (disabled by default), e.g.
+ * <pre>
+ * search:
+ *   hedging:
+ *     enabled: true
+ *     percentile: 0.95
+ *     budget: 0.05
+ * </pre>
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.hedging")
+public class HedgingProperties {
+
+    private boolean enabled = false;
+    /**
+     * percentile of the recent search-latencies after which a search is hedged
+     */
+    private double percentile = 0.95;
+    /**
+     * lower bound of the hedging-delay
+     */
+    private Duration minDelay = Duration.ofMillis(20);
+    /**
+     * hedging-delay until enough latencies have been recorded
+     */
+    private Duration initialDelay = Duration.ofMillis(500);
+    /**
+     * number of recent latencies the percentile is derived from
+     */
+    private int windowSize = 1000;
+    /**
+     * share of additional requests caused by hedging
+     */
+    private double budget = 0.05;
+    /**
+     * maximum number of hedges that may be sent in a row once the budget was saved up
+     */
+    private int maxBurst = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public Duration getInitialDelay() {
+        return initialDelay;
+    }
+
+    public void setInitialDelay(Duration initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public double getBudget() {
+        return budget;
+    }
+
+    public void setBudget(double budget) {
+        this.budget = budget;
+    }
+
+    public int getMaxBurst() {
+        return maxBurst;
+    }
+
+    public void setMaxBurst(int maxBurst) {
+        this.maxBurst = maxBurst;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.security;
+
+import com.efs.sdk.search.security.oauth.OAuthConfiguration;
+import com.efs.sdk.search.security.oauth.OAuthConfigurationHelper;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.stereotype.Component;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The signing-keys of the issuer - resolved on first use (or by {@link #warmUp()}) from the openid-configuration of the issuer.
+ * <p>
+ * The JWK set is cached and refreshed in the background ahead of its expiry and on unknown keys (e.g. after a key-rotation of the issuer),
+ * rate-limited by {@link JwtProperties#getJwksMinRefreshInterval()}.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Component
+public class IssuerKeys {
+
+    private final OAuthConfigurationHelper configHelper;
+    private final JwtProperties properties;
+    private volatile Keys keys;
+
+    public IssuerKeys(OAuthConfigurationHelper configHelper, JwtProperties properties) {
+        this.configHelper = configHelper;
+        this.properties = properties;
+    }
+
+    /**
+     * Get the decoder verifying the signatures by the keys of the issuer.
+     *
+     * @return the decoder
+     * @throws JwtException if the issuer could not be resolved
+     */
+    public JwtDecoder getDecoder() {
+        return resolve(false).decoder();
+    }
+
+    /**
+     * Resolves the issuer (retrying the discovery, see {@link OAuthConfigurationHelper#discover()}) and loads its JWK set.
+     *
+     * @throws KeySourceException if the JWK set could not be loaded
+     */
+    public void warmUp() throws KeySourceException {
+        resolve(true).jwkSource().get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+    }
+
+    /**
+     * Resolves the keys - requests use the cached openid-configuration or discover it once without retries (failures are remembered by the
+     * {@link OAuthConfigurationHelper}), so requests waiting for the lock wait for one attempt at most.
+     */
+    private Keys resolve(boolean retry) {
+        Keys resolved = keys;
+        if (resolved == null) {
+            synchronized (this) {
+                resolved = keys;
+                if (resolved == null) {
+                    try {
+                        OAuthConfiguration config = retry ? configHelper.discover() : configHelper.getOpenidConfigProperty();
+                        JWKSource<SecurityContext> jwkSource = jwkSource(config.jwksUri(), properties);
+                        resolved = new Keys(jwkSource, jwkSetDecoder(config.issuer(), jwkSource));
+                    } catch (RuntimeException | MalformedURLException e) {
+                        throw new JwtException("unable to resolve the keys of the issuer: " + e.getMessage(), e);
+                    }
+                    keys = resolved;
+                }
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Creates the cached JWK set at the given uri.
+     */
+    static JWKSource<SecurityContext> jwkSource(String jwksUri, JwtProperties properties) throws MalformedURLException {
+        return JWKSourceBuilder.<SecurityContext>create(new URL(jwksUri))
+                .cache(properties.getJwksTtl().toMillis(), JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+                .refreshAheadCache(properties.getJwksRefreshAhead().toMillis(), true)
+                .rateLimited(properties.getJwksMinRefreshInterval().toMillis())
+                .build();
+    }
+
+    /**
+     * Creates a decoder verifying the signatures by the given JWK set.
+     */
+    static JwtDecoder jwkSetDecoder(String issuer, JWKSource<SecurityContext> jwkSource) {
+        Set<JWSAlgorithm> algorithms = new HashSet<>(JWSAlgorithm.Family.RSA);
+        algorithms.addAll(JWSAlgorithm.Family.EC);
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, jwkSource));
+        // the claims are validated by the jwt-validator of the decoder
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        return decoder;
+    }
+
+    private record Keys(JWKSource<SecurityContext> jwkSource, JwtDecoder decoder) {
+    }
+}
@@ -0,0 +1,84 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of decoding access-tokens, e.g.
+ * <pre>
+ * search:
+ *   jwt:
+ *     cache-max-entries: 10000
+ *     jwks-ttl: 5m
+ * </pre>
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.jwt")
+public class JwtProperties {
+
+    /**
+     * the maximum number of validated tokens cached until their expiry (0 disables the cache)
+     */
+    private int cacheMaxEntries = 10_000;
+    /**
+     * how long the JWK set of the issuer is cached
+     */
+    private Duration jwksTtl = Duration.ofMinutes(5);
+    /**
+     * how long before its expiry the JWK set is refreshed in the background
+     */
+    private Duration jwksRefreshAhead = Duration.ofSeconds(30);
+    /**
+     * the minimum interval of refreshing the JWK set on unknown keys (at most two refreshes per interval)
+     */
+    private Duration jwksMinRefreshInterval = Duration.ofSeconds(30);
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public Duration getJwksTtl() {
+        return jwksTtl;
+    }
+
+    public void setJwksTtl(Duration jwksTtl) {
+        this.jwksTtl = jwksTtl;
+    }
+
+    public Duration getJwksRefreshAhead() {
+        return jwksRefreshAhead;
+    }
+
+    public void setJwksRefreshAhead(Duration jwksRefreshAhead) {
+        this.jwksRefreshAhead = jwksRefreshAhead;
+    }
+
+    public Duration getJwksMinRefreshInterval() {
+        return jwksMinRefreshInterval;
+    }
+
+    public void setJwksMinRefreshInterval(Duration jwksMinRefreshInterval) {
+        this.jwksMinRefreshInterval = jwksMinRefreshInterval;
+    }
+}
@@ -15,22 +15,24 @@ limitations under the License.
  */
 package com.efs.sdk.search.security;
 
-import com.efs.sdk.search.security.oauth.OAuthConfiguration;
-import com.efs.sdk.search.security.oauth.OAuthConfigurationHelper;
+import com.efs.sdk.search.security.oauth.LazyClientRegistrationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtDecoders;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.expression.WebExpressionAuthorizationManager;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.header.HeaderWriterFilter;
 
 /**
  * Security configuration.
@@ -43,33 +45,52 @@ public class SecurityConfig {
 
     private static final String[] WHITELIST_URLS = {"/actuator/health", "/actuator/health/**"};
     private static final String[] PROMETHEUS_URLS = {"/actuator/prometheus", "/actuator/prometheus/**"};
-    private final OAuthConfiguration oauthConfig;
+    // the query-shapes contain the index-names of all tenants
+    private static final String[] SLOW_QUERY_URLS = {"/actuator/slowqueries", "/actuator/slowqueries/**"};
+    private static final String PRIVATE_IP_RANGES = "hasIpAddress('192.168.0.0/16') or hasIpAddress('172.16.0.0/12') or hasIpAddress('127.0.0.1/8') or "
+            + "hasIpAddress('10.0.0.0/8')";
+    private final IssuerKeys issuerKeys;
 
-    public SecurityConfig(OAuthConfigurationHelper configHelper) {
-        this.oauthConfig = configHelper.getOpenidConfigProperty();
+    public SecurityConfig(IssuerKeys issuerKeys) {
+        this.issuerKeys = issuerKeys;
     }
 
+    /**
+     * The decoder of access-tokens - the keys of the issuer are resolved on first use, validated tokens are cached until their expiry.
+     */
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return JwtDecoders.fromIssuerLocation(oauthConfig.issuer());
+    public JwtDecoder jwtDecoder(JwtProperties properties, MeterRegistry registry) {
+        JwtDecoder decoder = token -> issuerKeys.getDecoder().decode(token);
+        return properties.getCacheMaxEntries() > 0 ? new CachingJwtDecoder(decoder, properties.getCacheMaxEntries(), registry) : decoder;
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, LazyClientRegistrationRepository clientRegistrations) throws Exception {
         http.cors(Customizer.withDefaults()).csrf(AbstractHttpConfigurer::disable); // set cors and disable csrf
+        // streamed responses (e.g. NDJSON) are written by another thread once the handler returned, the security-headers are therefore written
+        // before the request is handled instead of when the filter-chain returns
+        http.headers(headers -> headers.withObjectPostProcessor(new ObjectPostProcessor<HeaderWriterFilter>() {
+            @Override
+            public <O extends HeaderWriterFilter> O postProcess(O filter) {
+                filter.setShouldWriteHeadersEagerly(true);
+                return filter;
+            }
+        }));
 
         // enable anonymous
         // access to whitelist-urls
         http.authorizeHttpRequests(authorize -> authorize.requestMatchers(WHITELIST_URLS).permitAll()).anonymous(Customizer.withDefaults());
 
-        // ip based access to prometheus, whitelist for private ip ranges
-        http.authorizeHttpRequests(authorize -> authorize.requestMatchers(PROMETHEUS_URLS).access(new WebExpressionAuthorizationManager("hasIpAddress('192" +
-                ".168.0.0/16') or hasIpAddress('172.16.0.0/12')" + "or hasIpAddress('127.0.0.1/8') or hasIpAddress('10.0.0.0/8')")));
+        // ip based access to prometheus and the slow-query-log, whitelist for private ip ranges
+        http.authorizeHttpRequests(authorize -> authorize.requestMatchers(PROMETHEUS_URLS).access(new WebExpressionAuthorizationManager(PRIVATE_IP_RANGES)));
+        http.authorizeHttpRequests(authorize -> authorize.requestMatchers(SLOW_QUERY_URLS).access(new WebExpressionAuthorizationManager(PRIVATE_IP_RANGES)));
 
         // convert OAuth2AuthenticationToken (as provided by oauthLogin()) to JwtAuthenticationToken (as required by
         // Controllers)
         http.authorizeHttpRequests(ar -> ar.anyRequest().authenticated())// any request should be authenticated
-                .oauth2Login(Customizer.withDefaults()) // login before accessing (browser-access)
+                // login before accessing (browser-access) - the client-registration is resolved on first use, so the login-page is set explicitly,
+                // failed logins are answered by 401 instead of redirecting to the login-page again
+                .oauth2Login(login -> login.loginPage(clientRegistrations.getLoginPage()).failureHandler(new SimpleUrlAuthenticationFailureHandler()))
                 .oauth2ResourceServer(resolver -> resolver.jwt(it -> it.jwtAuthenticationConverter(jwtAuthenticationConverter())));
 
         return http.build();
@@ -0,0 +1,55 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.security.oauth;
+
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.OAuth2AuthorizationRequestRedirectFilter;
+
+import java.util.function.Supplier;
+
+/**
+ * Repository of a single client-registration, which is built on first use - the endpoints of the registration are discovered from the issuer.
+ * <p>
+ * As the registration is not known on startup, the repository is not iterable and the login-page has to be set explicitly (see
+ * {@link #getLoginPage()}).
+ *
+ * @author e:fs TechHub GmbH
+ */
+public class LazyClientRegistrationRepository implements ClientRegistrationRepository {
+
+    private final String registrationId;
+    private final Supplier<ClientRegistration> registration;
+
+    public LazyClientRegistrationRepository(String registrationId, Supplier<ClientRegistration> registration) {
+        this.registrationId = registrationId;
+        this.registration = registration;
+    }
+
+    @Override
+    public ClientRegistration findByRegistrationId(String registrationId) {
+        return this.registrationId.equals(registrationId) ? registration.get() : null;
+    }
+
+    /**
+     * Get the login-page, which redirects to the authorization-endpoint of the issuer.
+     *
+     * @return the path of the login-page
+     */
+    public String getLoginPage() {
+        return OAuth2AuthorizationRequestRedirectFilter.DEFAULT_AUTHORIZATION_REQUEST_BASE_URI + "/" + registrationId;
+    }
+}
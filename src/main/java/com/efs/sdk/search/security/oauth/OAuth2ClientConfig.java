@@ -19,11 +19,7 @@ package com.efs.sdk.search.security.oauth;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
-import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
-import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.UUID;
 
 import static java.lang.String.format;
@@ -41,12 +37,13 @@ public class OAuth2ClientConfig {
         this.oauthProperties = oauthProperties;
     }
 
+    /**
+     * The client-registration is built on first use, so the issuer is not asked on startup.
+     */
     @Bean
-    public ClientRegistrationRepository clientRegistrationRepository() {
-        List<ClientRegistration> registrations = new ArrayList<>();
-        registrations.add(getClientRegistration(UUID.randomUUID().toString(), oauthProperties));
-
-        return new InMemoryClientRegistrationRepository(registrations);
+    public LazyClientRegistrationRepository clientRegistrationRepository() {
+        String registrationId = UUID.randomUUID().toString();
+        return new LazyClientRegistrationRepository(registrationId, () -> getClientRegistration(registrationId, oauthProperties));
     }
 
     private ClientRegistration getClientRegistration(String registrationId, OAuth2Properties instance) {
@@ -15,30 +15,129 @@ limitations under the License.
  */
 package com.efs.sdk.search.security.oauth;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the openid-configuration of the issuer - on first use instead of on startup, so a slow identity-provider does not delay the startup.
+ * <p>
+ * Resolved configurations are cached. On first use by a request the configuration is requested once, if the identity-provider is unavailable, the
+ * local copy of a previous discovery is used (if configured by <code>sdk.oauth2.discovery.local-copy</code>). Failures are remembered for
+ * <code>sdk.oauth2.discovery.failure-ttl</code>, so requests meanwhile fail fast instead of waiting for the identity-provider each. Only
+ * {@link #discover()} (the <code>oidc</code>-phase of the readiness-gate) retries failed requests with exponential backoff.
+ */
+@Slf4j
 @Component
 public class OAuthConfigurationHelper {
 
     private final RestTemplate restTemplate;
-    @Value("${sdk.oauth2.config-url}")
-    private String openidConfiguration;
+    private final String openidConfiguration;
+    private final int retries;
+    private final Duration backoff;
+    private final Duration failureTtl;
+    private final Path localCopy;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, OAuthConfiguration> configurations = new ConcurrentHashMap<>();
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
 
-    public OAuthConfigurationHelper(RestTemplate restTemplate) {
+    public OAuthConfigurationHelper(RestTemplate restTemplate, @Value("${sdk.oauth2.config-url}") String openidConfiguration,
+            @Value("${sdk.oauth2.discovery.retries:3}") int retries, @Value("${sdk.oauth2.discovery.backoff:500ms}") Duration backoff,
+            @Value("${sdk.oauth2.discovery.failure-ttl:10s}") Duration failureTtl, @Value("${sdk.oauth2.discovery.local-copy:}") String localCopy) {
         this.restTemplate = restTemplate;
+        this.openidConfiguration = openidConfiguration;
+        this.retries = retries;
+        this.backoff = backoff;
+        this.failureTtl = failureTtl;
+        this.localCopy = localCopy == null || localCopy.isBlank() ? null : Path.of(localCopy);
     }
 
     public OAuthConfiguration getOpenidConfigProperty() {
         return getOpenidConfigProperty(openidConfiguration);
     }
 
+    /**
+     * Get the openid-configuration - the cached one, or else requested once without retries.
+     *
+     * @param openidConfiguration the url of the openid-configuration
+     * @return the openid-configuration (or its local copy, if the identity-provider is unavailable)
+     * @throws RestClientException if the identity-provider is unavailable (or was within the failure-ttl) and there is no local copy
+     */
     public OAuthConfiguration getOpenidConfigProperty(String openidConfiguration) {
+        OAuthConfiguration config = configurations.get(openidConfiguration);
+        if (config != null) {
+            return config;
+        }
+        Failure failure = failures.get(openidConfiguration);
+        if (failure != null && System.nanoTime() - failure.until() < 0) {
+            return fallBack(openidConfiguration, failure.cause());
+        }
+        return discover(openidConfiguration, 0);
+    }
+
+    /**
+     * Resolves the openid-configuration of the issuer, retrying failed requests with exponential backoff - for the readiness-gate, requests do not
+     * wait for retries.
+     *
+     * @return the openid-configuration (or its local copy, if the identity-provider is unavailable)
+     * @throws RestClientException if the identity-provider is unavailable and there is no local copy
+     */
+    public OAuthConfiguration discover() {
+        OAuthConfiguration config = configurations.get(openidConfiguration);
+        return config != null ? config : discover(openidConfiguration, retries);
+    }
+
+    private OAuthConfiguration discover(String openidConfiguration, int retries) {
+        RuntimeException failure = null;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            if (attempt > 0) {
+                sleep(backoff.multipliedBy(1L << (attempt - 1)));
+            }
+            try {
+                OAuthConfiguration config = requestOpenidConfigProperty(openidConfiguration);
+                writeLocalCopy(openidConfiguration, config);
+                configurations.put(openidConfiguration, config);
+                failures.remove(openidConfiguration);
+                return config;
+            } catch (RestClientException | IllegalArgumentException e) {
+                log.warn("openid-configuration '{}' not available (attempt {} of {}): {}", openidConfiguration, attempt + 1, retries + 1, e.getMessage());
+                failure = e;
+            }
+        }
+        failures.put(openidConfiguration, new Failure(failure, System.nanoTime() + failureTtl.toNanos()));
+        return fallBack(openidConfiguration, failure);
+    }
+
+    /**
+     * Uses the local copy of a previous discovery - it is kept like a resolved configuration.
+     */
+    private OAuthConfiguration fallBack(String openidConfiguration, RuntimeException failure) {
+        OAuthConfiguration copy = readLocalCopies().get(openidConfiguration);
+        if (copy == null) {
+            throw failure;
+        }
+        log.warn("using local copy of openid-configuration '{}'", openidConfiguration);
+        configurations.put(openidConfiguration, copy);
+        return copy;
+    }
+
+    private OAuthConfiguration requestOpenidConfigProperty(String openidConfiguration) {
         ResponseEntity<OAuthConfiguration> response = restTemplate.exchange(openidConfiguration, HttpMethod.GET,
                 new HttpEntity<>(new LinkedMultiValueMap<>()), OAuthConfiguration.class);
         OAuthConfiguration body = response.getBody();
@@ -47,4 +146,47 @@ public class OAuthConfigurationHelper {
         }
         return body;
     }
+
+    private synchronized void writeLocalCopy(String openidConfiguration, OAuthConfiguration config) {
+        if (localCopy == null) {
+            return;
+        }
+        Map<String, OAuthConfiguration> copies = new HashMap<>(readLocalCopies());
+        if (config.equals(copies.put(openidConfiguration, config))) {
+            return;
+        }
+        try {
+            objectMapper.writeValue(localCopy.toFile(), copies);
+        } catch (IOException e) {
+            log.warn("unable to write local copy of openid-configuration: {}", e.getMessage());
+        }
+    }
+
+    private synchronized Map<String, OAuthConfiguration> readLocalCopies() {
+        if (localCopy == null || !Files.isRegularFile(localCopy)) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(localCopy.toFile(), new TypeReference<>() {
+            });
+        } catch (IOException e) {
+            log.warn("unable to read local copy of openid-configuration: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while resolving openid-configuration", e);
+        }
+    }
+
+    /**
+     * A failed discovery, remembered until the given {@link System#nanoTime()}.
+     */
+    private record Failure(RuntimeException cause, long until) {
+    }
 }
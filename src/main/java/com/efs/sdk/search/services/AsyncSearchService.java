@@ -0,0 +1,191 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.services;
+
+import com.efs.sdk.search.clients.AsyncSearchProperties;
+import com.efs.sdk.search.clients.ElasticSearchRestClient;
+import com.efs.sdk.search.clients.ResultBuilder;
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.metrics.SearchMetrics;
+import com.efs.sdk.search.metrics.ServerTiming;
+import com.efs.sdk.search.model.elasticsearch.ESAsyncSearch;
+import com.efs.sdk.search.model.elasticsearch.ESHit;
+import com.efs.sdk.search.model.elasticsearch.ESHits;
+import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.search.AsyncSearch;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.model.search.Result;
+import com.efs.sdk.search.resilience.Deadlines;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.efs.sdk.search.clients.QueryBuilder.MAX_QUERY_SIZE;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.ASYNC_SEARCH_FAILED;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.ASYNC_SEARCH_RUNNING;
+import static com.efs.sdk.search.metrics.Stage.RESULT_BUILD;
+import static com.efs.sdk.search.resilience.BulkheadType.SEARCH;
+
+/**
+ * Long-running searches by the asynchronous search of OpenSearch - the search is submitted and polled, the request-thread is not occupied while it runs.
+ * <p>
+ * OpenSearch stores the hits up to {@link AsyncSearchProperties#getMaxHits()}, these are returned page by page. Polling the state does not transfer the
+ * hits, the hits of a completed search are fetched once and cached per caller for the following pages.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Service
+public class AsyncSearchService {
+
+    private final ElasticSearchRestClient searchClient;
+    private final ResultBuilder resultBuilder;
+    private final SearchMetrics searchMetrics;
+    private final Deadlines deadlines;
+    private final AsyncSearchProperties properties;
+    private final IndexPruner indexPruner;
+    private final IndexAuthorizer indexAuthorizer;
+    /**
+     * the stored hits of completed searches per id and token, weighed by their number of hits - null, if not cached
+     */
+    private final Cache<ResultKey, ESResponse> results;
+
+    public AsyncSearchService(ElasticSearchRestClient searchClient, ResultBuilder resultBuilder, SearchMetrics searchMetrics, Deadlines deadlines,
+            AsyncSearchProperties properties, IndexPruner indexPruner, IndexAuthorizer indexAuthorizer) {
+        this.searchClient = searchClient;
+        this.resultBuilder = resultBuilder;
+        this.searchMetrics = searchMetrics;
+        this.deadlines = deadlines;
+        this.properties = properties;
+        this.indexPruner = indexPruner;
+        this.indexAuthorizer = indexAuthorizer;
+        this.results = properties.getResultCacheTtl().isZero() || properties.getResultCacheMaxHits() <= 0 ? null :
+                Caffeine.newBuilder().maximumWeight(properties.getResultCacheMaxHits()).weigher(AsyncSearchService::weigh)
+                        .expireAfterWrite(properties.getResultCacheTtl()).build();
+    }
+
+    public AsyncSearch submitSearch(Query query, String token) throws SearchException {
+        deadlines.start(SEARCH);
+        int maxHits = Math.max(1, Math.min(properties.getMaxHits(), MAX_QUERY_SIZE));
+        Query authorizedQuery = indexAuthorizer.authorizeOrReject(query, token);
+        return toAsyncSearch(searchClient.submitAsyncSearch(indexPruner.prune(authorizedQuery, token).forPage(0, maxHits), token, properties.getWaitForCompletion(), properties.getKeepAlive()));
+    }
+
+    public AsyncSearch getSearch(String id, String token) throws SearchException {
+        deadlines.start(SEARCH);
+        return toAsyncSearch(searchClient.getAsyncSearchStatus(id, token));
+    }
+
+    /**
+     * Get a page of the results of the asynchronous search.
+     *
+     * @param id    the id of the asynchronous search
+     * @param token the access-token
+     * @param page  the page (starts with 0)
+     * @param size  the number of hits per page
+     * @return the page of the results
+     * @throws SearchException if the search is still running, failed or is unknown
+     */
+    public Result getResult(String id, String token, int page, int size) throws SearchException {
+        deadlines.start(SEARCH);
+        ESResponse response = getCompletedResponse(id, token);
+
+        List<ESHit> hits = response.hits().hits() == null ? List.of() : response.hits().hits();
+        int pageSize = Math.max(1, size);
+        int from = (int) Math.min((long) Math.max(0, page) * pageSize, hits.size());
+        ESHits pageHits = new ESHits(response.hits().total(), response.hits().maxScore(), hits.subList(from, Math.min(from + pageSize, hits.size())));
+        Result result = searchMetrics.record(RESULT_BUILD, () -> resultBuilder.buildResult(new ESResponse(response.took(), response.timedOut(),
+                response.shards(), pageHits)));
+        // only the stored hits can be paged through
+        result.setMaxResults((int) Math.min(result.getMax(), hits.size()));
+        result.setPage(page);
+        result.setSize(size);
+        return result;
+    }
+
+    public void deleteSearch(String id, String token) throws SearchException {
+        deadlines.start(SEARCH);
+        searchClient.deleteAsyncSearch(id, token);
+        if (results != null) {
+            results.asMap().keySet().removeIf(key -> key.id().equals(id));
+        }
+    }
+
+    /**
+     * Get the response of the completed search - the response does not change any more, so it is cached for the following pages.
+     */
+    private ESResponse getCompletedResponse(String id, String token) throws SearchException {
+        ResultKey key = new ResultKey(id, token);
+        ESResponse cached = results == null ? null : results.getIfPresent(key);
+        if (results != null) {
+            ServerTiming.markCurrent("async-results", cached != null ? "hit" : "miss");
+        }
+        if (cached != null) {
+            return cached;
+        }
+        ESAsyncSearch search = searchClient.getAsyncSearch(id, token);
+        switch (getState(search)) {
+            case RUNNING -> throw new SearchException(ASYNC_SEARCH_RUNNING);
+            case FAILED -> throw new SearchException(ASYNC_SEARCH_FAILED);
+            default -> {
+                // completed
+            }
+        }
+        ESResponse response = search.response();
+        searchMetrics.recordTook(response.took());
+        if (results != null) {
+            results.put(key, response);
+        }
+        return response;
+    }
+
+    /**
+     * Weighs a cached response by its number of hits - a response without hits still takes up an entry.
+     */
+    private static int weigh(ResultKey key, ESResponse response) {
+        List<ESHit> hits = response.hits() == null ? null : response.hits().hits();
+        return Math.max(1, hits == null ? 0 : hits.size());
+    }
+
+    private AsyncSearch toAsyncSearch(ESAsyncSearch search) {
+        AsyncSearch asyncSearch = new AsyncSearch();
+        asyncSearch.setId(search.id());
+        asyncSearch.setState(getState(search));
+        asyncSearch.setStartTime(search.startTime());
+        asyncSearch.setExpirationTime(search.expirationTime());
+        ESResponse response = search.response();
+        if (response != null && response.hits() != null && response.hits().total() != null && response.hits().total().value() != null) {
+            asyncSearch.setMax(response.hits().total().value());
+        }
+        return asyncSearch;
+    }
+
+    /**
+     * Maps the state of OpenSearch - completed searches may have been persisted (or be persisted at the moment).
+     */
+    private static AsyncSearch.State getState(ESAsyncSearch search) {
+        String state = search.state() == null ? "" : search.state();
+        return switch (state) {
+            case "RUNNING" -> AsyncSearch.State.RUNNING;
+            case "FAILED", "PERSIST_FAILED", "CLOSED" -> AsyncSearch.State.FAILED;
+            default -> search.response() == null || search.response().hits() == null ? AsyncSearch.State.RUNNING : AsyncSearch.State.SUCCEEDED;
+        };
+    }
+
+    private record ResultKey(String id, String token) {
+    }
+}
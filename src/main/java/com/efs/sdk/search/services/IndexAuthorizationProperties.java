@@ -0,0 +1,66 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.services;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the authorization pre-check of the requested indices (disabled by default), e.g.
+ * <pre>
+ * search:
+ *   index-authorization:
+ *     enabled: true
+ *     on-no-match: empty
+ * </pre>
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.index-authorization")
+public class IndexAuthorizationProperties {
+
+    private boolean enabled = false;
+    /**
+     * the answer of a search on indices of none of the accessible spaces
+     */
+    private OnNoMatch onNoMatch = OnNoMatch.FORBIDDEN;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public OnNoMatch getOnNoMatch() {
+        return onNoMatch;
+    }
+
+    public void setOnNoMatch(OnNoMatch onNoMatch) {
+        this.onNoMatch = onNoMatch;
+    }
+
+    public enum OnNoMatch {
+        /**
+         * reject the search with 403
+         */
+        FORBIDDEN,
+        /**
+         * answer searches with an empty result (exports and asynchronous searches are rejected nonetheless)
+         */
+        EMPTY
+    }
+}
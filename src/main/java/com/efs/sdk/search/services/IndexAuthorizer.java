@@ -0,0 +1,160 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.services;
+
+import com.efs.sdk.search.clients.OrganizationManagerClient;
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.metrics.SearchMetrics;
+import com.efs.sdk.search.model.search.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.INDEX_FORBIDDEN;
+import static com.efs.sdk.search.metrics.Stage.SPACES;
+
+/**
+ * Checks the indices of a search against the spaces accessible to the caller before the search is sent - a search on indices of none of the
+ * accessible spaces is answered immediately instead of being sent to all shards matching the pattern (which OpenSearch would filter by its
+ * permissions afterwards).
+ * <p>
+ * The index-name of the query is narrowed to the accessible spaces, e.g. <code>org*</code> becomes <code>org_space1*,org_space2*</code> for a caller
+ * with access to the spaces <code>org_space1</code> and <code>org_space2</code>. The accessible spaces are cached by the
+ * {@link OrganizationManagerClient}, so no additional request is sent per search. The {@link ReactiveSearchService} looks them up per search.
+ * Exclusions (<code>-index</code>) and date-math index-names are not checked, OpenSearch still enforces the permissions in any case.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Slf4j
+@Component
+public class IndexAuthorizer {
+
+    private final OrganizationManagerClient organizationManagerClient;
+    private final SearchMetrics searchMetrics;
+    private final IndexAuthorizationProperties properties;
+
+    public IndexAuthorizer(OrganizationManagerClient organizationManagerClient, SearchMetrics searchMetrics, IndexAuthorizationProperties properties) {
+        this.organizationManagerClient = organizationManagerClient;
+        this.searchMetrics = searchMetrics;
+        this.properties = properties;
+    }
+
+    /**
+     * Narrows the indices of the query to the accessible spaces.
+     *
+     * @param query the query
+     * @param token the access-token
+     * @return the query with the narrowed indices (the query itself, if nothing was narrowed) - empty, if no index is accessible and an empty result
+     * is configured
+     * @throws SearchException if no index is accessible ({@link SearchException.SEARCH_ERROR#INDEX_FORBIDDEN}) or the spaces could not be looked up
+     */
+    public Optional<Query> authorize(Query query, String token) throws SearchException {
+        if (!isApplicable(query)) {
+            return Optional.of(query);
+        }
+        List<String> spaces = searchMetrics.record(SPACES, () -> organizationManagerClient.getAllSpaces(token));
+        return authorize(query, spaces);
+    }
+
+    /**
+     * Checks whether the indices of the query are to be narrowed, i.e. the check is enabled and the query names its indices.
+     *
+     * @param query the query
+     * @return whether {@link #authorize(Query, List)} is to be applied
+     */
+    public boolean isApplicable(Query query) {
+        String indexName = query.getIndexName();
+        return properties.isEnabled() && indexName != null && !indexName.isBlank();
+    }
+
+    /**
+     * Narrows the indices of the query to the given spaces - for callers looking up the accessible spaces themselves (e.g. non-blocking).
+     *
+     * @param query  the query
+     * @param spaces the spaces accessible to the caller
+     * @return see {@link #authorize(Query, String)}
+     * @throws SearchException if no index is accessible ({@link SearchException.SEARCH_ERROR#INDEX_FORBIDDEN})
+     */
+    public Optional<Query> authorize(Query query, List<String> spaces) throws SearchException {
+        if (!isApplicable(query)) {
+            return Optional.of(query);
+        }
+        String indexName = query.getIndexName();
+        Set<String> narrowed = new LinkedHashSet<>();
+        for (String pattern : indexName.split(",")) {
+            narrowed.addAll(narrow(pattern.trim(), spaces));
+        }
+        if (narrowed.isEmpty()) {
+            log.debug("none of the indices '{}' is accessible", indexName);
+            if (properties.getOnNoMatch() == IndexAuthorizationProperties.OnNoMatch.EMPTY) {
+                return Optional.empty();
+            }
+            throw new SearchException(INDEX_FORBIDDEN, indexName);
+        }
+        String narrowedName = String.join(",", narrowed);
+        // longer lists of indices exceed the maximum length of a request-line
+        if (narrowedName.equals(indexName) || narrowedName.length() > IndexPruner.MAX_INDEX_LIST_LENGTH) {
+            return Optional.of(query);
+        }
+        Query narrowedQuery = query.forPage(query.getPage(), query.getSize());
+        narrowedQuery.setIndexName(narrowedName);
+        return Optional.of(narrowedQuery);
+    }
+
+    /**
+     * Like {@link #authorize(Query, String)}, but rejects the search if no index is accessible regardless of the configuration.
+     */
+    public Query authorizeOrReject(Query query, String token) throws SearchException {
+        Optional<Query> authorized = authorize(query, token);
+        if (authorized.isEmpty()) {
+            throw new SearchException(INDEX_FORBIDDEN, query.getIndexName());
+        }
+        return authorized.get();
+    }
+
+    /**
+     * Gets the part of the index-pattern within the given spaces - the indices of a space are prefixed by the name of the space.
+     */
+    static List<String> narrow(String pattern, List<String> spaces) {
+        if (pattern.isEmpty()) {
+            return List.of();
+        }
+        if (pattern.startsWith("-") || pattern.startsWith("<")) {
+            return List.of(pattern);
+        }
+        int wildcard = indexOfWildcard(pattern);
+        String prefix = wildcard < 0 ? pattern : pattern.substring(0, wildcard);
+        List<String> narrowed = new ArrayList<>();
+        for (String space : spaces) {
+            if (prefix.startsWith(space)) {
+                // the pattern is within the space
+                return List.of(pattern);
+            }
+            if (wildcard >= 0 && space.startsWith(prefix)) {
+                // the space is within the pattern - a plain prefix-pattern is narrowed to the space
+                narrowed.add(pattern.equals(prefix + "*") ? space + "*" : pattern);
+            }
+        }
+        return narrowed.stream().distinct().toList();
+    }
+
+    private static int indexOfWildcard(String pattern) {
+        int star = pattern.indexOf('*');
+        int question = pattern.indexOf('?');
+        return star < 0 ? question : question < 0 ? star : Math.min(star, question);
+    }
+}
@@ -0,0 +1,356 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.services;
+
+import com.efs.sdk.search.clients.ElasticSearchRestClient;
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.helper.AuthHelper;
+import com.efs.sdk.search.metrics.ServerTiming;
+import com.efs.sdk.search.model.search.Filter;
+import com.efs.sdk.search.model.search.Query;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Narrows the indices of a search to the date-partitioned indices whose time-bucket overlaps the date-filters of the query - e.g. a search on
+ * <code>org_space*</code> with a filter on May 2023 is only sent to <code>org_space_2023.05</code>, so the shards of the other months are not touched.
+ * <p>
+ * The indices matching the index-name of the query are looked up once per pattern and user and cached along with their time-buckets ("catalog").
+ * Pruning is conservative: indices without a recognized time-bucket and date-values that cannot be parsed never exclude an index, and a failed
+ * lookup keeps the query as is. If the time-range reaches past the lookup of the catalog, the indices of the buckets since then are added by
+ * wildcard, as they may have been created in the meantime. Indices deleted since the lookup are skipped by OpenSearch
+ * (<code>ignore_unavailable</code>).
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Slf4j
+@Component
+public class IndexPruner {
+
+    /**
+     * longer lists of indices exceed the maximum length of a request-line
+     */
+    static final int MAX_INDEX_LIST_LENGTH = 4000;
+    private static final Pattern DATE_MATH = Pattern.compile("now((?:[+-]\\d+[yMwdhHms])*)(?:/([yMwdhHms]))?");
+    private static final Pattern DATE_MATH_OFFSET = Pattern.compile("([+-])(\\d+)([yMwdhHms])");
+
+    private final ElasticSearchRestClient searchClient;
+    private final IndexPruningProperties properties;
+    private final List<BucketFormat> bucketFormats;
+    private final Cache<CatalogKey, Catalog> catalog;
+
+    public IndexPruner(ElasticSearchRestClient searchClient, IndexPruningProperties properties) {
+        this.searchClient = searchClient;
+        this.properties = properties;
+        this.bucketFormats = properties.getDatePatterns().stream().map(BucketFormat::of).toList();
+        this.catalog = Caffeine.newBuilder().maximumSize(properties.getCatalogMaxEntries()).expireAfterWrite(properties.getCatalogTtl()).build();
+    }
+
+    /**
+     * Prunes the indices of the query.
+     *
+     * @param query the query
+     * @param token the access-token
+     * @return the query with the pruned indices (the query itself, if nothing was pruned or the indices could not be looked up)
+     */
+    public Query prune(Query query, String token) {
+        if (!properties.isEnabled() || query.getIndexName() == null) {
+            return query;
+        }
+        TimeRange range = getTimeRange(query);
+        if (range.isUnbounded()) {
+            return query;
+        }
+        Catalog indices = getCatalog(query.getIndexName(), token);
+        if (indices == null) {
+            return query;
+        }
+        List<String> pruned = new ArrayList<>(indices.names().stream().filter(index -> indices.overlaps(index, range)).sorted().toList());
+        if (pruned.size() == indices.names().size()) {
+            return query;
+        }
+        pruned.addAll(getRecentBuckets(indices, range));
+        String indexName = String.join(",", pruned);
+        // without any index left the query is kept as is - an empty index-list would search all indices
+        if (pruned.isEmpty() || indexName.length() > MAX_INDEX_LIST_LENGTH) {
+            return query;
+        }
+        log.debug("pruned indices of '{}' to {} of {}", query.getIndexName(), pruned.size(), indices.names().size());
+        Query prunedQuery = query.forPage(query.getPage(), query.getSize());
+        prunedQuery.setIndexName(indexName);
+        prunedQuery.setIgnoreUnavailable(true);
+        return prunedQuery;
+    }
+
+    /**
+     * Get the catalog of the indices matching the pattern - the time-buckets of the indices are parsed once when they are looked up.
+     *
+     * @return the catalog (null if the indices could not be looked up)
+     */
+    private Catalog getCatalog(String indexName, String token) {
+        CatalogKey key = new CatalogKey(indexName, AuthHelper.getUserKey(token));
+        Catalog indices = catalog.getIfPresent(key);
+        ServerTiming.markCurrent("index-catalog", indices != null ? "hit" : "miss");
+        if (indices == null) {
+            Instant loaded = Instant.now();
+            Set<String> names;
+            try {
+                names = searchClient.getIndexNames(token, indexName);
+            } catch (SearchException e) {
+                log.warn("could not look up the indices of '{}' - not pruned: {}", indexName, e.getMessage());
+                return null;
+            }
+            Map<String, Bucket> buckets = new HashMap<>();
+            for (String index : names) {
+                Bucket bucket = parseBucket(index);
+                if (bucket != null) {
+                    buckets.put(index, bucket);
+                }
+            }
+            indices = new Catalog(Set.copyOf(names), Map.copyOf(buckets), loaded);
+            catalog.put(key, indices);
+        }
+        return indices;
+    }
+
+    /**
+     * Parses the time-bucket from the suffix of the index (after the last '_', or the whole name) by the first matching date-pattern.
+     *
+     * @return the bucket (null if the index has no recognized time-bucket)
+     */
+    private Bucket parseBucket(String index) {
+        int separator = index.lastIndexOf('_');
+        String prefix = index.substring(0, separator + 1);
+        String suffix = index.substring(separator + 1);
+        for (BucketFormat format : bucketFormats) {
+            TimeRange range = format.parse(suffix);
+            if (range != null) {
+                return new Bucket(prefix, format, range);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get wildcards for the buckets from the lookup of the catalog until now that overlap the time-range - per prefix and date-pattern of the
+     * cataloged indices, as indices of these buckets may have been created after the lookup.
+     */
+    private List<String> getRecentBuckets(Catalog indices, TimeRange range) {
+        if (range.to() != null && !range.to().isAfter(indices.loaded())) {
+            return List.of();
+        }
+        Set<String> wildcards = new TreeSet<>();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (Bucket indexBucket : indices.buckets().values()) {
+            if (indexBucket.prefix().isEmpty()) {
+                continue;
+            }
+            BucketFormat format = indexBucket.format();
+            for (LocalDate bucket = format.truncate(LocalDate.ofInstant(indices.loaded(), ZoneOffset.UTC)); !bucket.isAfter(today);
+                    bucket = bucket.plus(1, format.unit())) {
+                if (format.range(bucket).overlaps(range)) {
+                    wildcards.add(indexBucket.prefix() + format.formatter().format(bucket) + "*");
+                }
+            }
+        }
+        return List.copyOf(wildcards);
+    }
+
+    /**
+     * Derives the time-range of the query from the filters of the time-field - range-filters narrow the time-range, while EQ-, LIKE- and
+     * BETWEEN-filters of the same property are combined by OR (just like the OpenSearch-query), so their hull is used.
+     */
+    TimeRange getTimeRange(Query query) {
+        TimeRange range = TimeRange.UNBOUNDED;
+        TimeRange alternatives = null;
+        for (Filter filter : query.getFilter()) {
+            if (!properties.getTimeField().equals(filter.getProperty()) || filter.getOperator() == null) {
+                continue;
+            }
+            switch (filter.getOperator()) {
+                case GT, GTE -> range = range.intersect(new TimeRange(parseBound(filter.getValue(), false), null));
+                case LT, LTE -> range = range.intersect(new TimeRange(null, parseBound(filter.getValue(), true)));
+                case EQ -> alternatives = TimeRange.hull(alternatives, new TimeRange(parseBound(filter.getValue(), false), parseBound(filter.getValue(), true)));
+                case BETWEEN -> alternatives = TimeRange.hull(alternatives, new TimeRange(parseBound(filter.getLowerBound(), false),
+                        parseBound(filter.getUpperBound(), true)));
+                case LIKE -> alternatives = TimeRange.UNBOUNDED;
+                default -> {
+                    // NOT does not narrow the time-range
+                }
+            }
+        }
+        return alternatives == null ? range : range.intersect(alternatives);
+    }
+
+    /**
+     * Parses a date-value of a filter - the bound is widened where the value is imprecise (dates, rounded date-math).
+     *
+     * @param value the value
+     * @param upper whether the value is an upper bound
+     * @return the instant (null if unbounded or not parseable)
+     */
+    static Instant parseBound(String value, boolean upper) {
+        if (value == null || value.isBlank() || "*".equals(value.trim())) {
+            return null;
+        }
+        String trimmed = value.trim();
+        Matcher dateMath = DATE_MATH.matcher(trimmed);
+        if (dateMath.matches()) {
+            ZonedDateTime instant = ZonedDateTime.now(ZoneOffset.UTC);
+            Matcher offset = DATE_MATH_OFFSET.matcher(dateMath.group(1));
+            while (offset.find()) {
+                long amount = Long.parseLong(offset.group(2));
+                instant = instant.plus("-".equals(offset.group(1)) ? -amount : amount, toUnit(offset.group(3).charAt(0)));
+            }
+            if (dateMath.group(2) != null) {
+                instant = instant.plus(upper ? 1 : -1, toUnit(dateMath.group(2).charAt(0)));
+            }
+            return instant.toInstant();
+        }
+        try {
+            if (trimmed.matches("\\d{5,}")) {
+                return Instant.ofEpochMilli(Long.parseLong(trimmed));
+            }
+            if (trimmed.matches("\\d{4}")) {
+                return LocalDate.of(Integer.parseInt(trimmed), 1, 1).plusYears(upper ? 1 : 0).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            if (trimmed.length() == 10) {
+                return LocalDate.parse(trimmed).plusDays(upper ? 1 : 0).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            return DateTimeFormatter.ISO_DATE_TIME.parseBest(trimmed, ZonedDateTime::from, LocalDateTime::from) instanceof ZonedDateTime zoned ?
+                    zoned.toInstant() : LocalDateTime.parse(trimmed).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static ChronoUnit toUnit(char unit) {
+        return switch (unit) {
+            case 'y' -> ChronoUnit.YEARS;
+            case 'M' -> ChronoUnit.MONTHS;
+            case 'w' -> ChronoUnit.WEEKS;
+            case 'd' -> ChronoUnit.DAYS;
+            case 'h', 'H' -> ChronoUnit.HOURS;
+            case 'm' -> ChronoUnit.MINUTES;
+            default -> ChronoUnit.SECONDS;
+        };
+    }
+
+    /**
+     * Time-range - missing bounds are unbounded.
+     */
+    record TimeRange(Instant from, Instant to) {
+
+        static final TimeRange UNBOUNDED = new TimeRange(null, null);
+
+        boolean isUnbounded() {
+            return from == null && to == null;
+        }
+
+        TimeRange intersect(TimeRange other) {
+            Instant start = from == null ? other.from : other.from == null || from.isAfter(other.from) ? from : other.from;
+            Instant end = to == null ? other.to : other.to == null || to.isBefore(other.to) ? to : other.to;
+            return new TimeRange(start, end);
+        }
+
+        static TimeRange hull(TimeRange range, TimeRange other) {
+            if (range == null) {
+                return other;
+            }
+            Instant start = range.from == null || other.from == null ? null : range.from.isBefore(other.from) ? range.from : other.from;
+            Instant end = range.to == null || other.to == null ? null : range.to.isAfter(other.to) ? range.to : other.to;
+            return new TimeRange(start, end);
+        }
+
+        /**
+         * Whether this range (end exclusive, like a time-bucket) overlaps the other range (end inclusive, like a filter).
+         */
+        boolean overlaps(TimeRange other) {
+            return (other.from == null || to == null || to.isAfter(other.from)) && (other.to == null || from == null || !from.isAfter(other.to));
+        }
+    }
+
+    /**
+     * Date-pattern of the time-bucket of an index - the bucket spans the smallest unit of the pattern.
+     */
+    private record BucketFormat(DateTimeFormatter formatter, ChronoUnit unit) {
+
+        static BucketFormat of(String pattern) {
+            DateTimeFormatter formatter = new DateTimeFormatterBuilder().appendPattern(pattern)
+                    .parseDefaulting(ChronoField.MONTH_OF_YEAR, 1)
+                    .parseDefaulting(ChronoField.DAY_OF_MONTH, 1)
+                    .toFormatter(Locale.ROOT);
+            ChronoUnit unit = pattern.contains("d") ? ChronoUnit.DAYS : pattern.contains("M") ? ChronoUnit.MONTHS : ChronoUnit.YEARS;
+            return new BucketFormat(formatter, unit);
+        }
+
+        LocalDate truncate(LocalDate date) {
+            return switch (unit) {
+                case DAYS -> date;
+                case MONTHS -> date.withDayOfMonth(1);
+                default -> date.withDayOfYear(1);
+            };
+        }
+
+        TimeRange range(LocalDate start) {
+            return new TimeRange(start.atStartOfDay(ZoneOffset.UTC).toInstant(), start.plus(1, unit).atStartOfDay(ZoneOffset.UTC).toInstant());
+        }
+
+        TimeRange parse(String suffix) {
+            try {
+                return range(LocalDate.parse(suffix, formatter));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Time-bucket of an index - the prefix (up to the last '_', empty if the whole name is the bucket) and the date-pattern name the other indices
+     * of the same series.
+     */
+    private record Bucket(String prefix, BucketFormat format, TimeRange range) {
+    }
+
+    private record CatalogKey(String indexName, String user) {
+    }
+
+    /**
+     * The indices matching a pattern at the time of their lookup, with the time-buckets of the date-partitioned indices.
+     */
+    private record Catalog(Set<String> names, Map<String, Bucket> buckets, Instant loaded) {
+
+        /**
+         * Whether the index may contain documents of the time-range - indices without a time-bucket always may.
+         */
+        boolean overlaps(String index, TimeRange range) {
+            Bucket bucket = buckets.get(index);
+            return bucket == null || bucket.range().overlaps(range);
+        }
+    }
+}
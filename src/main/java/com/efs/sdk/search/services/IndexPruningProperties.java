@@ -0,0 +1,91 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.services;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of pruning date-partitioned indices (disabled by default), e.g.
+ * <pre>
+ * search:
+ *   index-pruning:
+ *     enabled: true
+ *     time-field: metadata.dateTime.createdAt
+ *     date-patterns: yyyy.MM
+ * </pre>
+ * The time-bucket of an index is the suffix of its name after the last <code>_</code> (e.g. <code>org_space_2023.05</code>), parsed by the first
+ * matching date-pattern (in UTC).
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.index-pruning")
+public class IndexPruningProperties {
+
+    private boolean enabled = false;
+    /**
+     * the date-property the indices are partitioned by - only filters of this property prune indices
+     */
+    private String timeField = "metadata.dateTime.createdAt";
+    private List<String> datePatterns = List.of("yyyy.MM.dd", "yyyy.MM", "yyyy");
+    /**
+     * how long the resolved indices of a pattern are cached
+     */
+    private Duration catalogTtl = Duration.ofMinutes(1);
+    private int catalogMaxEntries = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getTimeField() {
+        return timeField;
+    }
+
+    public void setTimeField(String timeField) {
+        this.timeField = timeField;
+    }
+
+    public List<String> getDatePatterns() {
+        return datePatterns;
+    }
+
+    public void setDatePatterns(List<String> datePatterns) {
+        this.datePatterns = datePatterns;
+    }
+
+    public Duration getCatalogTtl() {
+        return catalogTtl;
+    }
+
+    public void setCatalogTtl(Duration catalogTtl) {
+        this.catalogTtl = catalogTtl;
+    }
+
+    public int getCatalogMaxEntries() {
+        return catalogMaxEntries;
+    }
+
+    public void setCatalogMaxEntries(int catalogMaxEntries) {
+        this.catalogMaxEntries = catalogMaxEntries;
+    }
+}
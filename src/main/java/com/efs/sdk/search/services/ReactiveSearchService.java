@@ -0,0 +1,159 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.services;
+
+import com.efs.sdk.search.clients.ReactiveElasticSearchClient;
+import com.efs.sdk.search.clients.ReactiveOrganizationManagerClient;
+import com.efs.sdk.search.clients.ResultBuilder;
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.helper.ParseHelper;
+import com.efs.sdk.search.model.elasticsearch.ESHit;
+import com.efs.sdk.search.model.search.Criteria;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.model.search.Result;
+import com.efs.sdk.search.model.search.ResultLayout;
+import com.efs.sdk.search.resilience.Deadline;
+import com.efs.sdk.search.resilience.Deadlines;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.INDEX_FORBIDDEN;
+import static com.efs.sdk.search.resilience.BulkheadType.METADATA;
+import static com.efs.sdk.search.resilience.BulkheadType.SEARCH;
+
+/**
+ * Non-blocking variant of the {@link SearchService} (profile <code>reactive</code>) - results are built the same way, but no thread is waiting for
+ * OpenSearch or the organizationmanager.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSearchService {
+
+    private final ReactiveElasticSearchClient searchClient;
+    private final ReactiveOrganizationManagerClient organizationManagerClient;
+    private final ResultBuilder resultBuilder;
+    private final Deadlines deadlines;
+    private final IndexAuthorizer indexAuthorizer;
+    private final ParseHelper parseHelper;
+
+    public ReactiveSearchService(ReactiveElasticSearchClient searchClient, ReactiveOrganizationManagerClient organizationManagerClient,
+            ResultBuilder resultBuilder, Deadlines deadlines, IndexAuthorizer indexAuthorizer) {
+        this.searchClient = searchClient;
+        this.organizationManagerClient = organizationManagerClient;
+        this.resultBuilder = resultBuilder;
+        this.deadlines = deadlines;
+        this.indexAuthorizer = indexAuthorizer;
+        this.parseHelper = new ParseHelper();
+    }
+
+    public Mono<Result> executeSearch(Query query, String token) {
+        Deadline deadline = deadlines.start(SEARCH);
+        return authorize(query, token, deadline)
+                // no accessible index: answered without asking OpenSearch
+                .flatMap(authorized -> authorized.isEmpty()
+                        ? Mono.just(SearchService.EMPTY_RESPONSE)
+                        : searchClient.executeSearch(authorized.get(), token, deadline))
+                .flatMap(response -> Mono.fromCallable(() -> {
+                    Result result = query.getLayout() == ResultLayout.COLUMNS
+                            ? resultBuilder.buildColumnarResult(response, query.getResultProperties(), query.isDictionaryEncoding())
+                            : resultBuilder.buildResult(response);
+                    result.setPage(query.getPage());
+                    result.setSize(query.getSize());
+                    return result;
+                }));
+    }
+
+    /**
+     * Streams the sources of all hits of the query (up to 10.000) - OpenSearch is paged by the demand of the consumer.
+     *
+     * @param query the query (its page is ignored)
+     * @param token the access-token
+     * @return the sources of the hits
+     */
+    public Flux<Map<String, Object>> streamHits(Query query, String token) {
+        // like exports, streams on no accessible index are rejected regardless of the configuration
+        return authorize(query, token, deadlines.start(SEARCH))
+                .flatMap(authorized -> authorized.isPresent()
+                        ? Mono.just(authorized.get())
+                        : Mono.<Query>error(new SearchException(INDEX_FORBIDDEN, query.getIndexName())))
+                .flatMapMany(authorized -> searchClient.streamHits(authorized, token))
+                .map(ESHit::source);
+    }
+
+    /**
+     * Narrows the indices of the query to the spaces accessible to the caller (see {@link IndexAuthorizer}) - the spaces are looked up per search,
+     * as there is no cache of the accessible spaces without blocking.
+     */
+    private Mono<Optional<Query>> authorize(Query query, String token, Deadline deadline) {
+        if (!indexAuthorizer.isApplicable(query)) {
+            return Mono.just(Optional.of(query));
+        }
+        return organizationManagerClient.getAllSpaces(token, deadline).flatMap(spaces -> Mono.fromCallable(() -> indexAuthorizer.authorize(query, spaces)));
+    }
+
+    public Mono<Set<String>> getIndices(String token, String indexWildcard) {
+        return getFilteredIndicesAndMappings(token, indexWildcard).map(filteredMappingsList -> filteredMappingsList.stream()
+                .flatMap(filteredMappings -> filteredMappings.keySet().stream())
+                .collect(Collectors.toSet()));
+    }
+
+    public Mono<List<Criteria>> getCriteria(String token, String indexRegex) {
+        return getFilteredIndicesAndMappings(token, indexRegex).flatMap(mappings -> Mono.fromCallable(() -> parseHelper.collectCriteria(mappings)));
+    }
+
+    public Mono<Set<String>> getResultProperties(String token, String indexRegex) {
+        return getFilteredIndicesAndMappings(token, indexRegex).flatMap(mappings -> Mono.fromCallable(() -> parseHelper.collectPropertyNames(mappings)));
+    }
+
+    /**
+     * Looks up the mappings of the indices of the spaces the user has access to - the chunks of indices are looked up concurrently and zipped.
+     */
+    private Mono<List<Map<String, Object>>> getFilteredIndicesAndMappings(String token, String indexRegex) {
+        Deadline deadline = deadlines.start(METADATA);
+        return organizationManagerClient.getAllSpaces(token, deadline).flatMap(spaces -> {
+            List<String> indexWildcards = spaces.stream().map(s -> s + "*").toList();
+            // GET /<index1>,<index2>..../_mapping must not become too long, therefore splitting is necessary
+            List<Mono<Map<String, Object>>> chunks = parseHelper.splitListByMaxLength(indexWildcards, 4000).stream()
+                    .map(indexList -> searchClient.getMappings(token, String.join(",", indexList), deadline)
+                            .map(mappings -> parseHelper.getFilteredMapByIndexKeyWildcard(indexRegex, mappings)))
+                    .toList();
+            if (chunks.isEmpty()) {
+                return Mono.just(List.of());
+            }
+            return Mono.zip(chunks, ReactiveSearchService::toList);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> toList(Object[] chunks) {
+        List<Map<String, Object>> list = new ArrayList<>(chunks.length);
+        for (Object chunk : chunks) {
+            list.add((Map<String, Object>) chunk);
+        }
+        return list;
+    }
+}
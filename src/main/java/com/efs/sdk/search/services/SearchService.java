@@ -15,48 +15,137 @@ limitations under the License.
  */
 package com.efs.sdk.search.services;
 
+import com.efs.sdk.search.clients.ArrowResultWriter;
 import com.efs.sdk.search.clients.ElasticSearchRestClient;
 import com.efs.sdk.search.clients.OrganizationManagerClient;
 import com.efs.sdk.search.clients.ResultBuilder;
 import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.concurrent.FanOut;
 import com.efs.sdk.search.helper.ParseHelper;
-import com.efs.sdk.search.model.elasticsearch.ESFieldProperty;
+import com.efs.sdk.search.metrics.QueryFingerprint;
+import com.efs.sdk.search.metrics.SearchMetrics;
+import com.efs.sdk.search.model.elasticsearch.ESHits;
 import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.elasticsearch.ESTotal;
 import com.efs.sdk.search.model.search.Criteria;
+import com.efs.sdk.search.model.search.DataType;
 import com.efs.sdk.search.model.search.Query;
 import com.efs.sdk.search.model.search.Result;
+import com.efs.sdk.search.model.search.ResultLayout;
+import com.efs.sdk.search.resilience.Deadline;
+import com.efs.sdk.search.resilience.Deadlines;
 import org.springframework.stereotype.Service;
+import org.springframework.util.function.ThrowingSupplier;
 
+import java.io.OutputStream;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static com.efs.sdk.search.clients.QueryBuilder.MAX_QUERY_SIZE;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.EXPORT_FAILED;
+import static com.efs.sdk.search.metrics.Stage.RESULT_BUILD;
+import static com.efs.sdk.search.metrics.Stage.SPACES;
+import static com.efs.sdk.search.resilience.BulkheadType.METADATA;
+import static com.efs.sdk.search.resilience.BulkheadType.SEARCH;
+
 @Service
 public class SearchService {
 
+    static final ESResponse EMPTY_RESPONSE = new ESResponse(0, false, null, new ESHits(new ESTotal(0, "eq"), null, List.of()));
 
-    private static final String MAPPINGS = "mappings";
-    private static final String PROPERTIES = "properties";
     private final ResultBuilder resultBuilder;
     private final ElasticSearchRestClient searchClient;
     private final OrganizationManagerClient organizationManagerClient;
     private final ParseHelper parseHelper;
-
-    public SearchService(ElasticSearchRestClient searchClient, ResultBuilder resultBuilder, OrganizationManagerClient organizationManagerClient) {
+    private final SearchMetrics searchMetrics;
+    private final Deadlines deadlines;
+    private final FanOut fanOut;
+    private final IndexPruner indexPruner;
+    private final IndexAuthorizer indexAuthorizer;
+
+    public SearchService(ElasticSearchRestClient searchClient, ResultBuilder resultBuilder, OrganizationManagerClient organizationManagerClient,
+            SearchMetrics searchMetrics, Deadlines deadlines, FanOut fanOut, IndexPruner indexPruner, IndexAuthorizer indexAuthorizer) {
         this.searchClient = searchClient;
         this.resultBuilder = resultBuilder;
         this.organizationManagerClient = organizationManagerClient;
+        this.searchMetrics = searchMetrics;
+        this.deadlines = deadlines;
+        this.fanOut = fanOut;
+        this.indexPruner = indexPruner;
+        this.indexAuthorizer = indexAuthorizer;
         this.parseHelper = new ParseHelper();
     }
 
     public Result executeSearch(Query query, String token) throws SearchException {
-        ESResponse response = searchClient.executeSearch(query, token);
-
-        Result result = resultBuilder.buildResult(response);
+        deadlines.start(SEARCH);
+        // the slow-query-log aggregates by the index-pattern as requested, not by the narrowed or pruned indices varying per user and day
+        String fingerprint = QueryFingerprint.of(query);
+        Optional<Query> authorizedQuery = indexAuthorizer.authorize(query, token);
+        // no accessible index: answered without asking OpenSearch
+        ESResponse response = authorizedQuery.isEmpty()
+                ? EMPTY_RESPONSE
+                : searchClient.executeSearch(indexPruner.prune(authorizedQuery.get(), token), token, fingerprint);
+        searchMetrics.recordTook(response.took());
+
+        Result result = searchMetrics.record(RESULT_BUILD, () -> query.getLayout() == ResultLayout.COLUMNS
+                ? resultBuilder.buildColumnarResult(response, query.getResultProperties(), query.isDictionaryEncoding())
+                : resultBuilder.buildResult(response));
         result.setPage(query.getPage());
         result.setSize(query.getSize());
         return result;
     }
 
+    /**
+     * Exports all hits of the query (up to 10.000) as Apache Arrow IPC-stream - pages of the query-size are requested from
+     * OpenSearch one after another and written as record-batch each.
+     * <p>
+     * The stream is opened once the first page was received, so failures before are reported as regular error-response.
+     *
+     * @param query  the query (its page is ignored)
+     * @param token  the access-token
+     * @param output supplies the stream to write to
+     * @throws SearchException if the search or writing the stream failed
+     */
+    public void exportSearch(Query query, String token, ThrowingSupplier<OutputStream> output) throws SearchException {
+        deadlines.start(SEARCH);
+        int size = Math.max(1, Math.min(query.getSize(), MAX_QUERY_SIZE));
+        String fingerprint = QueryFingerprint.of(query.forPage(0, size));
+        Query prunedQuery = indexPruner.prune(indexAuthorizer.authorizeOrReject(query, token), token);
+        // the schema is derived from the indices that are actually searched
+        Map<String, DataType> types = getDataTypes(token, prunedQuery);
+        List<String> properties = query.getResultProperties().isEmpty() ? types.keySet().stream().sorted().toList() : query.getResultProperties();
+
+        ESResponse response = searchClient.executeSearch(prunedQuery.forPage(0, size), token, fingerprint);
+        OutputStream out;
+        try {
+            out = output.getWithException();
+        } catch (Exception e) {
+            throw new SearchException(EXPORT_FAILED, e.getMessage());
+        }
+        try (ArrowResultWriter writer = new ArrowResultWriter(properties, types, out)) {
+            for (int page = 1; ; page++) {
+                searchMetrics.recordTook(response.took());
+                ESResponse current = response;
+                int written = searchMetrics.record(RESULT_BUILD, () -> writer.writeBatch(current));
+                if (written < size || Boolean.TRUE.equals(response.timedOut()) || (page + 1) * size > MAX_QUERY_SIZE) {
+                    return;
+                }
+                response = searchClient.executeSearch(prunedQuery.forPage(page, size), token, fingerprint);
+            }
+        }
+    }
+
+    /**
+     * Gets the data-types of the properties of the indices - properties of varying types are considered as {@link DataType#STRING}.
+     */
+    private Map<String, DataType> getDataTypes(String token, Query query) throws SearchException {
+        Map<String, DataType> types = new HashMap<>();
+        for (Criteria criteria : parseHelper.collectCriteria(List.of(searchClient.getMappings(token, query.getIndexName(), query.isIgnoreUnavailable())))) {
+            types.merge(criteria.property(), DataType.valueOf(criteria.dataType()), (a, b) -> a == b ? a : DataType.STRING);
+        }
+        return types;
+    }
+
     public Set<String> getIndices(String token, String indexWildcard) throws SearchException {
         List<Map<String, Object>> filteredMappingsList = getFilteredIndicesAndMappings(token, indexWildcard);
         return filteredMappingsList.stream()
@@ -65,56 +154,34 @@ public class SearchService {
     }
 
     public List<Criteria> getCriteria(String token, String indexRegex) throws SearchException {
-
-        List<Map<String, Object>> filteredMappingsList = getFilteredIndicesAndMappings(token, indexRegex);
-        Set<Criteria> criteria = new HashSet<>();
-        for (Map<String, Object> filteredMappings : filteredMappingsList) {
-            for (Object object : filteredMappings.values()) {
-                Map<String, Map<String, Map<String, ESFieldProperty>>> mapping = parseHelper.parseMappingsFromObject(object);
-                if (mapping.containsKey(MAPPINGS) && mapping.get(MAPPINGS).containsKey(PROPERTIES)) {
-                    parseHelper.parseProperties(criteria, "", mapping.get(MAPPINGS).get(PROPERTIES));
-                }
-            }
-        }
-        return new ArrayList<>(criteria);
+        return parseHelper.collectCriteria(getFilteredIndicesAndMappings(token, indexRegex));
     }
 
-
     public Set<String> getResultProperties(String token, String indexRegex) throws SearchException {
-        List<Map<String, Object>> filteredMappingsList = getFilteredIndicesAndMappings(token, indexRegex);
-
-        Set<String> propertyNames = new HashSet<>();
-        for (Map<String, Object> filteredMappings : filteredMappingsList) {
-            for (Object object : filteredMappings.values()) {
-                Map<String, Map<String, Map<String, ESFieldProperty>>> mappings = parseHelper.parseMappingsFromObject(object);
-                if (mappings != null && !mappings.isEmpty() && mappings.containsKey(MAPPINGS)) {
-                    Map<String, Map<String, ESFieldProperty>> mapping = mappings.get(MAPPINGS);
-                    if (mapping != null && !mapping.isEmpty() && mapping.containsKey(PROPERTIES)) {
-                        parseHelper.parsePropertyNames(propertyNames, "", mapping.get(PROPERTIES));
-                    }
-                }
-            }
-        }
-
-        return propertyNames;
+        return parseHelper.collectPropertyNames(getFilteredIndicesAndMappings(token, indexRegex));
     }
 
     private List<Map<String, Object>> getFilteredIndicesAndMappings(String token, String indexRegex) throws
             SearchException {
+        Deadline deadline = deadlines.start(METADATA);
 
         // limit to accessible indices by getting accessible spaces first
-        List<String> spaceNamesWithOrganizationPrefix = organizationManagerClient.getAllSpaces(token);
+        List<String> spaceNamesWithOrganizationPrefix = searchMetrics.record(SPACES, () -> organizationManagerClient.getAllSpaces(token));
         List<String> spaceNamesWithOrganizationPrefixAsIndexWildcard = spaceNamesWithOrganizationPrefix.stream().map(s -> s + "*").toList();
         // then get mapping... but if there are many indices, GET /<index1>,<index2>..../_mapping becomes too long -> "An HTTP line is larger than 4096 bytes:", therefore splitting is necessary :(
         List<List<String>> listOfLists = parseHelper.splitListByMaxLength(spaceNamesWithOrganizationPrefixAsIndexWildcard, 4000);
 
-        List<Map<String, Object>> returnList = new ArrayList<>();
-
+        // the chunks are looked up concurrently if virtual threads are enabled
+        List<FanOut.FanOutCallable<Map<String, Object>>> chunks = new ArrayList<>();
         for (List<String> indexList : listOfLists) {
-            Map<String, Object> mappings = searchClient.getMappings(token, String.join(",", indexList));
-            returnList.add(parseHelper.getFilteredMapByIndexKeyWildcard(indexRegex, mappings));
+            chunks.add(() -> {
+                // abort the remaining chunks once the deadline expired
+                deadline.check();
+                Map<String, Object> mappings = searchClient.getMappings(token, String.join(",", indexList));
+                return parseHelper.getFilteredMapByIndexKeyWildcard(indexRegex, mappings);
+            });
         }
-        return returnList;
+        return fanOut.invokeAll(chunks);
     }
 
 }
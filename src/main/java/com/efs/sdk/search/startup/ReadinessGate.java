@@ -0,0 +1,162 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the readiness of the service until its {@link StartupPhase}s completed - e.g. the connection-pools to OpenSearch are opened and the
+ * openid-configuration and the keys of the issuer are resolved.
+ * <p>
+ * The phases run one after another in the background once the application is ready, a failed phase is repeated after
+ * <code>search.readiness.retry-interval</code>. Until all phases completed, the health-indicator <code>readinessGate</code> reports
+ * <code>OUT_OF_SERVICE</code> - it is part of the readiness-group. The duration of every phase (including the startup of the application-context as
+ * phase <code>context</code>) is published as timer {@value #METRIC_PHASE}.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Slf4j
+@Component
+public class ReadinessGate implements HealthIndicator, ApplicationListener<ApplicationReadyEvent> {
+
+    static final String METRIC_PHASE = "search.startup.phase";
+    static final String TAG_PHASE = "phase";
+    static final String PHASE_CONTEXT = "context";
+
+    private final List<StartupPhase> phases;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final Duration retryInterval;
+    private final Map<String, String> status = new LinkedHashMap<>();
+    private volatile boolean ready;
+    private volatile Thread thread;
+
+    public ReadinessGate(ObjectProvider<StartupPhase> phases, MeterRegistry registry, @Value("${search.readiness.enabled:true}") boolean enabled,
+            @Value("${search.readiness.retry-interval:5s}") Duration retryInterval) {
+        this.phases = phases.orderedStream().toList();
+        this.registry = registry;
+        this.enabled = enabled;
+        this.retryInterval = retryInterval;
+        this.ready = !enabled;
+        this.phases.forEach(phase -> status.put(phase.name(), "pending"));
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (event.getTimeTaken() != null) {
+            record(PHASE_CONTEXT, event.getTimeTaken().toNanos());
+        }
+        start();
+    }
+
+    /**
+     * Starts the phases in the background.
+     */
+    synchronized void start() {
+        if (!enabled || thread != null) {
+            return;
+        }
+        thread = new Thread(this::runPhases, "readiness-gate");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = ready ? Health.up() : Health.outOfService();
+        synchronized (status) {
+            return builder.withDetails(status).build();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void runPhases() {
+        for (StartupPhase phase : phases) {
+            if (!runPhase(phase)) {
+                return;
+            }
+        }
+        ready = true;
+        log.info("startup-phases completed, ready to accept traffic");
+    }
+
+    /**
+     * Runs the phase until it succeeded.
+     *
+     * @return false, if interrupted
+     */
+    private boolean runPhase(StartupPhase phase) {
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                phase.task().run();
+                long nanos = System.nanoTime() - start;
+                record(phase.name(), nanos);
+                setStatus(phase.name(), "done");
+                log.info("startup-phase '{}' completed in {} ms", phase.name(), TimeUnit.NANOSECONDS.toMillis(nanos));
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                setStatus(phase.name(), "attempt " + attempt + " failed: " + e.getMessage());
+                log.warn("startup-phase '{}' failed (attempt {}): {}", phase.name(), attempt, e.getMessage());
+            }
+            try {
+                Thread.sleep(retryInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private void setStatus(String phase, String value) {
+        synchronized (status) {
+            status.put(phase, value);
+        }
+    }
+
+    private void record(String phase, long nanos) {
+        Timer.builder(METRIC_PHASE).tag(TAG_PHASE, phase).register(registry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
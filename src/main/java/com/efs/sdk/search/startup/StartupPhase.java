@@ -0,0 +1,34 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.startup;
+
+/**
+ * A phase of warming up the service before it accepts traffic (see {@link ReadinessGate}).
+ *
+ * @param name the name of the phase (used as metric-tag and health-detail)
+ * @param task the work of the phase - it is repeated until it succeeded
+ * @author e:fs TechHub GmbH
+ */
+public record StartupPhase(String name, Task task) {
+
+    /**
+     * Work of a phase.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+}
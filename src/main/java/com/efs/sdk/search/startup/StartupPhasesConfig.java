@@ -0,0 +1,58 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.startup;
+
+import com.efs.sdk.search.clients.ElasticSearchClientBuilder;
+import com.efs.sdk.search.security.IssuerKeys;
+import com.efs.sdk.search.security.oauth.OAuthConfigurationHelper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * The phases held by the {@link ReadinessGate}, in order of execution.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Configuration
+public class StartupPhasesConfig {
+
+    @Bean
+    @Order(100)
+    public StartupPhase openSearchPhase(ElasticSearchClientBuilder clientBuilder) {
+        return new StartupPhase("opensearch", clientBuilder::warmUp);
+    }
+
+    @Bean
+    @Order(200)
+    public StartupPhase oidcPhase(OAuthConfigurationHelper configHelper) {
+        return new StartupPhase("oidc", configHelper::discover);
+    }
+
+    @Bean
+    @Order(300)
+    public StartupPhase jwksPhase(IssuerKeys issuerKeys) {
+        return new StartupPhase("jwks", issuerKeys::warmUp);
+    }
+
+    @Bean
+    @Order(400)
+    @ConditionalOnProperty(prefix = "search.warm-up", name = "enabled")
+    public StartupPhase warmUpPhase(WarmUp warmUp) {
+        return new StartupPhase("warm-up", warmUp::run);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.startup;
+
+import com.efs.sdk.search.clients.QueryBuilder;
+import com.efs.sdk.search.clients.ResultBuilder;
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.search.Query;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warms up the request-path before the service accepts traffic - right after a rollout, the first requests would otherwise hit cold
+ * JSON-(de)serializers and interpreted query- and result-building.
+ * <p>
+ * Synthetic queries and OpenSearch-responses (see {@link WarmUpProperties}) are replayed through the {@link QueryBuilder}, the {@link ResultBuilder}
+ * and the JSON-stack. It runs as {@link StartupPhase} of the {@link ReadinessGate}.
+ *
+ * @author e:fs TechHub GmbH
+ */
+@Slf4j
+@Component
+public class WarmUp {
+
+    private final WarmUpProperties properties;
+    private final ObjectMapper objectMapper;
+    private final QueryBuilder queryBuilder;
+    private final ResultBuilder resultBuilder;
+
+    public WarmUp(WarmUpProperties properties, ObjectMapper objectMapper, QueryBuilder queryBuilder, ResultBuilder resultBuilder) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.queryBuilder = queryBuilder;
+        this.resultBuilder = resultBuilder;
+    }
+
+    public void run() throws IOException, SearchException {
+        log.info("warm-up replayed {} fixtures", replay());
+    }
+
+    /**
+     * Replays the fixtures.
+     *
+     * @return the number of replayed fixtures
+     */
+    int replay() throws IOException, SearchException {
+        List<byte[]> queries = load(properties.getQueries());
+        List<byte[]> responses = load(properties.getResponses());
+        for (int i = 0; i < properties.getIterations(); i++) {
+            for (byte[] content : queries) {
+                Query query = objectMapper.readValue(content, Query.class);
+                queryBuilder.buildSearch(query);
+            }
+            for (byte[] content : responses) {
+                ESResponse response = objectMapper.readValue(content, ESResponse.class);
+                objectMapper.writeValueAsBytes(resultBuilder.buildResult(response));
+                objectMapper.writeValueAsBytes(resultBuilder.buildColumnarResult(response, List.of(), true));
+            }
+        }
+        return properties.getIterations() * (queries.size() + responses.size());
+    }
+
+    private static List<byte[]> load(String locationPattern) throws IOException {
+        List<byte[]> contents = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locationPattern)) {
+            try (InputStream in = resource.getInputStream()) {
+                contents.add(in.readAllBytes());
+            }
+        }
+        return contents;
+    }
+}
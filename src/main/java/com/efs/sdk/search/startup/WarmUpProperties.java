@@ -0,0 +1,79 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.startup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the warm-up before readiness (disabled by default), e.g.
+ * <pre>
+ * search:
+ *   warm-up:
+ *     enabled: true
+ *     iterations: 200
+ * </pre>
+ *
+ * @author e:fs TechHub GmbH
+ */
+@ConfigurationProperties(prefix = "search.warm-up")
+public class WarmUpProperties {
+
+    private boolean enabled = false;
+    /**
+     * how often the fixtures are replayed
+     */
+    private int iterations = 200;
+    /**
+     * the queries replayed through query- and result-building
+     */
+    private String queries = "classpath*:warm-up/queries/*.json";
+    /**
+     * the OpenSearch-responses replayed through result-building and serialization
+     */
+    private String responses = "classpath*:warm-up/responses/*.json";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public String getQueries() {
+        return queries;
+    }
+
+    public void setQueries(String queries) {
+        this.queries = queries;
+    }
+
+    public String getResponses() {
+        return responses;
+    }
+
+    public void setResponses(String responses) {
+        this.responses = responses;
+    }
+}
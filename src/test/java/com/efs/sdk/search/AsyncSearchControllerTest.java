@@ -0,0 +1,125 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.helper.AuthHelper;
+import com.efs.sdk.search.metrics.SearchMetrics;
+import com.efs.sdk.search.model.search.AsyncSearch;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.model.search.Result;
+import com.efs.sdk.search.services.AsyncSearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.efs.sdk.search.AsyncSearchController.ENDPOINT;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.ASYNC_SEARCH_NOT_FOUND;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.ASYNC_SEARCH_RUNNING;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.verify;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AsyncSearchController.class)
+@ActiveProfiles("test")
+class AsyncSearchControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+    /* required for security tests to run. Do not remove! */
+    @MockBean
+    private JwtDecoder decoder;
+
+    @MockBean
+    private AuthHelper authHelper;
+
+    @MockBean
+    private AsyncSearchService service;
+
+    @MockBean
+    private SearchMetrics searchMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void givenNoAuthentication_whenGetSearch_thenError() throws Exception {
+        mvc.perform(get(ENDPOINT + "/abc")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void givenRunningSearch_whenSubmit_thenAccepted() throws Exception {
+        given(service.submitSearch(any(), any())).willReturn(asyncSearch(AsyncSearch.State.RUNNING));
+
+        mvc.perform(post(ENDPOINT).with(jwt()).contentType(APPLICATION_JSON).content(objectMapper.writeValueAsString(new Query())))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("abc"))
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+    }
+
+    @Test
+    void givenCompletedSearch_whenSubmit_thenOk() throws Exception {
+        given(service.submitSearch(any(), any())).willReturn(asyncSearch(AsyncSearch.State.SUCCEEDED));
+
+        mvc.perform(post(ENDPOINT).with(jwt()).contentType(APPLICATION_JSON).content(objectMapper.writeValueAsString(new Query())))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void givenSearch_whenGetResult_thenPage() throws Exception {
+        Result result = new Result();
+        result.setPage(2);
+        result.setSize(10);
+        given(service.getResult(eq("abc"), any(), eq(2), eq(10))).willReturn(result);
+        given(service.getResult(eq("running"), any(), eq(0), eq(50))).willThrow(new SearchException(ASYNC_SEARCH_RUNNING));
+
+        mvc.perform(get(ENDPOINT + "/abc/result").queryParam("page", "2").queryParam("size", "10").with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page").value(2));
+        mvc.perform(get(ENDPOINT + "/running/result").with(jwt())).andExpect(status().isConflict());
+    }
+
+    @Test
+    void givenUnknownSearch_whenDelete_thenNotFound() throws Exception {
+        willThrow(new SearchException(ASYNC_SEARCH_NOT_FOUND)).given(service).deleteSearch(eq("unknown"), any());
+
+        mvc.perform(delete(ENDPOINT + "/abc").with(jwt()).with(csrf())).andExpect(status().isNoContent());
+        mvc.perform(delete(ENDPOINT + "/unknown").with(jwt()).with(csrf())).andExpect(status().isNotFound());
+        verify(service).deleteSearch(eq("abc"), any());
+    }
+
+    private static AsyncSearch asyncSearch(AsyncSearch.State state) {
+        AsyncSearch search = new AsyncSearch();
+        search.setId("abc");
+        search.setState(state);
+        return search;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.helper.AuthHelper;
+import com.efs.sdk.search.metrics.SearchMetrics;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.model.search.Result;
+import com.efs.sdk.search.security.IssuerKeys;
+import com.efs.sdk.search.security.SecurityConfig;
+import com.efs.sdk.search.security.oauth.LazyClientRegistrationRepository;
+import com.efs.sdk.search.services.ReactiveSearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+
+import static com.efs.sdk.search.ReactiveSearchController.ENDPOINT;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.DEADLINE_EXCEEDED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReactiveSearchController.class)
+@Import(SecurityConfig.class)
+@ActiveProfiles({"test", "reactive"})
+class ReactiveSearchControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+    /* required for security tests to run. Do not remove! */
+    @MockBean
+    private JwtDecoder decoder;
+
+    @MockBean
+    private AuthHelper authHelper;
+    @MockBean
+    private IssuerKeys issuerKeys;
+
+    @MockBean
+    private ReactiveSearchService service;
+
+    @MockBean
+    private SearchMetrics searchMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void givenNoAuthentication_whenGetIndexes_thenError() throws Exception {
+        mvc.perform(get(ENDPOINT + "/index")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void givenAuthentication_whenGetIndexes_thenAsyncOk() throws Exception {
+        given(service.getIndices(any(), anyString())).willReturn(Mono.just(Set.of("test-index")));
+
+        MvcResult result = mvc.perform(get(ENDPOINT + "/index").with(jwt())).andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andExpect(jsonPath("$[0]").value("test-index"));
+    }
+
+    @Test
+    void givenQuery_whenSearch_thenAsyncOk() throws Exception {
+        Result expected = new Result();
+        expected.setMax(42);
+        given(service.executeSearch(any(), any())).willReturn(Mono.just(expected));
+
+        MvcResult result = mvc.perform(post(ENDPOINT).with(jwt()).contentType(APPLICATION_JSON).content(objectMapper.writeValueAsString(new Query())))
+                .andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andExpect(jsonPath("$.max").value(42));
+    }
+
+    @Test
+    void givenFailingSearch_whenSearch_thenErrorResponse() throws Exception {
+        given(service.executeSearch(any(), any())).willReturn(Mono.error(new SearchException(DEADLINE_EXCEEDED)));
+
+        MvcResult result = mvc.perform(post(ENDPOINT).with(jwt()).contentType(APPLICATION_JSON).content(objectMapper.writeValueAsString(new Query())))
+                .andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(asyncDispatch(result)).andExpect(status().isGatewayTimeout());
+    }
+
+    @Test
+    void givenQuery_whenStreamHits_thenNdjson() throws Exception {
+        given(service.streamHits(any(), any())).willReturn(Flux.just(Map.of("uuid", "a"), Map.of("uuid", "b")));
+
+        MvcResult result = mvc.perform(post(ENDPOINT + "/hits").with(jwt()).accept(MediaType.APPLICATION_NDJSON).contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new Query()))).andExpect(request().asyncStarted()).andReturn();
+        // the hits are written by another thread, the dispatch is asserted once all were written
+        result.getAsyncResult();
+        mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        assertEquals("{\"uuid\":\"a\"}\n{\"uuid\":\"b\"}\n", result.getResponse().getContentAsString());
+    }
+
+    @TestConfiguration
+    static class ClientRegistrationConfig {
+
+        @Bean
+        LazyClientRegistrationRepository clientRegistrations() {
+            return new LazyClientRegistrationRepository("test", () -> null);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.efs.sdk.search.utils.Benchmark;
+import com.efs.sdk.search.utils.Benchmarks;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.efs.sdk.search.utils.TestHelper.RESULT_PATH;
+import static com.efs.sdk.search.utils.TestHelper.getInputContent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares payload-size and encode-/decode-cost of the response-formats offered by content-negotiation, based on the sample-results.
+ * <p>
+ * Timings are only logged (they depend on the machine), sizes and round-trips are asserted.
+ */
+@Slf4j
+class ResponseFormatBenchmarkTest {
+
+    private static final List<String> SAMPLES = List.of("aliasesNoFilter.json", "criterias.json", "resultProperties.json", "simpleResult.json",
+            "singleFilterResult.json");
+    private static final Duration BUDGET = Duration.ofMillis(100);
+
+    private final Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+
+    ResponseFormatBenchmarkTest() {
+        formats.put("json", new ObjectMapper());
+        formats.put("smile", new ObjectMapper(new SmileFactory()));
+        formats.put("cbor", new ObjectMapper(new CBORFactory()));
+    }
+
+    @Benchmark
+    void givenSampleResults_whenEncode_thenBinaryFormatsSmaller() throws Exception {
+        Map<String, Long> totalSizes = new LinkedHashMap<>();
+        for (String sample : SAMPLES) {
+            JsonNode result = formats.get("json").readTree(getInputContent(RESULT_PATH, sample));
+            for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+                ObjectMapper mapper = format.getValue();
+                byte[] encoded = mapper.writeValueAsBytes(result);
+                assertEquals(result, mapper.readTree(encoded));
+
+                long encodeNanos = Benchmarks.measure(BUDGET, i -> mapper.writeValueAsBytes(result));
+                long decodeNanos = Benchmarks.measure(BUDGET, i -> mapper.readTree(encoded));
+                log.info("{} {}: {} bytes, encode {} ns, decode {} ns", sample, format.getKey(), encoded.length, encodeNanos, decodeNanos);
+                totalSizes.merge(format.getKey(), (long) encoded.length, Long::sum);
+            }
+        }
+        log.info("total sizes: {}", totalSizes);
+        assertTrue(totalSizes.get("smile") < totalSizes.get("json"));
+        assertTrue(totalSizes.get("cbor") < totalSizes.get("json"));
+    }
+}
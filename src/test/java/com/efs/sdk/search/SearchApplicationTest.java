@@ -0,0 +1,75 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search;
+
+import com.efs.sdk.search.clients.HttpClientProperties;
+import com.efs.sdk.search.resilience.DeadlineProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ActiveProfiles("test")
+class SearchApplicationTest {
+
+    private ClientAndServer mockServer;
+    private HttpComponentsClientHttpRequestFactory requestFactory;
+
+    @BeforeEach
+    void setup() {
+        this.mockServer = ClientAndServer.startClientAndServer(0);
+    }
+
+    @AfterEach
+    void destroy() throws Exception {
+        mockServer.stop();
+        if (requestFactory != null) {
+            requestFactory.destroy();
+        }
+    }
+
+    @Test
+    void givenPooledRequestFactory_whenRequests_thenConnectionReused() {
+        mockServer.when(HttpRequest.request().withPath("/spaces")).respond(HttpResponse.response().withBody("[]").withStatusCode(200));
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setMaxConnections(5);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", registry);
+
+        this.requestFactory = new SearchApplication().restTemplateRequestFactory(properties, new DeadlineProperties(), beanFactory.getBeanProvider(MeterRegistry.class));
+        RestTemplate restTemplate = new SearchApplication().restTemplate(requestFactory);
+        String url = "http://127.0.0.1:" + mockServer.getPort() + "/spaces";
+        for (int i = 0; i < 3; i++) {
+            assertEquals("[]", restTemplate.getForObject(url, String.class));
+        }
+
+        assertEquals(5, registry.get("httpcomponents.httpclient.pool.total.max").gauge().value(), 0.001);
+        // a single kept-alive connection serves all requests
+        assertEquals(1, registry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "available").gauge().value(), 0.001);
+        assertEquals(0, registry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "leased").gauge().value(), 0.001);
+    }
+}
@@ -15,40 +15,59 @@ limitations under the License.
  */
 package com.efs.sdk.search;
 
+import com.efs.sdk.search.clients.ArrowResultWriter;
 import com.efs.sdk.search.commons.SearchException;
 import com.efs.sdk.search.helper.AuthHelper;
+import com.efs.sdk.search.metrics.SearchMetrics;
 import com.efs.sdk.search.model.search.Criteria;
 import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.model.search.Result;
 import com.efs.sdk.search.services.SearchService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.function.ThrowingSupplier;
 
+import java.io.OutputStream;
+
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.efs.sdk.search.SearchController.ENDPOINT;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.BULKHEAD_FULL;
 import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.ERROR_CREATING_QUERY;
 import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.UNABLE_EXTRACT_RETURN_VALUE;
 import static com.efs.sdk.search.model.search.DataType.DATE;
 import static com.efs.sdk.search.model.search.DataType.STRING;
 import static com.efs.sdk.search.utils.TestHelper.getAccessToken;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -68,6 +87,9 @@ class SearchControllerTest {
     @MockBean
     private SearchService service;
 
+    @MockBean
+    private SearchMetrics searchMetrics;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -156,6 +178,14 @@ class SearchControllerTest {
         assertEquals(sException.getHttpStatus().value(), response.getStatus());
     }
 
+    @Test
+    void givenSaturatedBulkhead_whenGetCriteria_thenRetryAfter() throws Exception {
+        given(authHelper.getAccessToken(any())).willReturn("something");
+        given(service.getCriteria(any(), anyString())).willThrow(new SearchException(BULKHEAD_FULL, Duration.ofMillis(1500)));
+
+        mvc.perform(get(ENDPOINT + "/criteria").with(jwt())).andExpect(status().isServiceUnavailable()).andExpect(header().string("Retry-After", "2"));
+    }
+
     @Test
     void givenException_whenGetIndexes_thenError() throws Exception {
         given(authHelper.getAccessToken(any())).willReturn("something");
@@ -205,4 +235,51 @@ class SearchControllerTest {
         mvc.perform(get(ENDPOINT + "/criteria").with(jwt())).andExpect(status().isOk()).andExpect(jsonPath("$.size()").value(2));
     }
 
+
+    @Test
+    void givenBinaryAccept_whenSearch_thenNegotiated() throws Exception {
+        Result result = new Result();
+        result.setMax(1);
+        result.setHits(List.of(Map.of("name", "measurement")));
+        given(service.executeSearch(any(), any())).willReturn(result);
+
+        Map<MediaType, ObjectMapper> formats = Map.of(
+                MediaType.parseMediaType("application/x-jackson-smile"), new ObjectMapper(new SmileFactory()),
+                MediaType.APPLICATION_CBOR, new ObjectMapper(new CBORFactory()));
+        for (Map.Entry<MediaType, ObjectMapper> format : formats.entrySet()) {
+            // the request may be sent in the binary format as well
+            MockHttpServletResponse response = mvc.perform(post(ENDPOINT).with(jwt()).contentType(format.getKey()).accept(format.getKey())
+                    .content(format.getValue().writeValueAsBytes(new Query()))).andExpect(status().isOk()).andReturn().getResponse();
+
+            assertTrue(format.getKey().isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+            Result actual = format.getValue().readValue(response.getContentAsByteArray(), Result.class);
+            assertEquals(result, actual);
+        }
+    }
+
+    @Test
+    void givenArrowAccept_whenSearch_thenExported() throws Exception {
+        given(authHelper.getAccessToken(any())).willReturn("something");
+        willAnswer(invocation -> {
+            ThrowingSupplier<OutputStream> output = invocation.getArgument(2);
+            output.get().write(new byte[]{1, 2, 3});
+            return null;
+        }).given(service).exportSearch(any(), anyString(), any());
+
+        MockHttpServletResponse response = mvc.perform(post(ENDPOINT).with(jwt()).contentType(APPLICATION_JSON).accept(ArrowResultWriter.CONTENT_TYPE)
+                .content(objectMapper.writeValueAsString(new Query()))).andExpect(status().isOk()).andReturn().getResponse();
+
+        assertEquals(ArrowResultWriter.CONTENT_TYPE, response.getContentType());
+        assertArrayEquals(new byte[]{1, 2, 3}, response.getContentAsByteArray());
+        verify(service, never()).executeSearch(any(), any());
+    }
+
+    @Test
+    void givenArrowAcceptAndException_whenSearch_thenError() throws Exception {
+        given(authHelper.getAccessToken(any())).willReturn("something");
+        willThrow(new SearchException(BULKHEAD_FULL)).given(service).exportSearch(any(), anyString(), any());
+
+        mvc.perform(post(ENDPOINT).with(jwt()).contentType(APPLICATION_JSON).accept(ArrowResultWriter.CONTENT_TYPE)
+                .content(objectMapper.writeValueAsString(new Query()))).andExpect(status().isServiceUnavailable());
+    }
 }
@@ -0,0 +1,51 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search;
+
+import com.efs.sdk.search.model.elasticsearch.ESHit;
+import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.search.Filter;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.model.search.Result;
+import com.efs.sdk.search.security.oauth.OAuthConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+class SearchRuntimeHintsTest {
+
+    @Test
+    void givenHints_whenRegistered_thenModelsBindable() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+
+        new SearchRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // records of OpenSearch-responses are created by their canonical constructor
+        assertTrue(RuntimeHintsPredicates.reflection().onConstructor(ESResponse.class.getDeclaredConstructors()[0]).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ESHit.class).test(hints));
+        // Lombok-models are bound by their accessors
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Query.class, "setIndexName").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Result.class, "getHits").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Filter.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(OAuthConfiguration.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("warm-up/queries/filterQuery.json").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("description.md").test(hints));
+    }
+}
@@ -16,9 +16,22 @@ limitations under the License.
 package com.efs.sdk.search.clients;
 
 import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.model.elasticsearch.ESAsyncSearch;
 import com.efs.sdk.search.model.elasticsearch.ESResponse;
 import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.resilience.AdaptiveConcurrencyLimiter;
+import com.efs.sdk.search.resilience.BulkheadProperties;
+import com.efs.sdk.search.resilience.CircuitBreakerProperties;
+import com.efs.sdk.search.resilience.CircuitBreakers;
+import com.efs.sdk.search.resilience.DeadlineProperties;
+import com.efs.sdk.search.resilience.Deadlines;
+import com.efs.sdk.search.resilience.Hedging;
+import com.efs.sdk.search.resilience.HedgingProperties;
+import com.efs.sdk.search.resilience.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.http.HttpHost;
 import org.apache.http.entity.StringEntity;
 import org.elasticsearch.client.Request;
 import org.junit.jupiter.api.AfterEach;
@@ -30,18 +43,29 @@ import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.integration.ClientAndServer;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.verify.VerificationTimes;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpMethod;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import static com.efs.sdk.search.clients.ElasticSearchRestClient.*;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.ASYNC_SEARCH_NOT_FOUND;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.CONCURRENCY_LIMIT_EXCEEDED;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.DEADLINE_EXCEEDED;
+import static com.efs.sdk.search.resilience.BulkheadType.SEARCH;
 import static com.efs.sdk.search.utils.TestHelper.*;
 import static java.lang.String.format;
 import static org.apache.http.entity.ContentType.APPLICATION_JSON;
@@ -50,10 +74,13 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsMapContaining.hasKey;
 import static org.hamcrest.collection.IsMapContaining.hasValue;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 
 @ActiveProfiles("test")
@@ -80,10 +107,12 @@ class ElasticSearchRestClientTest {
         ConfigurationProperties.logLevel("INFO");
         mockServer = ClientAndServer.startClientAndServer(port);
 
-        this.clientBuilder = new ElasticSearchClientBuilderTest("http://127.0.0.1:" + port);
+        this.clientBuilder = new ElasticSearchClientBuilderTest("http://127.0.0.1:" + port, new BulkheadProperties(), getNodeBalancer(),
+                new SniffProperties());
 
         this.mockMapper = Mockito.spy(new ObjectMapper());
-        this.esRestClient = new ElasticSearchRestClient(clientBuilder, mockMapper, queryBuilder);
+        this.esRestClient = new ElasticSearchRestClient(clientBuilder, mockMapper, queryBuilder, getSearchMetrics(), getSlowQueryLog(), getBulkheads(),
+                getConcurrencyLimiter(), getCircuitBreakers(), getDeadlines(), getHedging(), getSearchRouting(), new OpenSearchProperties());
     }
 
     @AfterEach
@@ -134,14 +163,14 @@ class ElasticSearchRestClientTest {
         mockServer.when(aliasRequest)
                 .respond(HttpResponse.response().withReasonPhrase("any reason").withStatusCode(400));
 
-        assertThrows(SearchException.class, () -> esRestClient.getGetResponseBody(ENDPOINT_ALIAS, "", "dummy"));
+        assertThrows(SearchException.class, () -> esRestClient.getGetResponseBody(ENDPOINT_ALIAS, "", "dummy", SEARCH));
     }
 
     @Test
     @Disabled("Misplaced or misused argument matcher detected here - what???")
     void givenNoRestClient_whenExecuteGetRequest_thenError() {
-        given(clientBuilder.buildRestClient(anyString())).willReturn(null);
-        assertThrows(SearchException.class, () -> esRestClient.executeGetRequest(ENDPOINT_ALIAS, "", "dummy"));
+        given(clientBuilder.getRestClient(any())).willReturn(null);
+        assertThrows(SearchException.class, () -> esRestClient.executeGetRequest(ENDPOINT_ALIAS, "", "dummy", SEARCH, Duration.ofSeconds(1)));
     }
 
     @Test
@@ -156,4 +185,268 @@ class ElasticSearchRestClientTest {
         assertThat(actual, not(hasKey("other key")));
     }
 
+
+    @Test
+    void givenSlowElasticsearch_whenRequests_thenExcessRejected() throws Exception {
+        long latencyMillis = 300;
+        String mappingsResult = getInputContent(ESRESULT_PATH, "mappingsResultSimple.json");
+        String searchResult = getInputContent(ESRESULT_PATH, "simpleResult.json");
+        mockServer.when(HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath("index*" + ENDPOINT_MAPPING))
+                .respond(HttpResponse.response().withBody(mappingsResult).withStatusCode(200).withDelay(TimeUnit.MILLISECONDS, latencyMillis));
+        mockServer.when(HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath("index" + ENDPOINT_SEARCH))
+                .respond(HttpResponse.response().withBody(searchResult).withStatusCode(200).withDelay(TimeUnit.MILLISECONDS, latencyMillis));
+
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(2);
+        properties.setMinLimit(2);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+        // without circuit-breaker, which would answer rejected requests with the last successful answer
+        CircuitBreakerProperties circuitBreakerProperties = new CircuitBreakerProperties();
+        circuitBreakerProperties.setEnabled(false);
+        ElasticSearchRestClient client = new ElasticSearchRestClient(clientBuilder, objectMapper, new QueryBuilder(objectMapper, ""), getSearchMetrics(),
+                getSlowQueryLog(), getBulkheads(), limiter,
+                new CircuitBreakers(circuitBreakerProperties, new SimpleMeterRegistry()), getDeadlines(), getHedging(), getSearchRouting(), new OpenSearchProperties());
+
+        // constantly slow requests do not decrease the limit
+        for (int i = 0; i < 3; i++) {
+            client.getMappings("token", "index*");
+        }
+        assertEquals(2, limiter.getLimit());
+
+        // a single metadata-request uses the metadata-share of the limit
+        CompletableFuture<Map<String, Object>> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.getMappings("token", "index*");
+            } catch (SearchException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getInflight() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        long start = System.nanoTime();
+        SearchException actual = assertThrows(SearchException.class, () -> client.getMappings("token", "index*"));
+        long rejectionMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(new SearchException(CONCURRENCY_LIMIT_EXCEEDED).getErrorCode(), actual.getErrorCode());
+        assertTrue(rejectionMillis < latencyMillis, "rejection took " + rejectionMillis + " ms");
+
+        // searches may still use the remainder of the limit
+        Query query = new Query();
+        query.setIndexName("index");
+        assertNotNull(client.executeSearch(query, "token"));
+
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    void givenQuery_whenSearch_thenTimeoutPropagated() throws Exception {
+        String queryStr = getInputContent(QUERY_PATH, "andOrFilterQuery.json");
+        Query query = objectMapper.readValue(queryStr, Query.class);
+        HttpRequest searchRequest = HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath(format("%s%s", query.getIndexName(), ENDPOINT_SEARCH));
+        mockServer.when(searchRequest).respond(HttpResponse.response().withBody(getInputContent(ESRESULT_PATH, "simpleResult.json")).withStatusCode(200));
+        given(queryBuilder.buildSearch(any())).willReturn(queryStr);
+
+        esRestClient.executeSearch(query, "dummy");
+
+        mockServer.verify(searchRequest.withQueryStringParameter("timeout", "[0-9]+ms"));
+    }
+
+    @Test
+    void givenSlowElasticsearch_whenDeadlineExpires_thenAborted() throws Exception {
+        mockServer.when(HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath("index*" + ENDPOINT_MAPPING))
+                .respond(HttpResponse.response().withBody(getInputContent(ESRESULT_PATH, "mappingsResultSimple.json")).withStatusCode(200)
+                        .withDelay(TimeUnit.SECONDS, 3));
+        DeadlineProperties properties = new DeadlineProperties();
+        properties.setMetadata(Duration.ofMillis(300));
+        ElasticSearchRestClient client = new ElasticSearchRestClient(clientBuilder, objectMapper, new QueryBuilder(objectMapper, ""), getSearchMetrics(),
+                getSlowQueryLog(), getBulkheads(), getConcurrencyLimiter(), getCircuitBreakers(), new Deadlines(properties), getHedging(), getSearchRouting(), new OpenSearchProperties());
+
+        long start = System.nanoTime();
+        SearchException actual = assertThrows(SearchException.class, () -> client.getMappings("token", "index*"));
+        assertEquals(new SearchException(DEADLINE_EXCEEDED).getErrorCode(), actual.getErrorCode());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 3000);
+    }
+
+    @Test
+    void givenSmile_whenSearch_thenSmileRequestedAndParsed() throws Exception {
+        String queryStr = getInputContent(QUERY_PATH, "andOrFilterQuery.json");
+        Query query = objectMapper.readValue(queryStr, Query.class);
+        String searchResult = getInputContent(ESRESULT_PATH, "simpleResult.json");
+        byte[] smileResult = new ObjectMapper(new SmileFactory()).writeValueAsBytes(objectMapper.readTree(searchResult));
+        HttpRequest searchRequest = HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath(format("%s%s", query.getIndexName(), ENDPOINT_SEARCH))
+                .withHeader("Accept", CONTENT_TYPE_SMILE);
+        mockServer.when(searchRequest).respond(HttpResponse.response().withBody(smileResult).withHeader("Content-Type", CONTENT_TYPE_SMILE).withStatusCode(200));
+        given(queryBuilder.buildSearch(any())).willReturn(queryStr);
+        OpenSearchProperties properties = new OpenSearchProperties();
+        properties.setSmile(true);
+        ElasticSearchRestClient client = new ElasticSearchRestClient(clientBuilder, objectMapper, queryBuilder, getSearchMetrics(), getSlowQueryLog(),
+                getBulkheads(), getConcurrencyLimiter(), getCircuitBreakers(), getDeadlines(), getHedging(), getSearchRouting(), properties);
+
+        ESResponse esResponse = client.executeSearch(query, "dummy");
+
+        JSONAssert.assertEquals(searchResult, objectMapper.writeValueAsString(esResponse), false);
+    }
+
+    @Test
+    void givenCompression_whenSearch_thenGzipRequestedAndDecompressed() throws Exception {
+        String queryStr = getInputContent(QUERY_PATH, "andOrFilterQuery.json");
+        Query query = objectMapper.readValue(queryStr, Query.class);
+        String searchResult = getInputContent(ESRESULT_PATH, "simpleResult.json");
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(searchResult.getBytes(StandardCharsets.UTF_8));
+        }
+        HttpRequest searchRequest = HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath(format("%s%s", query.getIndexName(), ENDPOINT_SEARCH))
+                .withHeader("Accept-Encoding", "gzip");
+        mockServer.when(searchRequest).respond(HttpResponse.response().withBody(gzipped.toByteArray()).withHeader("Content-Encoding", "gzip")
+                .withHeader("Content-Type", "application/json").withStatusCode(200));
+        given(queryBuilder.buildSearch(any())).willReturn(queryStr);
+
+        ESResponse esResponse = esRestClient.executeSearch(query, "dummy");
+
+        JSONAssert.assertEquals(searchResult, objectMapper.writeValueAsString(esResponse), false);
+    }
+
+    @Test
+    void givenQuery_whenSubmitAsyncSearch_thenSubmittedWithKeepAlive() throws Exception {
+        String searchResult = getInputContent(ESRESULT_PATH, "simpleResult.json");
+        HttpRequest submitRequest = HttpRequest.request().withMethod(HttpMethod.POST.name()).withPath(ENDPOINT_ASYNC_SEARCH)
+                .withQueryStringParameter("index", "index")
+                .withQueryStringParameter("keep_on_completion", "true")
+                .withQueryStringParameter("keep_alive", "3600000ms")
+                .withQueryStringParameter("wait_for_completion_timeout", "1000ms");
+        mockServer.when(submitRequest).respond(HttpResponse.response().withStatusCode(200)
+                .withBody(format("{\"id\":\"abc\",\"state\":\"SUCCEEDED\",\"expiration_time_in_millis\":1,\"response\":%s}", searchResult)));
+        given(queryBuilder.buildSearch(any())).willReturn("{}");
+        Query query = new Query();
+        query.setIndexName("index");
+
+        ESAsyncSearch actual = esRestClient.submitAsyncSearch(query, "dummy", Duration.ofSeconds(1), Duration.ofHours(1));
+
+        assertEquals("abc", actual.id());
+        assertEquals("SUCCEEDED", actual.state());
+        assertEquals(4, actual.response().hits().hits().size());
+        mockServer.verify(submitRequest, VerificationTimes.exactly(1));
+    }
+
+    @Test
+    void givenUnknownId_whenGetAsyncSearch_thenNotFound() {
+        mockServer.when(HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath(ENDPOINT_ASYNC_SEARCH + "/unknown"))
+                .respond(HttpResponse.response().withStatusCode(404).withBody("{\"error\":\"not found\"}"));
+        mockServer.when(HttpRequest.request().withMethod(HttpMethod.DELETE.name()).withPath(ENDPOINT_ASYNC_SEARCH + "/unknown"))
+                .respond(HttpResponse.response().withStatusCode(404).withBody("{\"error\":\"not found\"}"));
+
+        SearchException actual = assertThrows(SearchException.class, () -> esRestClient.getAsyncSearch("unknown", "dummy"));
+        assertEquals(new SearchException(ASYNC_SEARCH_NOT_FOUND).getErrorCode(), actual.getErrorCode());
+        actual = assertThrows(SearchException.class, () -> esRestClient.deleteAsyncSearch("unknown", "dummy"));
+        assertEquals(new SearchException(ASYNC_SEARCH_NOT_FOUND).getErrorCode(), actual.getErrorCode());
+    }
+
+    @Test
+    void givenAsyncSearch_whenGetAsyncSearchStatus_thenHitsFiltered() throws Exception {
+        HttpRequest statusRequest = HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath(ENDPOINT_ASYNC_SEARCH + "/abc")
+                .withQueryStringParameter("filter_path", ASYNC_SEARCH_STATUS_FIELDS);
+        mockServer.when(statusRequest).respond(HttpResponse.response().withStatusCode(200)
+                .withBody("{\"id\":\"abc\",\"state\":\"PERSISTED\",\"response\":{\"hits\":{\"total\":{\"value\":4,\"relation\":\"eq\"}}}}"));
+
+        ESAsyncSearch actual = esRestClient.getAsyncSearchStatus("abc", "dummy");
+
+        assertEquals("PERSISTED", actual.state());
+        assertEquals(4, actual.response().hits().total().value().longValue());
+        mockServer.verify(statusRequest, VerificationTimes.exactly(1));
+    }
+
+    @Test
+    void givenRunningSearch_whenDeleteAsyncSearch_thenDeleted() throws Exception {
+        HttpRequest deleteRequest = HttpRequest.request().withMethod(HttpMethod.DELETE.name()).withPath(ENDPOINT_ASYNC_SEARCH + "/abc");
+        mockServer.when(deleteRequest).respond(HttpResponse.response().withStatusCode(200).withBody("{\"acknowledged\":true}"));
+
+        esRestClient.deleteAsyncSearch("abc", "dummy");
+
+        mockServer.verify(deleteRequest, VerificationTimes.exactly(1));
+    }
+
+    @Test
+    void givenSlowNode_whenHedgedSearches_thenHedgedWithinBudget() throws Exception {
+        ClientAndServer slowNode = ClientAndServer.startClientAndServer(findRandomPort());
+        try {
+            // the mock-servers stand in for a healthy and a slow node
+            String searchResult = getInputContent(ESRESULT_PATH, "simpleResult.json");
+            mockServer.when(HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath("index" + ENDPOINT_SEARCH))
+                    .respond(HttpResponse.response().withBody(searchResult).withStatusCode(200).withDelay(TimeUnit.MILLISECONDS, 10));
+            slowNode.when(HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath("index" + ENDPOINT_SEARCH))
+                    .respond(HttpResponse.response().withBody(searchResult).withStatusCode(200).withDelay(TimeUnit.MILLISECONDS, 300));
+            NodeBalancer nodeBalancer = getNodeBalancer();
+            ElasticSearchClientBuilder builder = new ElasticSearchClientBuilderTest(
+                    "http://127.0.0.1:" + mockServer.getPort() + ",http://127.0.0.1:" + slowNode.getPort(), new BulkheadProperties(), nodeBalancer,
+                    new SniffProperties());
+
+            // the default budget of 5% saves up two hedges in 40 searches, the timings are measured by the HedgingBenchmarkTest
+            HedgingProperties properties = new HedgingProperties();
+            properties.setEnabled(true);
+            properties.setInitialDelay(Duration.ofMillis(50));
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            Hedging hedging = spy(new Hedging(properties, registry));
+            measureSearches(builder, hedging, 40);
+            builder.close();
+
+            double sent = registry.counter("search.hedge", "result", "sent").count();
+            double won = registry.counter("search.hedge", "result", "won").count();
+            assertTrue(sent >= 1 && sent <= 40 * properties.getBudget(), "hedges sent: " + sent);
+            assertTrue(won > 0);
+            assertTrue(registry.counter("search.hedge", "result", "budget_exhausted").count() > 0);
+            // every search records its answer, a search won by the hedge also the cancelled primary
+            verify(hedging, timeout(5000).times(40 + (int) won)).record(anyLong());
+
+            // the loser has been cancelled and released its node
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (nodeBalancer.getOutstanding(HttpHost.create("http://127.0.0.1:" + slowNode.getPort())) > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(0, nodeBalancer.getOutstanding(HttpHost.create("http://127.0.0.1:" + slowNode.getPort())));
+            assertEquals(0, nodeBalancer.getOutstanding(HttpHost.create("http://127.0.0.1:" + mockServer.getPort())));
+        } finally {
+            slowNode.stop();
+        }
+    }
+
+    @Test
+    void givenExhaustedBudget_whenHedgedSearch_thenPrimaryAwaited() throws Exception {
+        String searchResult = getInputContent(ESRESULT_PATH, "simpleResult.json");
+        HttpRequest searchRequest = HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath("index" + ENDPOINT_SEARCH);
+        mockServer.when(searchRequest).respond(HttpResponse.response().withBody(searchResult).withStatusCode(200).withDelay(TimeUnit.MILLISECONDS, 100));
+        HedgingProperties properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setInitialDelay(Duration.ofMillis(20));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        measureSearches(clientBuilder, new Hedging(properties, registry), 3);
+
+        mockServer.verify(searchRequest, VerificationTimes.exactly(3));
+        assertEquals(0, registry.counter("search.hedge", "result", "sent").count());
+        assertEquals(3, registry.counter("search.hedge", "result", "budget_exhausted").count());
+    }
+
+    /**
+     * Executes the given number of searches one after another.
+     *
+     * @return the sorted latencies in milliseconds
+     */
+    private long[] measureSearches(ElasticSearchClientBuilder builder, Hedging hedging, int count) throws SearchException {
+        ElasticSearchRestClient client = new ElasticSearchRestClient(builder, objectMapper, new QueryBuilder(objectMapper, ""), getSearchMetrics(),
+                getSlowQueryLog(), getBulkheads(), getConcurrencyLimiter(), getCircuitBreakers(), getDeadlines(), hedging, getSearchRouting(), new OpenSearchProperties());
+        Query query = new Query();
+        query.setIndexName("index");
+        long[] latencies = new long[count];
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            assertNotNull(client.executeSearch(query, "token"));
+            latencies[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
 }
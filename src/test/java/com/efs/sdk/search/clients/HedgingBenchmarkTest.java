@@ -0,0 +1,117 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.resilience.BulkheadProperties;
+import com.efs.sdk.search.resilience.Hedging;
+import com.efs.sdk.search.resilience.HedgingProperties;
+import com.efs.sdk.search.utils.Benchmark;
+import com.efs.sdk.search.utils.Benchmarks;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.efs.sdk.search.clients.ElasticSearchRestClient.ENDPOINT_SEARCH;
+import static com.efs.sdk.search.utils.TestHelper.*;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the tail-latency of searches with and without hedging at the default budget (5% additional requests).
+ * <p>
+ * Two nodes answer after 10 ms, every 25th answer takes 300 ms (a tail of 4%, within the budget) - the tail shows at the 99th percentile, which hedging
+ * cuts to the hedging-delay plus the latency of the other node.
+ */
+@Slf4j
+class HedgingBenchmarkTest {
+
+    private static final int SEARCHES = 400;
+    private static final int SLOW_EVERY = 25;
+
+    private final List<ClientAndServer> nodes = new ArrayList<>();
+    private ElasticSearchClientBuilder clientBuilder;
+
+    @BeforeEach
+    void setup() throws Exception {
+        ConfigurationProperties.logLevel("WARN");
+        String searchResult = getInputContent(ESRESULT_PATH, "simpleResult.json");
+        AtomicInteger answers = new AtomicInteger();
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ClientAndServer node = ClientAndServer.startClientAndServer(0);
+            node.when(HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath("index" + ENDPOINT_SEARCH))
+                    .respond(request -> HttpResponse.response().withBody(searchResult).withStatusCode(200)
+                            .withDelay(TimeUnit.MILLISECONDS, answers.incrementAndGet() % SLOW_EVERY == 0 ? 300 : 10));
+            nodes.add(node);
+            urls.add("http://127.0.0.1:" + node.getPort());
+        }
+        this.clientBuilder = new ElasticSearchClientBuilderTest(String.join(",", urls), new BulkheadProperties(), getNodeBalancer(), new SniffProperties());
+    }
+
+    @AfterEach
+    void destroy() {
+        clientBuilder.close();
+        nodes.forEach(ClientAndServer::stop);
+    }
+
+    @Benchmark
+    void givenSlowTail_whenHedgedSearches_thenTailLatencyReduced() throws Exception {
+        HedgingProperties properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setInitialDelay(Duration.ofMillis(50));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        long[] hedged = measureSearches(new Hedging(properties, registry));
+        long[] unhedged = measureSearches(getHedging());
+
+        log.info("p95 of searches: {} ms unhedged, {} ms hedged", millis(unhedged, 0.95), millis(hedged, 0.95));
+        log.info("p99 of searches: {} ms unhedged, {} ms hedged ({} hedges of {} searches, budget {})", millis(unhedged, 0.99),
+                millis(hedged, 0.99), registry.counter("search.hedge", "result", "sent").count(), SEARCHES, properties.getBudget());
+        assertTrue(millis(unhedged, 0.99) >= 300);
+        assertTrue(millis(hedged, 0.99) < 200);
+    }
+
+    /**
+     * Executes the searches one after another.
+     *
+     * @return the sorted latencies in nanoseconds
+     */
+    private long[] measureSearches(Hedging hedging) throws Exception {
+        ElasticSearchRestClient client = new ElasticSearchRestClient(clientBuilder, new ObjectMapper(), new QueryBuilder(new ObjectMapper(), ""),
+                getSearchMetrics(), getSlowQueryLog(), getBulkheads(), getConcurrencyLimiter(), getCircuitBreakers(), getDeadlines(), hedging,
+                getSearchRouting(), new OpenSearchProperties());
+        Query query = new Query();
+        query.setIndexName("index");
+        return Benchmarks.sample(SEARCHES, i -> assertNotNull(client.executeSearch(query, "token")));
+    }
+
+    private static long millis(long[] sorted, double percentile) {
+        return TimeUnit.NANOSECONDS.toMillis(Benchmarks.percentile(sorted, percentile));
+    }
+}
@@ -0,0 +1,234 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import com.efs.sdk.search.resilience.BulkheadProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.Node;
+import org.elasticsearch.client.NodeSelector;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.efs.sdk.search.clients.NodeBalancer.*;
+import static com.efs.sdk.search.resilience.BulkheadType.SEARCH;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@ActiveProfiles("test")
+class NodeBalancerTest {
+
+    private static final long[] LATENCIES_MILLIS = {5, 50, 250};
+
+    private final List<ClientAndServer> nodes = new ArrayList<>();
+    private MeterRegistry registry;
+    private NodeBalancer balancer;
+
+    @BeforeEach
+    void setup() {
+        ConfigurationProperties.logLevel("WARN");
+        this.registry = new SimpleMeterRegistry();
+        this.balancer = new NodeBalancer(registry);
+    }
+
+    @AfterEach
+    void destroy() {
+        nodes.forEach(ClientAndServer::stop);
+    }
+
+    @Test
+    void givenNodesWithDifferentLatencies_whenConcurrentRequests_thenFastestNodePreferred() throws Exception {
+        List<String> urls = new ArrayList<>();
+        for (long latency : LATENCIES_MILLIS) {
+            ClientAndServer node = ClientAndServer.startClientAndServer(findRandomPort());
+            node.when(HttpRequest.request().withPath("/index/_search")).respond(HttpResponse.response().withBody("{}").withDelay(TimeUnit.MILLISECONDS, latency));
+            nodes.add(node);
+            urls.add("http://127.0.0.1:" + node.getPort());
+        }
+        ElasticSearchClientBuilder clientBuilder = new ElasticSearchClientBuilderTest(String.join(",", urls), new BulkheadProperties(), balancer,
+                new SniffProperties());
+        RestClient restClient = clientBuilder.getRestClient(SEARCH);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 20; j++) {
+                        perform(restClient);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            clientBuilder.close();
+        }
+
+        long fast = requests(nodes.get(0));
+        long medium = requests(nodes.get(1));
+        long slow = requests(nodes.get(2));
+        assertEquals(160, fast + medium + slow);
+        assertThat(fast, greaterThan(medium));
+        assertThat(medium, greaterThan(slow));
+        for (ClientAndServer node : nodes) {
+            HttpHost host = HttpHost.create("http://127.0.0.1:" + node.getPort());
+            assertEquals(0, balancer.getOutstanding(host));
+            assertNotNull(registry.find(METRIC_NODE).tag(TAG_NODE, host.toHostString()).timer());
+        }
+    }
+
+    @Test
+    void givenDeadNode_whenRequests_thenFailedOverWithoutFailures() throws Exception {
+        ClientAndServer node = ClientAndServer.startClientAndServer(findRandomPort());
+        node.when(HttpRequest.request().withPath("/index/_search")).respond(HttpResponse.response().withBody("{}"));
+        nodes.add(node);
+        int deadPort = findRandomPort();
+        ElasticSearchClientBuilder clientBuilder = new ElasticSearchClientBuilderTest("http://127.0.0.1:" + node.getPort() + ",http://127.0.0.1:" + deadPort,
+                new BulkheadProperties(), balancer, new SniffProperties());
+        RestClient restClient = clientBuilder.getRestClient(SEARCH);
+
+        int failures = 0;
+        try {
+            for (int i = 0; i < 20; i++) {
+                try {
+                    perform(restClient);
+                } catch (IOException e) {
+                    failures++;
+                }
+            }
+        } finally {
+            clientBuilder.close();
+        }
+
+        // the client fails over to the living node, the dead node is excluded after its first failure
+        assertEquals(0, failures);
+        assertEquals(20, requests(node));
+        // the lease is internal to the service
+        assertEquals(0, node.retrieveRecordedRequests(HttpRequest.request().withHeader(HEADER_LEASE, ".*")).length);
+        assertThat((int) registry.counter(METRIC_FAILURES, TAG_NODE, "127.0.0.1:" + deadPort).count(), lessThanOrEqualTo(1));
+        assertEquals(0, balancer.getOutstanding(HttpHost.create("http://127.0.0.1:" + deadPort)));
+        assertEquals(0, balancer.getOutstanding(HttpHost.create("http://127.0.0.1:" + node.getPort())));
+    }
+
+    @Test
+    void givenDedicatedMaster_whenSelect_thenDataNodeFirst() {
+        Node master = new Node(HttpHost.create("http://master:9200"), null, null, null, new Node.Roles(Set.of("master")), null);
+        Node data = new Node(HttpHost.create("http://data:9200"), null, null, null, new Node.Roles(Set.of("master", "data")), null);
+        List<Node> candidates = new ArrayList<>(List.of(master, data));
+
+        balancer.select(candidates);
+
+        assertEquals(List.of(data, master), candidates);
+    }
+
+    @Test
+    void givenOutstandingRequest_whenSelect_thenOtherNodeFirst() {
+        Node first = new Node(HttpHost.create("http://first:9200"));
+        Node second = new Node(HttpHost.create("http://second:9200"));
+
+        // the request of another thread is still in flight
+        NodeBalancer.Lease lease = balancer.lease(new Request("GET", "/index/_search"));
+        lease.serve(first.getHost());
+
+        List<Node> candidates = new ArrayList<>(List.of(first, second));
+        balancer.select(candidates);
+        assertEquals(List.of(second, first), candidates);
+
+        lease.release(0, "success");
+        assertEquals(0, balancer.getOutstanding(first.getHost()));
+    }
+
+    @Test
+    void givenAvoidedNode_whenSelect_thenOrderedLast() {
+        Node first = new Node(HttpHost.create("http://first:9200"));
+        Node second = new Node(HttpHost.create("http://second:9200"));
+        List<Node> candidates = new ArrayList<>(List.of(first, second));
+
+        balancer.avoid(first.getHost());
+        balancer.select(candidates);
+
+        assertEquals(List.of(second, first), candidates);
+    }
+
+    @Test
+    void givenClientRotation_whenSelect_thenLeastLoadedNodeFirst() {
+        Node first = new Node(HttpHost.create("http://first:9200"));
+        Node second = new Node(HttpHost.create("http://second:9200"));
+        Node third = new Node(HttpHost.create("http://third:9200"));
+        balancer.lease(new Request("GET", "/index/_search")).serve(first.getHost());
+        balancer.lease(new Request("GET", "/index/_search")).serve(second.getHost());
+        balancer.lease(new Request("GET", "/index/_search")).serve(second.getHost());
+        NodeSelector selector = balancer.newSelector();
+
+        // the client rotates the selected nodes by the number of its requests
+        for (int i = 0; i < 5; i++) {
+            List<Node> candidates = new ArrayList<>(List.of(first, second, third));
+            selector.select(candidates);
+            Collections.rotate(candidates, i);
+            assertEquals(List.of(third, first, second), candidates);
+        }
+    }
+
+    private void perform(RestClient restClient) throws IOException {
+        Request request = new Request("GET", "/index/_search");
+        NodeBalancer.Lease lease = balancer.lease(request);
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            restClient.performRequest(request);
+            outcome = "success";
+        } finally {
+            lease.release(System.nanoTime() - start, outcome);
+        }
+    }
+
+    private static long requests(ClientAndServer node) {
+        return node.retrieveRecordedRequests(HttpRequest.request().withPath("/index/_search")).length;
+    }
+
+    private static int findRandomPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -1,23 +1,37 @@
 package com.efs.sdk.search.clients;
 
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.metrics.ServerTiming;
+import com.efs.sdk.search.resilience.CircuitBreakerProperties;
+import com.efs.sdk.search.resilience.CircuitBreakers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.time.Duration;
 import java.util.List;
 
+import static com.efs.sdk.search.utils.TestHelper.bindServerTiming;
+import static com.efs.sdk.search.utils.TestHelper.getCircuitBreakers;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class OrganizationManagerClientTest {
 
@@ -29,16 +43,21 @@ class OrganizationManagerClientTest {
     @MockBean
     private JwtAuthenticationToken token;
 
+    @AfterEach
+    void destroy() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
     @BeforeEach
     void setup() {
         this.restTemplate = Mockito.mock(RestTemplate.class);
         this.token = Mockito.mock(JwtAuthenticationToken.class);
         this.jwt = Mockito.mock(Jwt.class);
-        this.client = new OrganizationManagerClient(restTemplate, "http://idontcare.de/spaceEndpoint");
+        this.client = new OrganizationManagerClient(restTemplate, "http://idontcare.de/spaceEndpoint", getCircuitBreakers(), Duration.ZERO, false);
     }
 
     @Test
-    void givenGetSpacesOk_whenGetSpaces_thenOk() {
+    void givenGetSpacesOk_whenGetSpaces_thenOk() throws Exception {
         given(token.getToken()).willReturn(jwt);
         given(jwt.getTokenValue()).willReturn("any value");
 
@@ -49,4 +68,73 @@ class OrganizationManagerClientTest {
 
         assertEquals(1, client.getAllSpaces(token.getToken().getTokenValue()).size());
     }
+
+    @Test
+    void givenUnavailableOrganizationManager_whenGetSpaces_thenLastAnswer() throws Exception {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setFailureThreshold(1);
+        properties.setOpenDuration(Duration.ofMinutes(1));
+        this.client = new OrganizationManagerClient(restTemplate, "http://idontcare.de/spaceEndpoint", new CircuitBreakers(properties, new SimpleMeterRegistry()),
+                Duration.ZERO, false);
+
+        given(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(new ParameterizedTypeReference<List<String>>() {
+        }))).willReturn(ResponseEntity.ok(List.of("orga_space"))).willThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+
+        assertEquals(List.of("orga_space"), client.getAllSpaces("token"));
+        assertEquals(List.of("orga_space"), client.getAllSpaces("token"));
+        // circuit is open, but there is no previous answer for another user
+        assertThrows(SearchException.class, () -> client.getAllSpaces("another token"));
+    }
+
+    @Test
+    void givenSpacesCache_whenGetSpacesTwice_thenRequestedOnce() throws Exception {
+        this.client = new OrganizationManagerClient(restTemplate, "http://idontcare.de/spaceEndpoint", getCircuitBreakers(), Duration.ofMinutes(1), false);
+        given(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(new ParameterizedTypeReference<List<String>>() {
+        }))).willReturn(ResponseEntity.ok(List.of("orga_space")));
+
+        ServerTiming serverTiming = bindServerTiming();
+
+        assertEquals(List.of("orga_space"), client.getAllSpaces("token"));
+        assertEquals("spaces;desc=\"miss\"", serverTiming.toHeaderValue());
+        assertEquals(List.of("orga_space"), client.getAllSpaces("token"));
+        assertEquals("spaces;desc=\"hit\"", serverTiming.toHeaderValue());
+        assertEquals(List.of("orga_space"), client.getAllSpaces("another token"));
+
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.GET), any(), eq(new ParameterizedTypeReference<List<String>>() {
+        }));
+    }
+
+    @Test
+    void givenSpacesCacheAndUnavailableOrganizationManager_whenGetSpaces_thenLastAnswerNotCached() throws Exception {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setFailureThreshold(2);
+        this.client = new OrganizationManagerClient(restTemplate, "http://idontcare.de/spaceEndpoint", new CircuitBreakers(properties, new SimpleMeterRegistry()),
+                Duration.ofMillis(1), false);
+        given(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(new ParameterizedTypeReference<List<String>>() {
+        }))).willReturn(ResponseEntity.ok(List.of("orga_space")))
+                .willThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY))
+                .willReturn(ResponseEntity.ok(List.of("other_space")));
+
+        assertEquals(List.of("orga_space"), client.getAllSpaces("token"));
+        Thread.sleep(5);
+        // served by the fallback, but not cached
+        assertEquals(List.of("orga_space"), client.getAllSpaces("token"));
+        assertEquals(List.of("other_space"), client.getAllSpaces("token"));
+    }
+
+    @Test
+    void givenNoSpacesCacheTtl_whenGetSpacesTwice_thenCachedWithIndexAuthorizationOnly() throws Exception {
+        given(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(new ParameterizedTypeReference<List<String>>() {
+        }))).willReturn(ResponseEntity.ok(List.of("orga_space")));
+
+        OrganizationManagerClient uncached = new OrganizationManagerClient(restTemplate, "http://idontcare.de/spaceEndpoint", getCircuitBreakers(), null, false);
+        uncached.getAllSpaces("token");
+        uncached.getAllSpaces("token");
+        OrganizationManagerClient cached = new OrganizationManagerClient(restTemplate, "http://idontcare.de/spaceEndpoint", getCircuitBreakers(), null, true);
+        cached.getAllSpaces("token");
+        cached.getAllSpaces("token");
+
+        verify(restTemplate, times(3)).exchange(anyString(), eq(HttpMethod.GET), any(), eq(new ParameterizedTypeReference<List<String>>() {
+        }));
+    }
 }
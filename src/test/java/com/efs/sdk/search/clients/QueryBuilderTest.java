@@ -30,6 +30,7 @@ import static com.efs.sdk.search.model.search.DataType.DATE;
 import static com.efs.sdk.search.model.search.Operator.*;
 import static com.efs.sdk.search.utils.TestHelper.*;
 import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ActiveProfiles("test")
@@ -40,7 +41,7 @@ class QueryBuilderTest {
 
     @BeforeEach
     void setup() {
-        this.queryBuilder = new QueryBuilder(objectMapper);
+        this.queryBuilder = new QueryBuilder(objectMapper, "");
     }
 
     @Test
@@ -368,4 +369,30 @@ class QueryBuilderTest {
         String expected = getInputContent(ESQUERY_PATH, "andOrFilterQuery.json");
         JSONAssert.assertEquals(expected, actual, false);
     }
+
+    @Test
+    void givenDateRounding_whenBuildSearch_thenNowRelativeValuesRounded() throws Exception {
+        Filter since = new Filter();
+        since.setProperty("created");
+        since.setValue("now-7d");
+        since.setOperator(GTE);
+        since.setDataType(DATE);
+        Filter until = new Filter();
+        until.setProperty("modified");
+        until.setValue("2023-01-01");
+        until.setOperator(LT);
+        until.setDataType(DATE);
+
+        Query query = new Query();
+        query.setFilter(List.of(since, until));
+
+        String actual = new QueryBuilder(objectMapper, "h").buildSearch(query);
+        String queryString = objectMapper.readTree(actual).at("/query/query_string/query").asText();
+        assertEquals("created:[ now-7d/h TO * ] AND modified:{ * TO 2023-01-01 }", queryString);
+    }
+
+    @Test
+    void givenInvalidDateRounding_whenCreate_thenError() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryBuilder(objectMapper, "7d"));
+    }
 }
@@ -0,0 +1,179 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.model.elasticsearch.ESHit;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.resilience.Deadline;
+import com.efs.sdk.search.resilience.BulkheadProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.verify.VerificationTimes;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.efs.sdk.search.clients.ElasticSearchRestClient.ENDPOINT_MAPPING;
+import static com.efs.sdk.search.clients.ElasticSearchRestClient.ENDPOINT_SEARCH;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.DEADLINE_EXCEEDED;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.EXTRACTION_ERROR;
+import static com.efs.sdk.search.utils.TestHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ActiveProfiles("test")
+class ReactiveElasticSearchClientTest {
+
+    // number of hits of 'simpleResult.json'
+    private static final int PAGE_SIZE = 4;
+
+    private ClientAndServer mockServer;
+    private QueryBuilder queryBuilder;
+    private ReactiveElasticSearchClient client;
+
+    @BeforeEach
+    void setup() throws Exception {
+        this.queryBuilder = Mockito.mock(QueryBuilder.class);
+        given(queryBuilder.buildSearch(any())).willReturn("{}");
+
+        int port = findRandomPort();
+        ConfigurationProperties.logLevel("INFO");
+        mockServer = ClientAndServer.startClientAndServer(port);
+
+        ElasticSearchClientBuilder clientBuilder = new ElasticSearchClientBuilderTest("http://127.0.0.1:" + port, new BulkheadProperties(), getNodeBalancer(),
+                new SniffProperties());
+        ObjectMapper objectMapper = new ObjectMapper();
+        ElasticSearchRestClient restClient = new ElasticSearchRestClient(clientBuilder, objectMapper, queryBuilder, getSearchMetrics(), getSlowQueryLog(),
+                getBulkheads(), getConcurrencyLimiter(), getCircuitBreakers(), getDeadlines(), getHedging(), getSearchRouting(), new OpenSearchProperties());
+        this.client = new ReactiveElasticSearchClient(clientBuilder, restClient, queryBuilder, objectMapper, getDeadlines(), getSearchRouting(), true, 10,
+                DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void destroy() {
+        mockServer.stop();
+    }
+
+    private int findRandomPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    void givenQuery_whenExecuteSearch_thenResponse() throws Exception {
+        HttpRequest searchRequest = HttpRequest.request().withMethod(HttpMethod.POST.name()).withPath("/index" + ENDPOINT_SEARCH);
+        mockServer.when(searchRequest).respond(HttpResponse.response().withBody(getInputContent(ESRESULT_PATH, "simpleResult.json")).withStatusCode(200));
+
+        StepVerifier.create(client.executeSearch(getQuery(PAGE_SIZE), "token", Deadline.after(Duration.ofSeconds(10)))
+                        .map(response -> Map.entry(response, Thread.currentThread().getName())))
+                .assertNext(response -> {
+                    assertEquals(PAGE_SIZE, response.getKey().hits().hits().size());
+                    // parsed off the event-loop
+                    assertThat(response.getValue(), startsWith("boundedElastic"));
+                })
+                .verifyComplete();
+
+        mockServer.verify(searchRequest.withQueryStringParameter("timeout", "[0-9]+ms").withHeader("Authorization", "Bearer token"));
+    }
+
+    @Test
+    void givenError_whenExecuteSearch_thenSearchException() {
+        mockServer.when(HttpRequest.request().withPath("/index" + ENDPOINT_SEARCH)).respond(HttpResponse.response().withStatusCode(500));
+
+        StepVerifier.create(client.executeSearch(getQuery(PAGE_SIZE), "token", Deadline.after(Duration.ofSeconds(10))))
+                .expectErrorMatches(e -> e instanceof SearchException se && se.getErrorCode() == new SearchException(EXTRACTION_ERROR).getErrorCode())
+                .verify();
+    }
+
+    @Test
+    void givenSlowOpenSearch_whenExecuteSearch_thenDeadlineExceeded() throws Exception {
+        mockServer.when(HttpRequest.request().withPath("/index" + ENDPOINT_SEARCH))
+                .respond(HttpResponse.response().withBody(getInputContent(ESRESULT_PATH, "simpleResult.json")).withDelay(TimeUnit.SECONDS, 5));
+
+        StepVerifier.create(client.executeSearch(getQuery(PAGE_SIZE), "token", Deadline.after(Duration.ofMillis(200))))
+                .expectErrorMatches(e -> e instanceof SearchException se && se.getErrorCode() == new SearchException(DEADLINE_EXCEEDED).getErrorCode())
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void givenSlowConsumer_whenStreamHits_thenPagesRequestedOnDemand() throws Exception {
+        HttpRequest searchRequest = HttpRequest.request().withMethod(HttpMethod.POST.name()).withPath("/index" + ENDPOINT_SEARCH);
+        mockServer.when(searchRequest).respond(HttpResponse.response().withBody(getInputContent(ESRESULT_PATH, "simpleResult.json")).withStatusCode(200));
+
+        // the second page is not requested before the first one is drained
+        StepVerifier.create(client.streamHits(getQuery(PAGE_SIZE), "token"), 0)
+                .thenRequest(PAGE_SIZE - 1)
+                .expectNextCount(PAGE_SIZE - 1)
+                .then(() -> mockServer.verify(searchRequest, VerificationTimes.exactly(1)))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        mockServer.clear(HttpRequest.request());
+        mockServer.when(searchRequest).respond(HttpResponse.response().withBody(getInputContent(ESRESULT_PATH, "simpleResult.json")).withStatusCode(200));
+        StepVerifier.create(client.streamHits(getQuery(PAGE_SIZE), "token").take(PAGE_SIZE + 1))
+                .expectNextCount(PAGE_SIZE + 1)
+                .verifyComplete();
+        mockServer.verify(searchRequest, VerificationTimes.exactly(2));
+    }
+
+    @Test
+    void givenIncompletePage_whenStreamHits_thenLastPage() throws Exception {
+        HttpRequest searchRequest = HttpRequest.request().withMethod(HttpMethod.POST.name()).withPath("/index" + ENDPOINT_SEARCH);
+        mockServer.when(searchRequest).respond(HttpResponse.response().withBody(getInputContent(ESRESULT_PATH, "simpleResult.json")).withStatusCode(200));
+
+        StepVerifier.create(client.streamHits(getQuery(PAGE_SIZE + 1), "token").map(ESHit::id))
+                .expectNextCount(PAGE_SIZE)
+                .verifyComplete();
+        mockServer.verify(searchRequest, VerificationTimes.exactly(1));
+    }
+
+    @Test
+    void givenIndices_whenGetMappings_thenMappings() throws Exception {
+        mockServer.when(HttpRequest.request().withMethod(HttpMethod.GET.name()).withPath("/index1*,index2*" + ENDPOINT_MAPPING))
+                .respond(HttpResponse.response().withBody(getInputContent(ESRESULT_PATH, "mappingsResultSimple.json")).withStatusCode(200));
+
+        StepVerifier.create(client.getMappings("token", "index1*,index2*", Deadline.after(Duration.ofSeconds(10))))
+                .assertNext(mappings -> assertTrue(mappings.containsKey("sdkdemonstrations_demospace_measurements")))
+                .verifyComplete();
+    }
+
+    private static Query getQuery(int size) {
+        Query query = new Query();
+        query.setIndexName("index");
+        query.setSize(size);
+        return query;
+    }
+}
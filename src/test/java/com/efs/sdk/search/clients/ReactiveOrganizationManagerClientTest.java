@@ -0,0 +1,72 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.resilience.Deadline;
+import com.efs.sdk.search.resilience.DeadlineProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.DEADLINE_EXCEEDED;
+
+@ActiveProfiles("test")
+class ReactiveOrganizationManagerClientTest {
+
+    private ClientAndServer mockServer;
+    private ReactiveOrganizationManagerClient client;
+
+    @BeforeEach
+    void setup() {
+        this.mockServer = ClientAndServer.startClientAndServer(0);
+        this.client = new ReactiveOrganizationManagerClient(WebClient.builder(), new DeadlineProperties(),
+                "http://127.0.0.1:" + mockServer.getPort() + "/spaces");
+    }
+
+    @AfterEach
+    void destroy() {
+        mockServer.stop();
+    }
+
+    @Test
+    void givenSpaces_whenGetAllSpaces_thenSpaces() {
+        mockServer.when(HttpRequest.request().withPath("/spaces").withQueryStringParameter("permissions", "READ"))
+                .respond(HttpResponse.response().withHeader("Content-Type", "application/json").withBody("[\"org_space\"]"));
+
+        StepVerifier.create(client.getAllSpaces("token", Deadline.after(Duration.ofSeconds(10)))).expectNext(List.of("org_space")).verifyComplete();
+    }
+
+    @Test
+    void givenHangingOrganizationManager_whenGetAllSpaces_thenDeadlineExceeded() {
+        mockServer.when(HttpRequest.request().withPath("/spaces"))
+                .respond(HttpResponse.response().withHeader("Content-Type", "application/json").withBody("[]").withDelay(TimeUnit.SECONDS, 2));
+
+        StepVerifier.create(client.getAllSpaces("token", Deadline.after(Duration.ofMillis(200))))
+                .expectErrorMatches(e -> e instanceof SearchException se && se.getErrorCode() == new SearchException(DEADLINE_EXCEEDED).getErrorCode())
+                .verify(Duration.ofSeconds(5));
+    }
+}
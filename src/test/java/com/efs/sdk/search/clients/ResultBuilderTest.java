@@ -17,13 +17,18 @@ package com.efs.sdk.search.clients;
 
 import com.efs.sdk.search.model.elasticsearch.ESHit;
 import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.elasticsearch.RawSource;
+import com.efs.sdk.search.model.search.Columns;
 import com.efs.sdk.search.model.search.Result;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +37,10 @@ import static com.efs.sdk.search.utils.TestHelper.getInputContent;
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ActiveProfiles("test")
 class ResultBuilderTest {
@@ -53,6 +62,7 @@ class ResultBuilderTest {
         Result actual = resultBuilder.buildResult(response);
 
         assertThat(actual.getMax(), is(4L));
+        assertFalse(actual.isTimedOut());
         List<Map<String, Object>> hits = actual.getHits();
         String hitsStr = objectMapper.writeValueAsString(hits);
         List<Map<String, Object>> sources = response.hits().hits().stream().map(ESHit::source).collect(toList());
@@ -77,4 +87,91 @@ class ResultBuilderTest {
 
         JSONAssert.assertEquals(responseStr, hitsStr, false);
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenTimedOutResult_whenBuildResult_thenFlaggedAsPartial() throws Exception {
+        String resultStr = getInputContent(ESRESULT_PATH, "simpleResult.json").replaceFirst("\"timed_out\"\\s*:\\s*false", "\"timed_out\": true");
+        ESResponse response = objectMapper.readValue(resultStr, ESResponse.class);
+
+        Result actual = resultBuilder.buildResult(response);
+
+        assertTrue(actual.isTimedOut());
+        assertThat(actual.getMax(), is(4L));
+    }
+
+    @Test
+    void givenRawInput_whenBuildResult_thenSourcesPassedThrough() throws Exception {
+        byte[] resultBytes = getInputContent(ESRESULT_PATH, "simpleResult.json").getBytes(StandardCharsets.UTF_8);
+        ESResponse rawResponse = objectMapper.readerFor(ESResponse.class).withAttribute(RawSource.ATTR_RAW_INPUT, resultBytes).readValue(resultBytes);
+        ESResponse response = objectMapper.readValue(resultBytes, ESResponse.class);
+
+        Result actual = resultBuilder.buildResult(rawResponse);
+        Result expected = resultBuilder.buildResult(response);
+
+        assertTrue(actual.getHits().stream().allMatch(RawSource.class::isInstance));
+        assertFalse(expected.getHits().stream().anyMatch(RawSource.class::isInstance));
+        JSONAssert.assertEquals(objectMapper.writeValueAsString(expected), objectMapper.writeValueAsString(actual), true);
+        // entries are parsed on access
+        assertEquals(expected.getHits(), actual.getHits());
+    }
+
+    @Test
+    void givenRawInput_whenBuildResultAsSmile_thenTokensCopied() throws Exception {
+        byte[] resultBytes = getInputContent(ESRESULT_PATH, "simpleResult.json").getBytes(StandardCharsets.UTF_8);
+        ESResponse rawResponse = objectMapper.readerFor(ESResponse.class).withAttribute(RawSource.ATTR_RAW_INPUT, resultBytes).readValue(resultBytes);
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+        Result actual = resultBuilder.buildResult(rawResponse);
+
+        byte[] smile = smileMapper.writeValueAsBytes(actual);
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(actual)), smileMapper.readTree(smile));
+    }
+
+    @Test
+    void givenResultProperties_whenBuildColumnarResult_thenOneArrayPerProperty() throws Exception {
+        byte[] resultBytes = getInputContent(ESRESULT_PATH, "simpleResult.json").getBytes(StandardCharsets.UTF_8);
+        ESResponse rawResponse = objectMapper.readerFor(ESResponse.class).withAttribute(RawSource.ATTR_RAW_INPUT, resultBytes).readValue(resultBytes);
+        ESResponse response = objectMapper.readValue(resultBytes, ESResponse.class);
+        List<String> properties = List.of("metadata.customer.customerInfo", "metadata.project.projectInfo", "metadata.project");
+
+        Result actual = resultBuilder.buildColumnarResult(rawResponse, properties, false);
+        Result expected = resultBuilder.buildColumnarResult(response, properties, false);
+
+        assertThat(actual.getMax(), is(4L));
+        assertNull(actual.getHits());
+        Columns columns = actual.getColumns();
+        assertEquals(properties, columns.getProperties());
+        assertEquals(Arrays.asList("demo", "demo", "other demo", "demo"), columns.getValues().get(0));
+        assertEquals(Arrays.asList(null, null, null, null), columns.getValues().get(1));
+        assertEquals(Map.of("projectType", "external", "projectId", "sdk"), columns.getValues().get(2).get(0));
+        assertTrue(columns.getDictionaries().isEmpty());
+        assertEquals(expected.getColumns(), columns);
+
+        String json = objectMapper.writeValueAsString(actual);
+        assertFalse(objectMapper.readTree(json).has("hits"));
+        assertFalse(objectMapper.readTree(json).get("columns").has("dictionaries"));
+    }
+
+    @Test
+    void givenNoResultProperties_whenBuildColumnarResult_thenAllLeavesAsColumns() throws Exception {
+        byte[] resultBytes = getInputContent(ESRESULT_PATH, "simpleResult.json").getBytes(StandardCharsets.UTF_8);
+        ESResponse rawResponse = objectMapper.readerFor(ESResponse.class).withAttribute(RawSource.ATTR_RAW_INPUT, resultBytes).readValue(resultBytes);
+
+        Result actual = resultBuilder.buildColumnarResult(rawResponse, List.of(), false);
+
+        assertEquals(List.of("metadata.project.projectType", "metadata.project.projectId", "metadata.customer.customerInfo"), actual.getColumns().getProperties());
+        assertEquals(List.of("sdk", "sdk", "sdk", "sdk"), actual.getColumns().getValues().get(1));
+    }
+
+    @Test
+    void givenDictionaryEncoding_whenBuildColumnarResult_thenLowCardinalityStringsEncoded() throws Exception {
+        byte[] resultBytes = getInputContent(ESRESULT_PATH, "simpleResult.json").getBytes(StandardCharsets.UTF_8);
+        ESResponse rawResponse = objectMapper.readerFor(ESResponse.class).withAttribute(RawSource.ATTR_RAW_INPUT, resultBytes).readValue(resultBytes);
+        List<String> properties = List.of("metadata.customer.customerInfo", "metadata.project.projectInfo");
+
+        Columns columns = resultBuilder.buildColumnarResult(rawResponse, properties, true).getColumns();
+
+        assertEquals(List.of(0, 0, 1, 0), columns.getValues().get(0));
+        assertEquals(Map.of("metadata.customer.customerInfo", List.of("demo", "other demo")), columns.getDictionaries());
+    }
+}
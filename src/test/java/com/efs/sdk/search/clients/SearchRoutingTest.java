@@ -0,0 +1,106 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.clients;
+
+import com.efs.sdk.search.model.search.Query;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static com.efs.sdk.search.clients.SearchRouting.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class SearchRoutingTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void givenDefaults_whenGetParameters_thenOnlyTimeout() throws Exception {
+        SearchRouting routing = new SearchRouting(objectMapper, false, Preference.NONE);
+
+        assertEquals("&timeout=4321ms", routing.getParameters(query(0), token(Map.of(CLAIM_SUBJECT, "user")), 4321));
+    }
+
+    @Test
+    void givenRequestCache_whenGetParameters_thenCachedForSizeZeroOnly() {
+        SearchRouting routing = new SearchRouting(objectMapper, true, Preference.NONE);
+
+        // the timeout is part of the cache-key, so it is rounded
+        assertEquals("&timeout=4000ms&request_cache=true", routing.getParameters(query(0), "dummy", 4321));
+        assertEquals("&timeout=321ms&request_cache=true", routing.getParameters(query(0), "dummy", 321));
+        assertEquals("&timeout=4321ms", routing.getParameters(query(50), "dummy", 4321));
+    }
+
+    @Test
+    void givenPrunedQuery_whenGetParameters_thenUnavailableIgnored() {
+        SearchRouting routing = new SearchRouting(objectMapper, false, Preference.NONE);
+        Query query = query(50);
+        query.setIgnoreUnavailable(true);
+
+        assertEquals("&timeout=4321ms&ignore_unavailable=true", routing.getParameters(query, "dummy", 4321));
+    }
+
+    @Test
+    void givenUserPreference_whenGetParameters_thenStablePerUser() throws Exception {
+        SearchRouting routing = new SearchRouting(objectMapper, false, Preference.USER);
+        String first = routing.getPreference(token(Map.of(CLAIM_SUBJECT, "user", CLAIM_SESSION, "session-1")));
+
+        assertNotNull(first);
+        assertEquals(16, first.length());
+        assertFalse(first.contains("user"));
+        assertEquals(first, routing.getPreference(token(Map.of(CLAIM_SUBJECT, "user", CLAIM_SESSION, "session-2"))));
+        assertNotEquals(first, routing.getPreference(token(Map.of(CLAIM_SUBJECT, "other"))));
+        assertEquals("&timeout=100ms&preference=" + first, routing.getParameters(query(50), token(Map.of(CLAIM_SUBJECT, "user")), 100));
+    }
+
+    @Test
+    void givenSessionPreference_whenGetPreference_thenPerSession() throws Exception {
+        SearchRouting routing = new SearchRouting(objectMapper, false, Preference.SESSION);
+
+        String first = routing.getPreference(token(Map.of(CLAIM_SUBJECT, "user", CLAIM_SESSION, "session-1")));
+        assertNotEquals(first, routing.getPreference(token(Map.of(CLAIM_SUBJECT, "user", CLAIM_SESSION, "session-2"))));
+        assertEquals(first, routing.getPreference(token(Map.of(CLAIM_SUBJECT, "other", CLAIM_SESSION_STATE, "session-1"))));
+        // without session, the user is used
+        assertEquals(routing.getPreference(token(Map.of(CLAIM_SUBJECT, "user"))),
+                new SearchRouting(objectMapper, false, Preference.USER).getPreference(token(Map.of(CLAIM_SUBJECT, "user"))));
+    }
+
+    @Test
+    void givenOpaqueToken_whenGetPreference_thenNone() {
+        SearchRouting routing = new SearchRouting(objectMapper, false, Preference.USER);
+
+        assertNull(routing.getPreference("dummy"));
+        assertNull(routing.getPreference("a.!!!.c"));
+    }
+
+    private static Query query(int size) {
+        Query query = new Query();
+        query.setIndexName("index");
+        query.setSize(size);
+        return query;
+    }
+
+    private String token(Map<String, String> claims) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return String.join(".", encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)),
+                encoder.encodeToString(objectMapper.writeValueAsBytes(claims)), "signature");
+    }
+}
@@ -0,0 +1,90 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.compression;
+
+import com.efs.sdk.search.model.search.Result;
+import com.efs.sdk.search.utils.Benchmark;
+import com.efs.sdk.search.utils.Benchmarks;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures size and cost of gzip-compressing result-pages of several sizes at several levels.
+ * <p>
+ * Timings (CPU per page) are only logged as they depend on the machine, the compression-ratio is asserted.
+ */
+@Slf4j
+class CompressionBenchmarkTest {
+
+    private static final int[] PAGE_SIZES = {10, 100, 1_000, 10_000};
+    private static final int[] LEVELS = {1, 4, 6, 9};
+    private static final Duration BUDGET = Duration.ofMillis(200);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    void givenResultPages_whenGzip_thenSmaller() throws Exception {
+        for (int pageSize : PAGE_SIZES) {
+            byte[] page = objectMapper.writeValueAsBytes(page(pageSize));
+            for (int level : LEVELS) {
+                byte[] compressed = gzip(page, level);
+                long nanos = Benchmarks.measure(BUDGET, i -> gzip(page, level));
+                log.info("{} hits: {} bytes, gzip-{} {} bytes ({}%), {} us per page", pageSize, page.length, level, compressed.length,
+                        compressed.length * 100 / page.length, nanos / 1_000);
+                if (pageSize >= 100) {
+                    assertTrue(compressed.length * 4 < page.length);
+                }
+            }
+        }
+    }
+
+    private static Result page(int size) {
+        List<Map<String, Object>> hits = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            hits.add(Map.of(
+                    "uuid", "6bf24268-46e3-404d-abfd-" + String.format("%012x", i * 7919L),
+                    "massdata", Map.of("name", "measurement-" + i + ".mf4", "size", 1_000_000L + i * 31L, "dateCreated", "2023-12-" + (10 + i % 20) + "T10:00:00Z"),
+                    "metadata", Map.of("project", Map.of("projectId", "sdk-" + i % 5, "projectType", "external"), "customer", Map.of("customerInfo", "demo"))));
+        }
+        Result result = new Result();
+        result.setHits(hits);
+        result.setSize(size);
+        result.setMax(size);
+        return result;
+    }
+
+    private static byte[] gzip(byte[] content, int level) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+}
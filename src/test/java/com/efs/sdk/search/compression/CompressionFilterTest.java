@@ -0,0 +1,178 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.compression;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+class CompressionFilterTest {
+
+    private CompressionFilter filter;
+
+    @BeforeEach
+    void setup() {
+        CompressionProperties properties = new CompressionProperties();
+        properties.setMinResponseSize(DataSize.ofBytes(100));
+        this.filter = new CompressionFilter(properties);
+    }
+
+    @Test
+    void givenLargeJson_whenFilter_thenGzipped() throws Exception {
+        byte[] body = json(1_000);
+
+        MockHttpServletResponse response = perform("gzip, deflate, br", "application/json", body);
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertNull(response.getHeader("Content-Length"));
+        assertTrue(response.getContentAsByteArray().length < body.length);
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void givenSmallJson_whenFilter_thenUncompressed() throws Exception {
+        byte[] body = json(1);
+
+        MockHttpServletResponse response = perform("gzip", "application/json", body);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(body.length, response.getContentLength());
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    void givenGzipNotAccepted_whenFilter_thenUncompressed() throws Exception {
+        byte[] body = json(1_000);
+
+        for (String acceptEncoding : new String[]{null, "identity", "gzip;q=0", "br"}) {
+            MockHttpServletResponse response = perform(acceptEncoding, "application/json", body);
+
+            assertNull(response.getHeader("Content-Encoding"));
+            assertArrayEquals(body, response.getContentAsByteArray());
+        }
+    }
+
+    @Test
+    void givenUnlistedContentType_whenFilter_thenUncompressed() throws Exception {
+        byte[] body = json(1_000);
+
+        MockHttpServletResponse response = perform("gzip", "image/png", body);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertFalse(response.containsHeader("Vary"));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    void givenAsyncResponse_whenFilter_thenFinishedOnComplete() throws Exception {
+        byte[] body = json(1_000);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1.0");
+        request.setAsyncSupported(true);
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<AsyncContext> asyncContext = new AtomicReference<>();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType("application/json");
+                resp.getOutputStream().write(body);
+                asyncContext.set(req.startAsync(req, resp));
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+
+        // the response is not finished before the asynchronous request completed
+        assertThrows(EOFException.class, () -> gunzip(response.getContentAsByteArray()));
+        asyncContext.get().complete();
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void givenWriteListener_whenSet_thenDelegatedToWrappedStream() throws Exception {
+        ServletOutputStream wrapped = mock(ServletOutputStream.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        given(response.getOutputStream()).willReturn(wrapped);
+        given(wrapped.isReady()).willReturn(false);
+        WriteListener listener = mock(WriteListener.class);
+
+        ServletOutputStream outputStream = new CompressingResponseWrapper(response, contentType -> true, 4, 100).getOutputStream();
+        outputStream.setWriteListener(listener);
+
+        verify(wrapped).setWriteListener(listener);
+        assertFalse(outputStream.isReady());
+    }
+
+    private MockHttpServletResponse perform(String acceptEncoding, String contentType, byte[] body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1.0");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(contentType);
+                resp.setContentLength(body.length);
+                resp.getOutputStream().write(body);
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static byte[] json(int hits) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < hits; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"metadata\":{\"project\":{\"projectId\":\"sdk-").append(i % 10).append("\"}}}");
+        }
+        return json.append("]").toString().getBytes(UTF_8);
+    }
+
+    private static byte[] gunzip(byte[] content) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
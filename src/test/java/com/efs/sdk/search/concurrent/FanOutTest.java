@@ -0,0 +1,109 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.concurrent;
+
+import com.efs.sdk.search.commons.SearchException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.DEADLINE_EXCEEDED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+
+@ActiveProfiles("test")
+class FanOutTest {
+
+    private FanOut fanOut;
+
+    @AfterEach
+    void destroy() {
+        fanOut.shutdown();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenPlatformThreads_whenInvokeAll_thenSequentialInOrder() throws Exception {
+        this.fanOut = new FanOut(false);
+        List<String> threads = new ArrayList<>();
+
+        List<Integer> actual = fanOut.invokeAll(List.of(() -> call(threads, 1), () -> call(threads, 2), () -> call(threads, 3)));
+
+        assertFalse(fanOut.isConcurrent());
+        assertEquals(List.of(1, 2, 3), actual);
+        assertEquals(List.of(Thread.currentThread().getName()), threads.stream().distinct().toList());
+    }
+
+    @Test
+    void givenFailingCall_whenInvokeAll_thenRemainingSkipped() {
+        this.fanOut = new FanOut(false);
+        AtomicInteger calls = new AtomicInteger();
+
+        SearchException actual = assertThrows(SearchException.class, () -> fanOut.invokeAll(List.<FanOut.FanOutCallable<Integer>>of(() -> {
+            calls.incrementAndGet();
+            throw new SearchException(DEADLINE_EXCEEDED);
+        }, calls::incrementAndGet)));
+
+        assertEquals(new SearchException(DEADLINE_EXCEEDED).getErrorCode(), actual.getErrorCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void givenVirtualThreads_whenInvokeAll_thenConcurrentWithRequestContext() throws Exception {
+        this.fanOut = new FanOut(true);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        RequestContextHolder.currentRequestAttributes().setAttribute("marker", "request", SCOPE_REQUEST);
+        List<FanOut.FanOutCallable<Object>> calls = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            calls.add(() -> {
+                sleep(200);
+                RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+                return attributes == null ? null : attributes.getAttribute("marker", SCOPE_REQUEST);
+            });
+        }
+
+        long start = System.nanoTime();
+        List<Object> actual = fanOut.invokeAll(calls);
+
+        assertTrue(fanOut.isConcurrent());
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+        assertTrue(actual.stream().allMatch("request"::equals));
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int call(List<String> threads, int result) {
+        threads.add(Thread.currentThread().getName());
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.concurrent;
+
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.utils.Benchmark;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.apache.tomcat.util.net.NioEndpoint;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the throughput of blocking requests with 'search.virtual-threads.enabled' off and on.
+ * <p>
+ * Off, requests run on Tomcat's default thread-pool (200 platform threads) and {@link FanOut} calls the chunks one after the other; on,
+ * requests run on the executor of {@link VirtualThreadsConfig} and {@link FanOut} calls the chunks concurrently. Every simulated request
+ * blocks on the spaces-lookup and then fans out to two index-chunks, like the search-path. Results are logged, only the ordering of the
+ * throughput is asserted.
+ */
+@Slf4j
+class VirtualThreadsLoadTest {
+
+    private static final int REQUESTS = 4_000;
+    private static final int CHUNKS = 2;
+    private static final long IO_MILLIS = 50;
+
+    @Benchmark
+    void givenBlockingRequests_whenVirtualThreads_thenHigherThroughput() throws Exception {
+        NioEndpoint endpoint = new NioEndpoint();
+        endpoint.createExecutor();
+        double platformThroughput;
+        try {
+            platformThroughput = run("platform", endpoint.getExecutor(), new FanOut(false));
+        } finally {
+            endpoint.shutdownExecutor();
+        }
+
+        Http11NioProtocol protocol = new Http11NioProtocol();
+        virtualThreadsCustomizer().customize(protocol);
+        double virtualThroughput;
+        try {
+            virtualThroughput = run("virtual", protocol.getExecutor(), new FanOut(true));
+        } finally {
+            ((ExecutorService) protocol.getExecutor()).shutdown();
+        }
+
+        assertTrue(virtualThroughput > platformThroughput);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsCustomizer() {
+        return (TomcatProtocolHandlerCustomizer<ProtocolHandler>) new VirtualThreadsConfig().virtualThreadsProtocolHandlerCustomizer();
+    }
+
+    private static double run(String name, Executor executor, FanOut fanOut) throws InterruptedException {
+        List<FanOut.FanOutCallable<Integer>> chunks = Collections.nCopies(CHUNKS, () -> {
+            FanOutTest.sleep(IO_MILLIS);
+            return 0;
+        });
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                executor.execute(() -> {
+                    try {
+                        FanOutTest.sleep(IO_MILLIS);
+                        fanOut.invokeAll(chunks);
+                    } catch (SearchException e) {
+                        throw new IllegalStateException(e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(1, TimeUnit.MINUTES));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double throughput = REQUESTS / seconds;
+            log.info("{}: {} requests in {} s ({} req/s)", name, REQUESTS, String.format("%.2f", seconds), String.format("%.0f", throughput));
+            return throughput;
+        } finally {
+            fanOut.shutdown();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.metrics;
+
+import com.efs.sdk.search.commons.SearchException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.SEARCH_FAILED;
+import static com.efs.sdk.search.metrics.SearchMetrics.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class SearchMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private SearchMetrics searchMetrics;
+
+    @BeforeEach
+    void setup() {
+        this.registry = new SimpleMeterRegistry();
+        this.searchMetrics = new SearchMetrics(registry, new Duration[]{Duration.ofMillis(10), Duration.ofMillis(100)});
+    }
+
+    @AfterEach
+    void destroy() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenNoRequest_whenRecord_thenTaggedWithoutEndpoint() throws Exception {
+        String actual = searchMetrics.record(Stage.QUERY_BUILD, () -> "query");
+
+        assertEquals("query", actual);
+        Timer timer = registry.find(METRIC_STAGE).tags(TAG_STAGE, "query_build", TAG_ENDPOINT, NO_ENDPOINT, TAG_OUTCOME, OUTCOME_SUCCESS).timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void givenException_whenRecord_thenErrorOutcome() {
+        assertThrows(SearchException.class, () -> searchMetrics.record(Stage.OPENSEARCH, () -> {
+            throw new SearchException(SEARCH_FAILED);
+        }));
+
+        Timer timer = registry.find(METRIC_STAGE).tags(TAG_STAGE, "opensearch", TAG_OUTCOME, OUTCOME_ERROR).timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void givenRequest_whenRecordTookAndRequest_thenOverheadRecorded() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1.0");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        searchMetrics.recordTook(40);
+        searchMetrics.recordRequest(TimeUnit.MILLISECONDS.toNanos(100), OUTCOME_SUCCESS);
+
+        Timer took = registry.find(METRIC_TOOK).tag(TAG_ENDPOINT, "/v1.0").timer();
+        Timer overhead = registry.find(METRIC_OVERHEAD).tag(TAG_ENDPOINT, "/v1.0").timer();
+        assertNotNull(took);
+        assertNotNull(overhead);
+        assertEquals(40, took.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(60, overhead.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+}
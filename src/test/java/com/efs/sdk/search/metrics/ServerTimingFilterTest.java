@@ -0,0 +1,115 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.metrics;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static com.efs.sdk.search.utils.TestHelper.getSearchMetrics;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class ServerTimingFilterTest {
+
+    @AfterEach
+    void destroy() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenStages_whenFilter_thenHeaderContainsBreakdown() throws Exception {
+        SearchMetrics searchMetrics = getSearchMetrics();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(req));
+                try {
+                    searchMetrics.record(Stage.QUERY_BUILD, () -> "query");
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                searchMetrics.recordTook(12);
+                ServerTiming.markCurrent("spaces", "hit");
+                ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(res);
+                new ServerTimingAdvice().beforeBodyWrite("{}", null, MediaType.APPLICATION_JSON, null, new ServletServerHttpRequest(req), serverResponse);
+                serverResponse.getBody().write("{}".getBytes(StandardCharsets.UTF_8));
+                serverResponse.flush();
+            }
+        });
+        new ServerTimingFilter().doFilter(request, response, chain);
+
+        String header = response.getHeader(ServerTiming.HEADER);
+        assertNotNull(header);
+        assertThat(header, containsString("query_build;dur="));
+        assertThat(header, containsString("took;dur=12.0"));
+        assertThat(header, containsString("spaces;desc=\"hit\""));
+        assertEquals("{}", response.getContentAsString());
+    }
+
+    @Test
+    void givenStreamedResponse_whenFilter_thenNotBuffered() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                res.getOutputStream().write("{}\n".getBytes(StandardCharsets.UTF_8));
+                res.flushBuffer();
+                // the first chunk reached the client before the handler finished
+                assertTrue(response.isCommitted());
+                assertEquals("{}\n", response.getContentAsString());
+            }
+        });
+        new ServerTimingFilter().doFilter(request, response, chain);
+
+        assertNull(response.getHeader(ServerTiming.HEADER));
+    }
+
+    @Test
+    void givenNoServerTiming_whenCurrent_thenNull() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertNull(ServerTiming.current());
+    }
+
+    @Test
+    void givenSameStageTwice_whenToHeaderValue_thenSummedUp() {
+        ServerTiming serverTiming = new ServerTiming();
+        serverTiming.add("opensearch", 1.25);
+        serverTiming.add("opensearch", 2.0);
+        assertEquals("opensearch;dur=3.3", serverTiming.toHeaderValue());
+    }
+}
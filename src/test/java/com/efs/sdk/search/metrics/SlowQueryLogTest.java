@@ -0,0 +1,107 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.metrics;
+
+import com.efs.sdk.search.model.search.Filter;
+import com.efs.sdk.search.model.search.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.efs.sdk.search.model.search.Operator.BETWEEN;
+import static com.efs.sdk.search.model.search.Operator.EQ;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class SlowQueryLogTest {
+
+    private SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    void setup() {
+        this.slowQueryLog = new SlowQueryLog(Duration.ofSeconds(1), 1000, 2, 10);
+    }
+
+    @Test
+    void givenQueriesDifferingInValues_whenFingerprint_thenSame() {
+        Query first = buildQuery("efs", "2023-01-01", "2023-12-31");
+        Query second = buildQuery("sdk", "2022-01-01", "2022-06-30");
+
+        assertEquals(QueryFingerprint.of(first), QueryFingerprint.of(second));
+        assertFalse(QueryFingerprint.of(first).contains("efs"));
+    }
+
+    @Test
+    void givenQueriesDifferingInValueClass_whenFingerprint_thenDifferent() {
+        Query first = buildQuery("efs", "2023-01-01", "2023-12-31");
+        Query second = buildQuery("ef*", "2023-01-01", "2023-12-31");
+
+        assertNotEquals(QueryFingerprint.of(first), QueryFingerprint.of(second));
+    }
+
+    @Test
+    void givenValues_whenValueClass_thenOk() {
+        assertEquals("number", QueryFingerprint.valueClass("42"));
+        assertEquals("date", QueryFingerprint.valueClass("2023-01-01T00:00:00"));
+        assertEquals("date", QueryFingerprint.valueClass("now-1d"));
+        assertEquals("boolean", QueryFingerprint.valueClass("TRUE"));
+        assertEquals("wildcard", QueryFingerprint.valueClass("*demo*"));
+        assertEquals("string", QueryFingerprint.valueClass("demo"));
+        assertEquals("null", QueryFingerprint.valueClass(null));
+    }
+
+    @Test
+    void givenRecords_whenGetTop_thenOrderedAndLimited() {
+        slowQueryLog.record("cheap-frequent", "{}", TimeUnit.MILLISECONDS.toNanos(1), 1);
+        slowQueryLog.record("cheap-frequent", "{}", TimeUnit.MILLISECONDS.toNanos(1), 1);
+        slowQueryLog.record("cheap-frequent", "{}", TimeUnit.MILLISECONDS.toNanos(1), 1);
+        slowQueryLog.record("expensive", "{}", TimeUnit.MILLISECONDS.toNanos(500), 1);
+        slowQueryLog.record("medium", "{}", TimeUnit.MILLISECONDS.toNanos(100), 1);
+        slowQueryLog.record("medium", "{}", TimeUnit.MILLISECONDS.toNanos(100), 1);
+
+        List<SlowQueryLog.SlowQueryEntry> byCost = slowQueryLog.getTopByCost();
+        List<SlowQueryLog.SlowQueryEntry> byFrequency = slowQueryLog.getTopByFrequency();
+
+        assertEquals(2, byCost.size());
+        assertEquals("expensive", byCost.get(0).fingerprint());
+        assertEquals("medium", byCost.get(1).fingerprint());
+        assertEquals(2, byFrequency.size());
+        assertEquals("cheap-frequent", byFrequency.get(0).fingerprint());
+        assertEquals(3, byFrequency.get(0).count());
+    }
+
+    private Query buildQuery(String value, String lowerBound, String upperBound) {
+        Filter eq = new Filter();
+        eq.setProperty("metadata.customer.customerId");
+        eq.setOperator(EQ);
+        eq.setValue(value);
+        Filter between = new Filter();
+        between.setProperty("massdata.dateCreated");
+        between.setOperator(BETWEEN);
+        between.setLowerBound(lowerBound);
+        between.setUpperBound(upperBound);
+
+        Query query = new Query();
+        query.setIndexName("org_space*");
+        query.setFilter(List.of(eq, between));
+        query.setResultProperties(List.of("uuid"));
+        return query;
+    }
+}
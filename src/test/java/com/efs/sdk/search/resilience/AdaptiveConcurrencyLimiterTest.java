@@ -0,0 +1,141 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import com.efs.sdk.search.commons.SearchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.CONCURRENCY_LIMIT_EXCEEDED;
+import static com.efs.sdk.search.resilience.BulkheadType.METADATA;
+import static com.efs.sdk.search.resilience.BulkheadType.SEARCH;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class AdaptiveConcurrencyLimiterTest {
+
+    private ConcurrencyLimitProperties properties;
+
+    @BeforeEach
+    void setup() {
+        this.properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(4);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(5);
+        properties.setBackoffRatio(0.5);
+    }
+
+    @Test
+    void givenLimit_whenAcquire_thenSearchesPrioritized() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+        limiter.acquire(METADATA);
+        limiter.acquire(METADATA);
+        SearchException actual = assertThrows(SearchException.class, () -> limiter.acquire(METADATA));
+        assertEquals(new SearchException(CONCURRENCY_LIMIT_EXCEEDED).getErrorCode(), actual.getErrorCode());
+        assertEquals(Duration.ofSeconds(1), actual.getRetryAfter());
+
+        limiter.acquire(SEARCH);
+        limiter.acquire(SEARCH);
+        assertThrows(SearchException.class, () -> limiter.acquire(SEARCH));
+    }
+
+    @Test
+    void givenConstantSlowLatency_whenOnSample_thenLimitNotDecreased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+        // heavy searches are slow from the start - that is no sign of overload
+        try (AdaptiveConcurrencyLimiter.Permit first = limiter.acquire(SEARCH); AdaptiveConcurrencyLimiter.Permit second = limiter.acquire(SEARCH)) {
+            for (int i = 0; i < 100; i++) {
+                first.onSample(Duration.ofSeconds(5).toNanos());
+            }
+            assertEquals(4, limiter.getLimit());
+        }
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    void givenRisingLatency_whenOnSample_thenLimitDecreased() throws Exception {
+        properties.setInitialLimit(40);
+        properties.setMaxLimit(40);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            permits.add(limiter.acquire(SEARCH));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            permits.get(0).onSample(Duration.ofMillis(10).toNanos());
+        }
+        assertEquals(40, limiter.getLimit());
+        // requests start queueing in OpenSearch
+        for (int i = 0; i < 50; i++) {
+            permits.get(0).onSample(Duration.ofMillis(100).toNanos());
+        }
+        assertTrue(limiter.getLimit() < 10, "limit " + limiter.getLimit());
+
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::close);
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    void givenTimeout_whenOnTimeout_thenLimitDecreased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+        try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(SEARCH)) {
+            permit.onTimeout();
+            assertEquals(2, limiter.getLimit());
+            permit.onTimeout();
+            assertEquals(2, limiter.getLimit());
+        }
+    }
+
+    @Test
+    void givenStartedPermit_whenAbandoned_thenHeldUntilClosed() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+        AdaptiveConcurrencyLimiter.Permit started = limiter.acquire(SEARCH);
+        assertTrue(started.start());
+        // the caller stopped waiting, but the request is still running
+        started.abandon();
+        assertEquals(1, limiter.getInflight());
+        started.close();
+        assertEquals(0, limiter.getInflight());
+
+        AdaptiveConcurrencyLimiter.Permit queued = limiter.acquire(SEARCH);
+        queued.abandon();
+        assertEquals(0, limiter.getInflight());
+        assertFalse(queued.start());
+    }
+
+    @Test
+    void givenDisabled_whenAcquire_thenNeverRejected() throws Exception {
+        properties.setEnabled(false);
+        properties.setInitialLimit(1);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(METADATA);
+        }
+        assertEquals(0, limiter.getInflight());
+    }
+}
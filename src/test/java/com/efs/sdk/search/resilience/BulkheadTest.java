@@ -0,0 +1,148 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import com.efs.sdk.search.commons.SearchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.BULKHEAD_FULL;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.DEADLINE_EXCEEDED;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.EXTRACTION_ERROR;
+import static com.efs.sdk.search.resilience.Bulkhead.METRIC_SATURATION;
+import static com.efs.sdk.search.resilience.Bulkhead.TAG_BULKHEAD;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class BulkheadTest {
+
+    private SimpleMeterRegistry registry;
+    private Bulkhead metadata;
+    private Bulkhead search;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setup() {
+        this.registry = new SimpleMeterRegistry();
+        this.metadata = new Bulkhead(BulkheadType.METADATA, new BulkheadProperties.Settings(1, 1, 1), Duration.ofSeconds(2), registry);
+        this.search = new Bulkhead(BulkheadType.SEARCH, new BulkheadProperties.Settings(1, 1, 1), Duration.ofSeconds(2), registry);
+        this.release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void destroy() {
+        release.countDown();
+        metadata.shutdown();
+        search.shutdown();
+    }
+
+    @Test
+    void givenSaturatedBulkhead_whenExecute_thenRejectedWithRetryAfter() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> executeQuietly(metadata, running));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        // occupies the queue
+        CompletableFuture.runAsync(() -> executeQuietly(metadata, new CountDownLatch(1)));
+        waitForQueued(metadata);
+
+        SearchException actual = assertThrows(SearchException.class, () -> metadata.execute(() -> "rejected"));
+        assertEquals(new SearchException(BULKHEAD_FULL).getErrorCode(), actual.getErrorCode());
+        assertEquals(503, actual.getHttpStatus().value());
+        assertEquals(Duration.ofSeconds(2), actual.getRetryAfter());
+        assertEquals(1.0, registry.get(METRIC_SATURATION).tag(TAG_BULKHEAD, "metadata").gauge().value(), 0.001);
+
+        // other bulkheads are not affected
+        assertEquals("ok", search.execute(() -> "ok"));
+    }
+
+    @Test
+    void givenVirtualThreads_whenSaturated_thenRejectedAndNotPooled() throws Exception {
+        Bulkhead virtual = new Bulkhead(BulkheadType.SEARCH, new BulkheadProperties.Settings(1, 1, 1), Duration.ofSeconds(2), registry, true);
+        try {
+            assertTrue(virtual.execute(() -> Thread.currentThread().isVirtual()));
+            assertNotEquals(virtual.execute(() -> Thread.currentThread().threadId()), virtual.execute(() -> Thread.currentThread().threadId()));
+
+            CountDownLatch running = new CountDownLatch(1);
+            CompletableFuture.runAsync(() -> executeQuietly(virtual, running));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            // waits for the permit of the running request
+            CompletableFuture.runAsync(() -> executeQuietly(virtual, new CountDownLatch(1)));
+            waitForQueued(virtual);
+
+            SearchException actual = assertThrows(SearchException.class, () -> virtual.execute(() -> "rejected"));
+            assertEquals(new SearchException(BULKHEAD_FULL).getErrorCode(), actual.getErrorCode());
+            assertEquals(1.0, virtual.getSaturation(), 0.001);
+        } finally {
+            release.countDown();
+            virtual.shutdown();
+        }
+    }
+
+    @Test
+    void givenSearchException_whenExecute_thenRethrown() {
+        SearchException actual = assertThrows(SearchException.class, () -> search.execute(() -> {
+            throw new SearchException(EXTRACTION_ERROR);
+        }));
+        assertEquals(new SearchException(EXTRACTION_ERROR).getErrorCode(), actual.getErrorCode());
+    }
+
+    @Test
+    void givenExpiringDeadline_whenExecute_thenAborted() {
+        long start = System.nanoTime();
+        SearchException actual = assertThrows(SearchException.class, () -> search.execute(() -> {
+            awaitRelease();
+            return "too late";
+        }, Deadline.after(Duration.ofMillis(100))));
+        assertEquals(new SearchException(DEADLINE_EXCEEDED).getErrorCode(), actual.getErrorCode());
+        assertEquals(504, actual.getHttpStatus().value());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    }
+
+    private void executeQuietly(Bulkhead bulkhead, CountDownLatch running) {
+        try {
+            bulkhead.execute(() -> {
+                running.countDown();
+                awaitRelease();
+                return null;
+            });
+        } catch (SearchException e) {
+            // not of interest
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitForQueued(Bulkhead bulkhead) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bulkhead.getSaturation() < 1.0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import com.efs.sdk.search.commons.SearchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.CIRCUIT_OPEN;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.SEARCH_FAILED;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.UNKNOWN_OPERATOR;
+import static com.efs.sdk.search.resilience.CircuitBreaker.STALE_WARNING;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class CircuitBreakerTest {
+
+    private CircuitBreakerProperties properties;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setup() {
+        this.properties = new CircuitBreakerProperties();
+        properties.setFailureThreshold(2);
+        properties.setOpenDuration(Duration.ofMinutes(1));
+        this.response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+    }
+
+    @AfterEach
+    void destroy() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenFailures_whenExecute_thenOpenedAndStaleServed() throws Exception {
+        CircuitBreaker<String> breaker = new CircuitBreaker<>("test", properties, e -> true, Runnable::run, new SimpleMeterRegistry());
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("fresh", breaker.execute("key", () -> "fresh"));
+        assertNull(response.getHeader(HttpHeaders.WARNING));
+
+        // failures are answered by the last successful answer until the circuit opens
+        assertEquals("fresh", breaker.execute("key", () -> fail(calls)));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals("fresh", breaker.execute("key", () -> fail(calls)));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(STALE_WARNING, response.getHeader(HttpHeaders.WARNING));
+        assertEquals("0", response.getHeader(HttpHeaders.AGE));
+
+        // open circuit does not call the dependency
+        assertEquals("fresh", breaker.execute("key", () -> fail(calls)));
+        assertEquals(2, calls.get());
+
+        SearchException actual = assertThrows(SearchException.class, () -> breaker.execute("other", () -> "never"));
+        assertEquals(new SearchException(CIRCUIT_OPEN).getErrorCode(), actual.getErrorCode());
+        assertNotNull(actual.getRetryAfter());
+    }
+
+    @Test
+    void givenOpenDurationElapsed_whenExecute_thenProbedAndClosed() throws Exception {
+        properties.setOpenDuration(Duration.ZERO);
+        CircuitBreaker<String> breaker = new CircuitBreaker<>("test", properties, e -> true, Runnable::run, new SimpleMeterRegistry());
+        AtomicInteger calls = new AtomicInteger();
+
+        breaker.execute("key", () -> "fresh");
+        breaker.execute("key", () -> fail(calls));
+        breaker.execute("key", () -> fail(calls));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // the probe runs in the background - the stale answer is served meanwhile
+        assertEquals("fresh", breaker.execute("key", () -> "recovered"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals("recovered", breaker.execute("key", () -> fail(calls)));
+    }
+
+    @Test
+    void givenNoFailure_whenExecute_thenPassedThrough() throws Exception {
+        CircuitBreaker<String> breaker = new CircuitBreaker<>("test", properties,
+                e -> e instanceof SearchException se && se.getErrorCode() == new SearchException(SEARCH_FAILED).getErrorCode(), Runnable::run,
+                new SimpleMeterRegistry());
+
+        breaker.execute("key", () -> "fresh");
+        for (int i = 0; i < 3; i++) {
+            assertThrows(SearchException.class, () -> breaker.execute("key", () -> {
+                throw new SearchException(UNKNOWN_OPERATOR);
+            }));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void givenDisabled_whenExecute_thenNoFallback() {
+        properties.setEnabled(false);
+        CircuitBreaker<String> breaker = new CircuitBreaker<>("test", properties, e -> true, Runnable::run, new SimpleMeterRegistry());
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(SearchException.class, () -> breaker.execute("key", () -> fail(calls)));
+        assertThrows(SearchException.class, () -> breaker.execute("key", () -> fail(calls)));
+        assertThrows(SearchException.class, () -> breaker.execute("key", () -> fail(calls)));
+        assertEquals(3, calls.get());
+    }
+
+    private static String fail(AtomicInteger calls) throws SearchException {
+        calls.incrementAndGet();
+        throw new SearchException(SEARCH_FAILED);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.efs.sdk.search.resilience.Hedging.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class HedgingTest {
+
+    private HedgingProperties properties;
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        this.properties = new HedgingProperties();
+        properties.setEnabled(true);
+        this.registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void givenBudget_whenRequests_thenHedgesCapped() {
+        Hedging hedging = new Hedging(properties, registry);
+
+        // 5% of 100 searches may be hedged
+        for (int i = 0; i < 100; i++) {
+            hedging.onRequest();
+        }
+        int hedges = 0;
+        while (hedging.tryAcquire()) {
+            hedges++;
+        }
+
+        assertEquals(5, hedges);
+        assertEquals(5, registry.counter(METRIC_HEDGE, TAG_RESULT, RESULT_SENT).count());
+        assertEquals(1, registry.counter(METRIC_HEDGE, TAG_RESULT, RESULT_BUDGET_EXHAUSTED).count());
+    }
+
+    @Test
+    void givenLongIdlePhase_whenRequests_thenBurstLimited() {
+        properties.setMaxBurst(3);
+        Hedging hedging = new Hedging(properties, registry);
+
+        for (int i = 0; i < 1000; i++) {
+            hedging.onRequest();
+        }
+        int hedges = 0;
+        while (hedging.tryAcquire()) {
+            hedges++;
+        }
+
+        assertEquals(3, hedges);
+    }
+
+    @Test
+    void givenLatencies_whenRecord_thenDelayIsPercentile() {
+        properties.setInitialDelay(Duration.ofMillis(500));
+        Hedging hedging = new Hedging(properties, registry);
+        assertEquals(Duration.ofMillis(500), hedging.getDelay());
+
+        for (int i = 1; i <= 96; i++) {
+            hedging.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(Duration.ofMillis(92), hedging.getDelay());
+
+        // the delay never falls below the minimum
+        for (int i = 0; i < properties.getWindowSize(); i++) {
+            hedging.record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(properties.getMinDelay(), hedging.getDelay());
+    }
+}
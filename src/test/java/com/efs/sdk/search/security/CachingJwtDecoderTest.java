@@ -0,0 +1,150 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.security;
+
+import com.efs.sdk.search.metrics.ServerTiming;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static com.efs.sdk.search.utils.TestHelper.bindServerTiming;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+class CachingJwtDecoderTest {
+
+    static final String ISSUER = "http://idontcare.de/realms/sdk";
+
+    private ClientAndServer mockServer;
+    private JwtDecoder delegate;
+    private MeterRegistry registry;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setup() {
+        this.mockServer = ClientAndServer.startClientAndServer(0);
+        this.delegate = Mockito.mock(JwtDecoder.class);
+        this.registry = new SimpleMeterRegistry();
+        this.decoder = new CachingJwtDecoder(delegate, 100, registry);
+    }
+
+    @AfterEach
+    void destroy() {
+        mockServer.stop();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenSameToken_whenDecodeTwice_thenVerifiedOnce() {
+        given(delegate.decode("token")).willReturn(jwt("token", Instant.now().plusSeconds(60)));
+        ServerTiming serverTiming = bindServerTiming();
+
+        Jwt first = decoder.decode("token");
+        assertEquals("auth;desc=\"miss\"", serverTiming.toHeaderValue());
+        Jwt second = decoder.decode("token");
+        assertEquals("auth;desc=\"hit\"", serverTiming.toHeaderValue());
+
+        assertSame(first, second);
+        verify(delegate, times(1)).decode(anyString());
+        assertEquals(1, registry.get("cache.gets").tag("cache", CachingJwtDecoder.CACHE_NAME).tag("result", "hit").functionCounter().count(), 0.001);
+        assertEquals(1, registry.get("cache.gets").tag("cache", CachingJwtDecoder.CACHE_NAME).tag("result", "miss").functionCounter().count(), 0.001);
+    }
+
+    @Test
+    void givenExpiredOrInvalidToken_whenDecode_thenNotCached() {
+        given(delegate.decode("expired")).willReturn(jwt("expired", Instant.now().minusSeconds(1)));
+        given(delegate.decode("invalid")).willThrow(new BadJwtException("invalid signature"));
+
+        decoder.decode("expired");
+        decoder.decode("expired");
+        assertThrows(JwtException.class, () -> decoder.decode("invalid"));
+        assertThrows(JwtException.class, () -> decoder.decode("invalid"));
+
+        verify(delegate, times(2)).decode("expired");
+        verify(delegate, times(2)).decode("invalid");
+    }
+
+    @Test
+    void givenRotatedKey_whenDecode_thenJwkSetRefreshed() throws Exception {
+        RSAKey oldKey = new RSAKeyGenerator(2048).keyID("old").generate();
+        RSAKey newKey = new RSAKeyGenerator(2048).keyID("new").generate();
+        serveJwks(oldKey);
+        JwtProperties properties = new JwtProperties();
+        properties.setJwksMinRefreshInterval(Duration.ofMillis(1));
+        JwtDecoder jwkSetDecoder = IssuerKeys.jwkSetDecoder(ISSUER,
+                IssuerKeys.jwkSource("http://127.0.0.1:" + mockServer.getPort() + "/certs", properties));
+
+        assertEquals("user", jwkSetDecoder.decode(sign(oldKey, ISSUER)).getSubject());
+        // the issuer rotated its key - the unknown key-id triggers a refresh of the cached JWK set
+        serveJwks(newKey);
+        assertEquals("user", jwkSetDecoder.decode(sign(newKey, ISSUER)).getSubject());
+        assertThrows(JwtException.class, () -> jwkSetDecoder.decode(sign(newKey, "http://another.issuer")));
+    }
+
+    private void serveJwks(RSAKey key) {
+        mockServer.reset();
+        mockServer.when(HttpRequest.request().withPath("/certs"))
+                .respond(HttpResponse.response().withBody(new JWKSet(key.toPublicJWK()).toString()).withStatusCode(200));
+    }
+
+    /**
+     * Signs a token of the subject 'user' valid for 5 minutes.
+     */
+    static String sign(RSAKey key, String issuer) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("user")
+                .issuer(issuer)
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token).header("alg", "RS256").subject("user").issuedAt(expiresAt.minusSeconds(300)).expiresAt(expiresAt).build();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.security;
+
+import com.efs.sdk.search.utils.Benchmark;
+import com.efs.sdk.search.utils.Benchmarks;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the cost of authenticating a request by its bearer-token (as done by the authentication-filter) with and without caching the decoded
+ * tokens - a small set of tokens is reused, like the parallel requests of a few dashboards.
+ * <p>
+ * Timings are only logged as they depend on the machine, the hit-rate of the cache is asserted.
+ */
+@Slf4j
+class JwtDecoderBenchmarkTest {
+
+    private static final int TOKENS = 10;
+    private static final Duration BUDGET = Duration.ofMillis(500);
+
+    private ClientAndServer mockServer;
+    private final List<String> tokens = new ArrayList<>();
+
+    @BeforeEach
+    void setup() throws Exception {
+        this.mockServer = ClientAndServer.startClientAndServer(0);
+        RSAKey key = new RSAKeyGenerator(2048).keyID("key").generate();
+        mockServer.when(HttpRequest.request().withPath("/certs"))
+                .respond(HttpResponse.response().withBody(new JWKSet(key.toPublicJWK()).toString()).withStatusCode(200));
+        for (int i = 0; i < TOKENS; i++) {
+            tokens.add(CachingJwtDecoderTest.sign(key, CachingJwtDecoderTest.ISSUER));
+        }
+    }
+
+    @AfterEach
+    void destroy() {
+        mockServer.stop();
+    }
+
+    @Benchmark
+    void givenReusedTokens_whenAuthenticate_thenCacheHit() throws Exception {
+        JwtDecoder jwkSetDecoder = IssuerKeys.jwkSetDecoder(CachingJwtDecoderTest.ISSUER,
+                IssuerKeys.jwkSource("http://127.0.0.1:" + mockServer.getPort() + "/certs", new JwtProperties()));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        JwtDecoder cachingDecoder = new CachingJwtDecoder(jwkSetDecoder, 100, registry);
+
+        long uncached = measure(provider(jwkSetDecoder));
+        long cached = measure(provider(cachingDecoder));
+        log.info("authentication by bearer-token: {} us uncached, {} us cached", uncached / 1_000, cached / 1_000);
+
+        double hits = registry.get("cache.gets").tag("result", "hit").functionCounter().count();
+        double misses = registry.get("cache.gets").tag("result", "miss").functionCounter().count();
+        assertTrue(misses <= TOKENS);
+        assertTrue(hits / (hits + misses) > 0.9);
+    }
+
+    private static AuthenticationProvider provider(JwtDecoder decoder) {
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(decoder);
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(new CustomJwtGrantedAuthoritiesConverter());
+        provider.setJwtAuthenticationConverter(converter);
+        return provider;
+    }
+
+    private long measure(AuthenticationProvider provider) throws Exception {
+        return Benchmarks.measure(BUDGET, i -> provider.authenticate(new BearerTokenAuthenticationToken(tokens.get(i % TOKENS))));
+    }
+}
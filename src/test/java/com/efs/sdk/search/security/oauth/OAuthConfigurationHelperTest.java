@@ -0,0 +1,100 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.security.oauth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.verify.VerificationTimes;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ActiveProfiles("test")
+class OAuthConfigurationHelperTest {
+
+    private static final String CONFIGURATION = """
+            {"issuer": "http://idontcare.de/realms/sdk", "jwks_uri": "http://idontcare.de/realms/sdk/certs", "token_endpoint": "http://idontcare.de/token"}
+            """;
+    private static final String PATH = "/realms/sdk/.well-known/openid-configuration";
+
+    private ClientAndServer mockServer;
+    private String url;
+    @TempDir
+    private Path tempDir;
+
+    @BeforeEach
+    void setup() {
+        this.mockServer = ClientAndServer.startClientAndServer(0);
+        this.url = "http://127.0.0.1:" + mockServer.getPort() + PATH;
+    }
+
+    @AfterEach
+    void destroy() {
+        mockServer.stop();
+    }
+
+    @Test
+    void givenUnavailableIssuer_whenGetConfiguration_thenRetriedAndCached() {
+        mockServer.when(HttpRequest.request().withPath(PATH), Times.exactly(2)).respond(HttpResponse.response().withStatusCode(503));
+        mockServer.when(HttpRequest.request().withPath(PATH)).respond(HttpResponse.response().withStatusCode(200)
+                .withHeader("Content-Type", "application/json").withBody(CONFIGURATION));
+        OAuthConfigurationHelper helper = new OAuthConfigurationHelper(new RestTemplate(), url, 3, Duration.ofMillis(1), Duration.ofMinutes(1), "");
+
+        assertEquals("http://idontcare.de/realms/sdk/certs", helper.discover().jwksUri());
+        assertEquals("http://idontcare.de/realms/sdk/certs", helper.getOpenidConfigProperty().jwksUri());
+
+        mockServer.verify(HttpRequest.request().withPath(PATH), VerificationTimes.exactly(3));
+    }
+
+    @Test
+    void givenLocalCopy_whenIssuerUnavailable_thenLocalCopyUsed() {
+        String localCopy = tempDir.resolve("openid-configuration.json").toString();
+        mockServer.when(HttpRequest.request().withPath(PATH), Times.once()).respond(HttpResponse.response().withStatusCode(200)
+                .withHeader("Content-Type", "application/json").withBody(CONFIGURATION));
+        new OAuthConfigurationHelper(new RestTemplate(), url, 0, Duration.ofMillis(1), Duration.ofMinutes(1), localCopy).getOpenidConfigProperty();
+        mockServer.when(HttpRequest.request().withPath(PATH)).respond(HttpResponse.response().withStatusCode(503));
+
+        OAuthConfigurationHelper restarted = new OAuthConfigurationHelper(new RestTemplate(), url, 1, Duration.ofMillis(1), Duration.ofMinutes(1), localCopy);
+
+        assertEquals("http://idontcare.de/token", restarted.getOpenidConfigProperty().tokenEndpoint());
+        assertThrows(RestClientException.class, () -> new OAuthConfigurationHelper(new RestTemplate(), url, 1, Duration.ofMillis(1), Duration.ofMinutes(1), "")
+                .getOpenidConfigProperty());
+    }
+
+    @Test
+    void givenUnavailableIssuer_whenGetConfigurationTwice_thenRequestedOnceWithoutRetries() {
+        mockServer.when(HttpRequest.request().withPath(PATH)).respond(HttpResponse.response().withStatusCode(503));
+        OAuthConfigurationHelper helper = new OAuthConfigurationHelper(new RestTemplate(), url, 3, Duration.ofSeconds(1), Duration.ofMinutes(1), "");
+
+        assertThrows(RestClientException.class, helper::getOpenidConfigProperty);
+        // the failure is remembered, so the second request fails fast
+        assertThrows(RestClientException.class, helper::getOpenidConfigProperty);
+
+        mockServer.verify(HttpRequest.request().withPath(PATH), VerificationTimes.exactly(1));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.services;
+
+import com.efs.sdk.search.clients.AsyncSearchProperties;
+import com.efs.sdk.search.clients.ElasticSearchRestClient;
+import com.efs.sdk.search.clients.OrganizationManagerClient;
+import com.efs.sdk.search.clients.ResultBuilder;
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.metrics.ServerTiming;
+import com.efs.sdk.search.model.elasticsearch.ESAsyncSearch;
+import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.search.AsyncSearch;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.model.search.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.ASYNC_SEARCH_FAILED;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.ASYNC_SEARCH_NOT_FOUND;
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.ASYNC_SEARCH_RUNNING;
+import static com.efs.sdk.search.utils.TestHelper.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+class AsyncSearchServiceTest {
+
+    private ElasticSearchRestClient searchClient;
+    private AsyncSearchProperties properties;
+    private AsyncSearchService service;
+    private ESResponse response;
+
+    @BeforeEach
+    void setup() throws Exception {
+        this.searchClient = Mockito.mock(ElasticSearchRestClient.class);
+        this.properties = new AsyncSearchProperties();
+        this.service = new AsyncSearchService(searchClient, new ResultBuilder(), getSearchMetrics(), getDeadlines(), properties,
+                new IndexPruner(searchClient, new IndexPruningProperties()),
+                new IndexAuthorizer(Mockito.mock(OrganizationManagerClient.class), getSearchMetrics(), new IndexAuthorizationProperties()));
+        this.response = new ObjectMapper().readValue(getInputContent(ESRESULT_PATH, "simpleResult.json"), ESResponse.class);
+    }
+
+    @AfterEach
+    void destroy() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenQuery_whenSubmitSearch_thenStoredHitsRequested() throws Exception {
+        properties.setMaxHits(500);
+        given(searchClient.submitAsyncSearch(any(), anyString(), any(), any())).willReturn(new ESAsyncSearch("abc", "RUNNING", 1L, 2L, null));
+        Query query = new Query();
+        query.setPage(3);
+        query.setSize(20);
+
+        AsyncSearch actual = service.submitSearch(query, getAccessToken());
+
+        assertEquals("abc", actual.getId());
+        assertEquals(AsyncSearch.State.RUNNING, actual.getState());
+        assertEquals(2L, actual.getExpirationTime());
+        ArgumentCaptor<Query> submitted = ArgumentCaptor.forClass(Query.class);
+        verify(searchClient).submitAsyncSearch(submitted.capture(), anyString(), eq(properties.getWaitForCompletion()), eq(properties.getKeepAlive()));
+        assertEquals(0, submitted.getValue().getPage());
+        assertEquals(500, submitted.getValue().getSize());
+    }
+
+    @Test
+    void givenCompletedSearch_whenGetResult_thenPaged() throws Exception {
+        given(searchClient.getAsyncSearch(eq("abc"), anyString())).willReturn(new ESAsyncSearch("abc", "PERSISTED", 1L, 2L, response));
+        given(searchClient.getAsyncSearchStatus(eq("abc"), anyString())).willReturn(new ESAsyncSearch("abc", "PERSISTED", 1L, 2L, response));
+
+        Result first = service.getResult("abc", getAccessToken(), 0, 3);
+        Result second = service.getResult("abc", getAccessToken(), 1, 3);
+        Result beyond = service.getResult("abc", getAccessToken(), 5, 3);
+
+        assertEquals(3, first.getHits().size());
+        assertEquals(1, second.getHits().size());
+        assertEquals(List.of(), beyond.getHits());
+        assertEquals(4, second.getMax());
+        assertEquals(4, second.getMaxResults());
+        assertEquals(1, second.getPage());
+        assertEquals(3, second.getSize());
+        List<Map<String, Object>> all = service.getResult("abc", getAccessToken(), 0, 10).getHits();
+        assertEquals(all.get(3), second.getHits().get(0));
+        assertEquals(AsyncSearch.State.SUCCEEDED, service.getSearch("abc", getAccessToken()).getState());
+    }
+
+    @Test
+    void givenRunningOrFailedSearch_whenGetResult_thenError() throws Exception {
+        given(searchClient.getAsyncSearch(eq("running"), anyString())).willReturn(new ESAsyncSearch("running", "RUNNING", 1L, 2L, response));
+        given(searchClient.getAsyncSearchStatus(eq("running"), anyString())).willReturn(new ESAsyncSearch("running", "RUNNING", 1L, 2L, response));
+        given(searchClient.getAsyncSearch(eq("failed"), anyString())).willReturn(new ESAsyncSearch("failed", "FAILED", 1L, 2L, null));
+
+        SearchException actual = assertThrows(SearchException.class, () -> service.getResult("running", getAccessToken(), 0, 10));
+        assertEquals(new SearchException(ASYNC_SEARCH_RUNNING).getErrorCode(), actual.getErrorCode());
+        actual = assertThrows(SearchException.class, () -> service.getResult("failed", getAccessToken(), 0, 10));
+        assertEquals(new SearchException(ASYNC_SEARCH_FAILED).getErrorCode(), actual.getErrorCode());
+        assertEquals(4, service.getSearch("running", getAccessToken()).getMax());
+    }
+
+    @Test
+    void givenCompletedSearch_whenPollAndGetPages_thenHitsFetchedOnce() throws Exception {
+        given(searchClient.getAsyncSearchStatus(eq("abc"), anyString())).willReturn(new ESAsyncSearch("abc", "RUNNING", 1L, 2L, null));
+        given(searchClient.getAsyncSearch(eq("abc"), anyString())).willReturn(new ESAsyncSearch("abc", "PERSISTED", 1L, 2L, response));
+
+        service.getSearch("abc", getAccessToken());
+        service.getSearch("abc", getAccessToken());
+        ServerTiming serverTiming = bindServerTiming();
+        service.getResult("abc", getAccessToken(), 0, 1);
+        assertTrue(serverTiming.toHeaderValue().contains("async-results;desc=\"miss\""));
+        for (int page = 1; page < 4; page++) {
+            service.getResult("abc", getAccessToken(), page, 1);
+        }
+        assertTrue(serverTiming.toHeaderValue().contains("async-results;desc=\"hit\""));
+
+        verify(searchClient, times(2)).getAsyncSearchStatus(eq("abc"), anyString());
+        verify(searchClient, times(1)).getAsyncSearch(eq("abc"), anyString());
+
+        // the deleted search is not served from the cache
+        service.deleteSearch("abc", getAccessToken());
+        given(searchClient.getAsyncSearch(eq("abc"), anyString())).willThrow(new SearchException(ASYNC_SEARCH_NOT_FOUND));
+        SearchException actual = assertThrows(SearchException.class, () -> service.getResult("abc", getAccessToken(), 0, 1));
+        assertEquals(new SearchException(ASYNC_SEARCH_NOT_FOUND).getErrorCode(), actual.getErrorCode());
+    }
+
+    @Test
+    void givenDisabledCache_whenGetPages_thenHitsFetchedPerPage() throws Exception {
+        properties.setResultCacheTtl(Duration.ZERO);
+        assertHitsFetchedPerPage();
+    }
+
+    @Test
+    void givenNoCachedHits_whenGetPages_thenHitsFetchedPerPage() throws Exception {
+        properties.setResultCacheMaxHits(0);
+        assertHitsFetchedPerPage();
+    }
+
+    private void assertHitsFetchedPerPage() throws Exception {
+        AsyncSearchService uncached = new AsyncSearchService(searchClient, new ResultBuilder(), getSearchMetrics(), getDeadlines(), properties,
+                new IndexPruner(searchClient, new IndexPruningProperties()),
+                new IndexAuthorizer(Mockito.mock(OrganizationManagerClient.class), getSearchMetrics(), new IndexAuthorizationProperties()));
+        given(searchClient.getAsyncSearch(eq("abc"), anyString())).willReturn(new ESAsyncSearch("abc", "PERSISTED", 1L, 2L, response));
+
+        uncached.getResult("abc", getAccessToken(), 0, 1);
+        uncached.getResult("abc", getAccessToken(), 1, 1);
+
+        verify(searchClient, times(2)).getAsyncSearch(eq("abc"), anyString());
+    }
+}
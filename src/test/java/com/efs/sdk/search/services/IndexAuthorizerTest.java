@@ -0,0 +1,107 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.services;
+
+import com.efs.sdk.search.clients.OrganizationManagerClient;
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.model.search.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.INDEX_FORBIDDEN;
+import static com.efs.sdk.search.utils.TestHelper.getAccessToken;
+import static com.efs.sdk.search.utils.TestHelper.getSearchMetrics;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+class IndexAuthorizerTest {
+
+    private OrganizationManagerClient organizationManagerClient;
+    private IndexAuthorizationProperties properties;
+    private IndexAuthorizer authorizer;
+
+    @BeforeEach
+    void setup() throws Exception {
+        this.organizationManagerClient = Mockito.mock(OrganizationManagerClient.class);
+        this.properties = new IndexAuthorizationProperties();
+        properties.setEnabled(true);
+        this.authorizer = new IndexAuthorizer(organizationManagerClient, getSearchMetrics(), properties);
+        given(organizationManagerClient.getAllSpaces(anyString())).willReturn(List.of("org_space1", "org_space2", "other_space"));
+    }
+
+    @Test
+    void givenBroadPattern_whenAuthorize_thenNarrowedToSpaces() throws Exception {
+        Query query = query("org*");
+
+        Query actual = authorizer.authorize(query, getAccessToken()).orElseThrow();
+
+        assertEquals("org_space1*,org_space2*", actual.getIndexName());
+        assertEquals("org*", query.getIndexName());
+    }
+
+    @Test
+    void givenPatternsWithinSpaces_whenAuthorize_thenUnchanged() throws Exception {
+        Query query = query("org_space1_measurements,org_space2*");
+
+        assertSame(query, authorizer.authorize(query, getAccessToken()).orElseThrow());
+    }
+
+    @Test
+    void givenPartlyAccessiblePatterns_whenAuthorize_thenInaccessibleDropped() throws Exception {
+        Query query = query("org_space1*,foreign_space*,-org_space1_old");
+
+        assertEquals("org_space1*,-org_space1_old", authorizer.authorize(query, getAccessToken()).orElseThrow().getIndexName());
+    }
+
+    @Test
+    void givenInaccessiblePattern_whenAuthorize_thenForbidden() {
+        SearchException e = assertThrows(SearchException.class, () -> authorizer.authorize(query("foreign*"), getAccessToken()));
+
+        assertEquals(new SearchException(INDEX_FORBIDDEN).getErrorCode(), e.getErrorCode());
+    }
+
+    @Test
+    void givenInaccessiblePatternAndEmptyConfigured_whenAuthorize_thenEmpty() throws Exception {
+        properties.setOnNoMatch(IndexAuthorizationProperties.OnNoMatch.EMPTY);
+
+        assertEquals(Optional.empty(), authorizer.authorize(query("foreign*"), getAccessToken()));
+        assertThrows(SearchException.class, () -> authorizer.authorizeOrReject(query("foreign*"), getAccessToken()));
+    }
+
+    @Test
+    void givenDisabled_whenAuthorize_thenSpacesNotRequested() throws Exception {
+        properties.setEnabled(false);
+        Query query = query("foreign*");
+
+        assertSame(query, authorizer.authorize(query, getAccessToken()).orElseThrow());
+        verify(organizationManagerClient, never()).getAllSpaces(anyString());
+    }
+
+    private static Query query(String indexName) {
+        Query query = new Query();
+        query.setIndexName(indexName);
+        return query;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.services;
+
+import com.efs.sdk.search.clients.ElasticSearchRestClient;
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.metrics.ServerTiming;
+import com.efs.sdk.search.model.search.Filter;
+import com.efs.sdk.search.model.search.Operator;
+import com.efs.sdk.search.model.search.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.BULKHEAD_FULL;
+import static com.efs.sdk.search.model.search.Operator.*;
+import static com.efs.sdk.search.utils.TestHelper.bindServerTiming;
+import static com.efs.sdk.search.utils.TestHelper.getAccessToken;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+class IndexPrunerTest {
+
+    private static final String TIME_FIELD = "metadata.dateTime.createdAt";
+
+    private ElasticSearchRestClient searchClient;
+    private IndexPruningProperties properties;
+    private IndexPruner pruner;
+
+    @BeforeEach
+    void setup() throws Exception {
+        this.searchClient = Mockito.mock(ElasticSearchRestClient.class);
+        this.properties = new IndexPruningProperties();
+        properties.setEnabled(true);
+        this.pruner = new IndexPruner(searchClient, properties);
+        given(searchClient.getIndexNames(anyString(), eq("org_space*"))).willReturn(Set.of("org_space_2023.03", "org_space_2023.04", "org_space_2023.05",
+                "org_space_2023.06", "org_space_archive"));
+    }
+
+    @AfterEach
+    void destroy() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenBetweenFilter_whenPrune_thenOverlappingIndicesOnly() throws Exception {
+        Query query = query(between("2023-04-15", "2023-05-10"));
+
+        Query actual = pruner.prune(query, getAccessToken());
+
+        // indices without time-bucket are kept
+        assertEquals("org_space_2023.04,org_space_2023.05,org_space_archive", actual.getIndexName());
+        assertEquals("org_space*", query.getIndexName());
+        assertEquals(query.getFilter(), actual.getFilter());
+        // indices deleted since the lookup of the catalog are skipped
+        assertTrue(actual.isIgnoreUnavailable());
+        assertFalse(query.isIgnoreUnavailable());
+    }
+
+    @Test
+    void givenFailedLookup_whenPrune_thenUnchanged() throws Exception {
+        given(searchClient.getIndexNames(anyString(), eq("org_space*"))).willThrow(new SearchException(BULKHEAD_FULL))
+                .willReturn(Set.of("org_space_2023.04", "org_space_2023.05"));
+        Query query = query(between("2023-04-15", "2023-04-20"));
+
+        assertSame(query, pruner.prune(query, getAccessToken()));
+        // the failure is not cached
+        assertEquals("org_space_2023.04", pruner.prune(query, getAccessToken()).getIndexName());
+    }
+
+    @Test
+    void givenRangeFilters_whenPrune_thenIntersected() throws Exception {
+        Query query = query(filter(GTE, "2023-05-01T00:00:00Z"), filter(LT, "2023-06-01"));
+        ServerTiming serverTiming = bindServerTiming();
+
+        assertEquals("org_space_2023.05,org_space_2023.06,org_space_archive", pruner.prune(query, getAccessToken()).getIndexName());
+        assertEquals("index-catalog;desc=\"miss\"", serverTiming.toHeaderValue());
+        // the catalog is cached
+        pruner.prune(query, getAccessToken());
+        assertEquals("index-catalog;desc=\"hit\"", serverTiming.toHeaderValue());
+        verify(searchClient, times(1)).getIndexNames(anyString(), anyString());
+    }
+
+    @Test
+    void givenNowRelativeFilter_whenPrune_thenRecentIndicesOnly() throws Exception {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy.MM");
+        given(searchClient.getIndexNames(anyString(), eq("recent*"))).willReturn(Set.of("recent_" + today.format(format),
+                "recent_" + today.minusMonths(3).format(format)));
+        Query query = query(filter(GTE, "now-1d/d"));
+        query.setIndexName("recent*");
+
+        // indices of the current month may have been created after the lookup
+        assertEquals("recent_" + today.format(format) + ",recent_" + today.format(format) + "*", pruner.prune(query, getAccessToken()).getIndexName());
+    }
+
+    @Test
+    void givenRangePastCatalog_whenPrune_thenCurrentBucketByWildcard() throws Exception {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+        // the index of today did not exist at the lookup
+        given(searchClient.getIndexNames(anyString(), eq("daily*"))).willReturn(Set.of("daily_" + today.minusDays(1).format(format),
+                "daily_" + today.minusDays(5).format(format)));
+        Query query = query(filter(GTE, "now-1d/d"));
+        query.setIndexName("daily*");
+        Query past = query(between(today.minusDays(6).toString(), today.minusDays(4).toString()));
+        past.setIndexName("daily*");
+
+        assertEquals("daily_" + today.minusDays(1).format(format) + ",daily_" + today.format(format) + "*",
+                pruner.prune(query, getAccessToken()).getIndexName());
+        assertEquals("daily_" + today.minusDays(5).format(format), pruner.prune(past, getAccessToken()).getIndexName());
+    }
+
+    @Test
+    void givenTokensOfSameUser_whenPrune_thenCatalogShared() throws Exception {
+        Query query = query(between("2023-04-15", "2023-05-10"));
+        try {
+            SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("alice", null));
+            pruner.prune(query, "first-token");
+            pruner.prune(query, "refreshed-token");
+            SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("bob", null));
+            pruner.prune(query, "other-token");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        verify(searchClient, times(1)).getIndexNames("first-token", "org_space*");
+        verify(searchClient, never()).getIndexNames("refreshed-token", "org_space*");
+        verify(searchClient, times(1)).getIndexNames("other-token", "org_space*");
+    }
+
+    @Test
+    void givenNoTimeFilter_whenPrune_thenUnchanged() throws Exception {
+        Filter other = between("2023-04-15", "2023-05-10");
+        other.setProperty("metadata.dateTime.modifiedAt");
+        Query unrelated = query(other);
+        Query like = query(between("2023-04-15", "2023-05-10"), filter(LIKE, "2023"));
+        Query unparseable = query(filter(GT, "yesterday"));
+
+        assertSame(unrelated, pruner.prune(unrelated, getAccessToken()));
+        assertSame(like, pruner.prune(like, getAccessToken()));
+        assertSame(unparseable, pruner.prune(unparseable, getAccessToken()));
+        verify(searchClient, never()).getIndexNames(anyString(), anyString());
+    }
+
+    @Test
+    void givenAllIndicesOverlap_whenPrune_thenUnchanged() throws Exception {
+        Query query = query(filter(GTE, "2020"));
+
+        assertSame(query, pruner.prune(query, getAccessToken()));
+    }
+
+    @Test
+    void givenDisabled_whenPrune_thenUnchanged() throws Exception {
+        properties.setEnabled(false);
+        Query query = query(between("2023-04-15", "2023-05-10"));
+
+        assertSame(query, new IndexPruner(searchClient, properties).prune(query, getAccessToken()));
+    }
+
+    @Test
+    void givenDates_whenParseBound_thenWidened() {
+        assertEquals(Instant.parse("2023-05-01T00:00:00Z"), IndexPruner.parseBound("2023-05-01", false));
+        assertEquals(Instant.parse("2023-05-02T00:00:00Z"), IndexPruner.parseBound("2023-05-01", true));
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z"), IndexPruner.parseBound("2023", true));
+        assertEquals(Instant.parse("2023-05-01T10:00:00Z"), IndexPruner.parseBound("2023-05-01T12:00:00+02:00", false));
+        assertEquals(Instant.parse("2023-05-01T12:00:00Z"), IndexPruner.parseBound("2023-05-01T12:00:00", false));
+        assertEquals(Instant.ofEpochMilli(1682942400000L), IndexPruner.parseBound("1682942400000", false));
+        assertNull(IndexPruner.parseBound("*", false));
+        assertNull(IndexPruner.parseBound("yesterday", false));
+    }
+
+    private static Query query(Filter... filters) {
+        Query query = new Query();
+        query.setIndexName("org_space*");
+        query.setFilter(new ArrayList<>(List.of(filters)));
+        return query;
+    }
+
+    private static Filter filter(Operator operator, String value) {
+        Filter filter = new Filter();
+        filter.setProperty(TIME_FIELD);
+        filter.setOperator(operator);
+        filter.setValue(value);
+        return filter;
+    }
+
+    private static Filter between(String lowerBound, String upperBound) {
+        Filter filter = filter(BETWEEN, null);
+        filter.setLowerBound(lowerBound);
+        filter.setUpperBound(upperBound);
+        return filter;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.services;
+
+import com.efs.sdk.search.clients.OrganizationManagerClient;
+import com.efs.sdk.search.clients.ReactiveElasticSearchClient;
+import com.efs.sdk.search.clients.ReactiveOrganizationManagerClient;
+import com.efs.sdk.search.clients.ResultBuilder;
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.model.elasticsearch.ESResponse;
+import com.efs.sdk.search.model.search.Query;
+import com.efs.sdk.search.model.search.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.efs.sdk.search.utils.TestHelper.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+class ReactiveSearchServiceTest {
+
+    private ReactiveElasticSearchClient searchClient;
+    private ReactiveOrganizationManagerClient organizationManagerClient;
+    private ResultBuilder resultBuilder;
+    private ReactiveSearchService service;
+    private Map<String, Object> mappings;
+
+    @BeforeEach
+    void setup() throws IOException {
+        this.searchClient = Mockito.mock(ReactiveElasticSearchClient.class);
+        this.organizationManagerClient = Mockito.mock(ReactiveOrganizationManagerClient.class);
+        this.resultBuilder = Mockito.mock(ResultBuilder.class);
+        this.service = new ReactiveSearchService(searchClient, organizationManagerClient, resultBuilder, getDeadlines(),
+                new IndexAuthorizer(Mockito.mock(OrganizationManagerClient.class), getSearchMetrics(), new IndexAuthorizationProperties()));
+        this.mappings = new ObjectMapper().readValue(getInputContent(ESRESULT_PATH, "mappingsResultSimple.json"), Map.class);
+    }
+
+    @Test
+    void givenEmptyResponse_whenExecuteSearch_thenOk() throws Exception {
+        Query query = new Query();
+        given(searchClient.executeSearch(any(), anyString(), any())).willReturn(Mono.just(new ESResponse(0, false, null, null)));
+        given(resultBuilder.buildResult(any())).willReturn(new Result());
+
+        Result expected = new Result();
+        expected.setPage(query.getPage());
+        expected.setSize(query.getSize());
+
+        StepVerifier.create(service.executeSearch(query, getAccessToken())).expectNext(expected).verifyComplete();
+    }
+
+    @Test
+    void givenManySpaces_whenGetCriteria_thenChunksZipped() {
+        // the index-wildcards exceed the maximum length of a request-line together, so the indices are looked up in several chunks
+        List<String> spaces = List.of("a".repeat(1500), "b".repeat(1500), "c".repeat(1500), "d".repeat(1500));
+        given(organizationManagerClient.getAllSpaces(anyString(), any())).willReturn(Mono.just(spaces));
+        given(searchClient.getMappings(anyString(), anyString(), any())).willReturn(Mono.just(Map.of()));
+        given(searchClient.getMappings(anyString(), eq("a".repeat(1500) + "*," + "b".repeat(1500) + "*"), any())).willReturn(Mono.just(mappings));
+
+        StepVerifier.create(service.getCriteria(getAccessToken(), "*"))
+                .assertNext(criteria -> assertFalse(criteria.isEmpty()))
+                .verifyComplete();
+        verify(searchClient, times(2)).getMappings(anyString(), anyString(), any());
+    }
+
+    @Test
+    void givenNoSpaces_whenGetIndices_thenEmpty() {
+        given(organizationManagerClient.getAllSpaces(anyString(), any())).willReturn(Mono.just(List.of()));
+
+        StepVerifier.create(service.getIndices(getAccessToken(), "*")).expectNext(Set.of()).verifyComplete();
+    }
+
+    @Test
+    void givenMappings_whenGetResultProperties_thenPropertyNames() {
+        given(organizationManagerClient.getAllSpaces(anyString(), any())).willReturn(Mono.just(List.of("sdkdemonstrations_demospace")));
+        given(searchClient.getMappings(anyString(), anyString(), any())).willReturn(Mono.just(mappings));
+
+        StepVerifier.create(service.getResultProperties(getAccessToken(), "*"))
+                .assertNext(properties -> {
+                    assertTrue(properties.contains("uuid"));
+                    assertTrue(properties.contains("metadata.project.purpose"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void givenIndexAuthorization_whenExecuteSearch_thenNarrowedToSpaces() {
+        IndexAuthorizationProperties properties = new IndexAuthorizationProperties();
+        properties.setEnabled(true);
+        ReactiveSearchService authorizingService = new ReactiveSearchService(searchClient, organizationManagerClient, resultBuilder, getDeadlines(),
+                new IndexAuthorizer(Mockito.mock(OrganizationManagerClient.class), getSearchMetrics(), properties));
+        given(organizationManagerClient.getAllSpaces(anyString(), any())).willReturn(Mono.just(List.of("org_space")));
+        given(searchClient.executeSearch(any(), anyString(), any())).willReturn(Mono.just(new ESResponse(0, false, null, null)));
+        given(resultBuilder.buildResult(any())).willReturn(new Result());
+        Query query = new Query();
+        query.setIndexName("org*");
+
+        StepVerifier.create(authorizingService.executeSearch(query, getAccessToken())).expectNextCount(1).verifyComplete();
+        verify(searchClient).executeSearch(argThat(searched -> "org_space*".equals(searched.getIndexName())), anyString(), any());
+    }
+
+    @Test
+    void givenInaccessibleIndex_whenStreamHits_thenRejectedWithoutSearch() {
+        IndexAuthorizationProperties properties = new IndexAuthorizationProperties();
+        properties.setEnabled(true);
+        properties.setOnNoMatch(IndexAuthorizationProperties.OnNoMatch.EMPTY);
+        ReactiveSearchService authorizingService = new ReactiveSearchService(searchClient, organizationManagerClient, resultBuilder, getDeadlines(),
+                new IndexAuthorizer(Mockito.mock(OrganizationManagerClient.class), getSearchMetrics(), properties));
+        given(organizationManagerClient.getAllSpaces(anyString(), any())).willReturn(Mono.just(List.of("org_space")));
+        Query query = new Query();
+        query.setIndexName("foreign*");
+
+        StepVerifier.create(authorizingService.streamHits(query, getAccessToken())).verifyError(SearchException.class);
+        verify(searchClient, never()).streamHits(any(), anyString());
+    }
+}
@@ -18,34 +18,57 @@ package com.efs.sdk.search.services;
 import com.efs.sdk.search.clients.ElasticSearchRestClient;
 import com.efs.sdk.search.clients.OrganizationManagerClient;
 import com.efs.sdk.search.clients.ResultBuilder;
+import com.efs.sdk.search.commons.SearchException;
+import com.efs.sdk.search.metrics.QueryFingerprint;
 import com.efs.sdk.search.model.elasticsearch.ESResponse;
 import com.efs.sdk.search.model.search.Criteria;
 import com.efs.sdk.search.model.search.Query;
 import com.efs.sdk.search.model.search.Result;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.Field;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import static com.efs.sdk.search.commons.SearchException.SEARCH_ERROR.INDEX_FORBIDDEN;
 import static com.efs.sdk.search.model.search.DataType.DATE;
 import static com.efs.sdk.search.model.search.DataType.STRING;
 import static com.efs.sdk.search.utils.TestHelper.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ActiveProfiles("test")
 class SearchServiceTest {
@@ -65,7 +88,9 @@ class SearchServiceTest {
         this.searchClient = Mockito.mock(ElasticSearchRestClient.class);
         this.organizationManagerClient = Mockito.mock(OrganizationManagerClient.class);
         this.resultBuilder = Mockito.mock(ResultBuilder.class);
-        this.service = new SearchService(searchClient, resultBuilder, organizationManagerClient);
+        this.service = new SearchService(searchClient, resultBuilder, organizationManagerClient, getSearchMetrics(), getDeadlines(), getFanOut(),
+                new IndexPruner(searchClient, new IndexPruningProperties()),
+                new IndexAuthorizer(organizationManagerClient, getSearchMetrics(), new IndexAuthorizationProperties()));
 
         String searchResult = getInputContent(ESRESULT_PATH, "mappingsResultSimple.json");
 
@@ -78,7 +103,7 @@ class SearchServiceTest {
         ESResponse response = new ESResponse(0, false, null, null);
         Query query = new Query();
 
-        given(searchClient.executeSearch(any(), anyString())).willReturn(response);
+        given(searchClient.executeSearch(any(), anyString(), anyString())).willReturn(response);
         given(resultBuilder.buildResult(any())).willReturn(new Result());
 
         Result expected = new Result();
@@ -89,6 +114,20 @@ class SearchServiceTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void givenColumnarQuery_whenExecuteSearch_thenColumnarResult() throws Exception {
+        ESResponse response = new ESResponse(0, false, null, null);
+        Query query = objectMapper.readValue("""
+                {"index_name": "test", "resultProperties": ["metadata.project.projectId"], "layout": "columns", "dictionary_encoding": true}""", Query.class);
+
+        given(searchClient.executeSearch(any(), anyString(), anyString())).willReturn(response);
+        given(resultBuilder.buildColumnarResult(any(), eq(query.getResultProperties()), eq(true))).willReturn(new Result());
+
+        service.executeSearch(query, getAccessToken());
+        verify(resultBuilder).buildColumnarResult(response, List.of("metadata.project.projectId"), true);
+        verify(resultBuilder, never()).buildResult(any());
+    }
+
     @Test
     void givenSingleFilterQuery_whenExecuteSearch_thenOk() throws Exception {
         String queryStr = getInputContent(QUERY_PATH, "singleFilterQuery.json");
@@ -98,7 +137,7 @@ class SearchServiceTest {
         Result expected = objectMapper.readValue(expectedResultStr, Result.class);
         Query query = objectMapper.readValue(queryStr, Query.class);
         ESResponse response = new ESResponse(0, false, null, null);
-        given(searchClient.executeSearch(any(), anyString())).willReturn(response);
+        given(searchClient.executeSearch(any(), anyString(), anyString())).willReturn(response);
         given(resultBuilder.buildResult(any())).willReturn(expected);
 
         Result actual = service.executeSearch(query, token);
@@ -167,4 +206,110 @@ class SearchServiceTest {
         assertThat(actualStr, CoreMatchers.containsString("metadata.project.purpose"));
     }
 
+    @Test
+    void givenQuery_whenExportSearch_thenArrowBatchPerPage() throws Exception {
+        given(searchClient.getMappings(anyString(), eq("*"), eq(false))).willReturn(this.mappings);
+        ESResponse firstPage = objectMapper.readValue(esResponse("""
+                {"massdata": {"size": 42, "dateCreated": "2023-12-14T10:00:00Z", "name": "first"}, "uuid": "a"}""", """
+                {"massdata": {"size": "oops", "dateCreated": "2023-12-14"}, "uuid": "b"}"""), ESResponse.class);
+        ESResponse lastPage = objectMapper.readValue(esResponse("""
+                {"massdata": {"size": 7.5, "name": ["x", "y"]}, "uuid": "c"}"""), ESResponse.class);
+        given(searchClient.executeSearch(any(), anyString(), anyString())).willReturn(firstPage, lastPage);
+        Query query = new Query();
+        query.setIndexName("*");
+        query.setSize(2);
+        query.setResultProperties(List.of("massdata.size", "massdata.dateCreated", "massdata.name", "unknown"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.exportSearch(query, getAccessToken(), () -> out);
+
+        ArgumentCaptor<Query> pages = ArgumentCaptor.forClass(Query.class);
+        verify(searchClient, times(2)).executeSearch(pages.capture(), anyString(), anyString());
+        assertEquals(List.of(0, 1), pages.getAllValues().stream().map(Query::getPage).toList());
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertEquals(List.of("massdata.size", "massdata.dateCreated", "massdata.name", "unknown"),
+                    root.getSchema().getFields().stream().map(Field::getName).toList());
+
+            assertTrue(reader.loadNextBatch());
+            assertEquals(2, root.getRowCount());
+            Float8Vector size = (Float8Vector) root.getVector("massdata.size");
+            assertEquals(42.0, size.get(0));
+            assertTrue(size.isNull(1));
+            TimeStampMilliTZVector dateCreated = (TimeStampMilliTZVector) root.getVector("massdata.dateCreated");
+            assertEquals(Instant.parse("2023-12-14T10:00:00Z").toEpochMilli(), dateCreated.get(0));
+            assertEquals(Instant.parse("2023-12-14T00:00:00Z").toEpochMilli(), dateCreated.get(1));
+            assertEquals("first", root.getVector("massdata.name").getObject(0).toString());
+            assertTrue(root.getVector("unknown").isNull(0));
+
+            assertTrue(reader.loadNextBatch());
+            assertEquals(1, root.getRowCount());
+            assertEquals(7.5, ((Float8Vector) root.getVector("massdata.size")).get(0));
+            assertEquals("[\"x\",\"y\"]", root.getVector("massdata.name").getObject(0).toString());
+
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+
+    private static String esResponse(String... sources) {
+        String hits = Arrays.stream(sources).map(source -> "{\"_index\": \"test\", \"_id\": \"1\", \"_source\": " + source + "}").collect(Collectors.joining(","));
+        return "{\"took\": 1, \"timed_out\": false, \"hits\": {\"total\": {\"value\": 3, \"relation\": \"eq\"}, \"hits\": [" + hits + "]}}";
+    }
+
+    @Test
+    void givenInaccessibleIndex_whenExecuteSearch_thenEmptyResultWithoutSearch() throws Exception {
+        IndexAuthorizationProperties properties = new IndexAuthorizationProperties();
+        properties.setEnabled(true);
+        properties.setOnNoMatch(IndexAuthorizationProperties.OnNoMatch.EMPTY);
+        SearchService authorizingService = new SearchService(searchClient, new ResultBuilder(), organizationManagerClient, getSearchMetrics(), getDeadlines(),
+                getFanOut(), new IndexPruner(searchClient, new IndexPruningProperties()),
+                new IndexAuthorizer(organizationManagerClient, getSearchMetrics(), properties));
+        given(organizationManagerClient.getAllSpaces(anyString())).willReturn(List.of("org_space"));
+        Query query = new Query();
+        query.setIndexName("foreign*");
+
+        Result result = authorizingService.executeSearch(query, getAccessToken());
+
+        assertEquals(0, result.getMax());
+        assertTrue(result.getHits().isEmpty());
+        verify(searchClient, never()).executeSearch(any(), anyString(), anyString());
+    }
+
+    @Test
+    void givenInaccessibleIndex_whenExportSearch_thenRejectedWithoutMappings() throws Exception {
+        IndexAuthorizationProperties properties = new IndexAuthorizationProperties();
+        properties.setEnabled(true);
+        SearchService authorizingService = new SearchService(searchClient, new ResultBuilder(), organizationManagerClient, getSearchMetrics(), getDeadlines(),
+                getFanOut(), new IndexPruner(searchClient, new IndexPruningProperties()),
+                new IndexAuthorizer(organizationManagerClient, getSearchMetrics(), properties));
+        given(organizationManagerClient.getAllSpaces(anyString())).willReturn(List.of("org_space"));
+        Query query = new Query();
+        query.setIndexName("foreign*");
+
+        SearchException e = assertThrows(SearchException.class, () -> authorizingService.exportSearch(query, getAccessToken(), ByteArrayOutputStream::new));
+
+        assertEquals(new SearchException(INDEX_FORBIDDEN).getErrorCode(), e.getErrorCode());
+        verify(searchClient, never()).getMappings(anyString(), any(), anyBoolean());
+        verify(searchClient, never()).executeSearch(any(), anyString(), anyString());
+    }
+
+    @Test
+    void givenNarrowedIndex_whenExecuteSearch_thenFingerprintOfRequestedIndex() throws Exception {
+        IndexAuthorizationProperties properties = new IndexAuthorizationProperties();
+        properties.setEnabled(true);
+        SearchService authorizingService = new SearchService(searchClient, new ResultBuilder(), organizationManagerClient, getSearchMetrics(), getDeadlines(),
+                getFanOut(), new IndexPruner(searchClient, new IndexPruningProperties()),
+                new IndexAuthorizer(organizationManagerClient, getSearchMetrics(), properties));
+        given(organizationManagerClient.getAllSpaces(anyString())).willReturn(List.of("org_space"));
+        given(searchClient.executeSearch(any(), anyString(), anyString())).willReturn(objectMapper.readValue(esResponse(), ESResponse.class));
+        Query query = new Query();
+        query.setIndexName("org*");
+
+        authorizingService.executeSearch(query, getAccessToken());
+
+        ArgumentCaptor<Query> searched = ArgumentCaptor.forClass(Query.class);
+        verify(searchClient).executeSearch(searched.capture(), anyString(), eq(QueryFingerprint.of(query)));
+        assertEquals("org_space*", searched.getValue().getIndexName());
+    }
 }
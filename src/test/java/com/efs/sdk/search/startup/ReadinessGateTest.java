@@ -0,0 +1,81 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class ReadinessGateTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void givenFailingPhase_whenStarted_thenReadyOnceRepeatedPhaseSucceeded() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("first", new StartupPhase("first", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("not yet");
+            }
+        }));
+        beanFactory.addBean("second", new StartupPhase("second", () -> {
+        }));
+        ReadinessGate gate = new ReadinessGate(beanFactory.getBeanProvider(StartupPhase.class), registry, true, Duration.ofMillis(10));
+
+        assertEquals(Status.OUT_OF_SERVICE, gate.health().getStatus());
+        assertEquals("pending", gate.health().getDetails().get("first"));
+        gate.start();
+        awaitReady(gate);
+
+        assertEquals(Status.UP, gate.health().getStatus());
+        assertEquals(3, attempts.get());
+        assertEquals("done", gate.health().getDetails().get("second"));
+        assertEquals(1, registry.get(ReadinessGate.METRIC_PHASE).tag(ReadinessGate.TAG_PHASE, "first").timer().count());
+        assertEquals(1, registry.get(ReadinessGate.METRIC_PHASE).tag(ReadinessGate.TAG_PHASE, "second").timer().count());
+    }
+
+    @Test
+    void givenDisabled_whenHealth_thenUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("failing", new StartupPhase("failing", () -> {
+            throw new IllegalStateException("never");
+        }));
+        ReadinessGate gate = new ReadinessGate(beanFactory.getBeanProvider(StartupPhase.class), registry, false, Duration.ofMillis(10));
+
+        gate.start();
+
+        assertTrue(gate.isReady());
+        assertEquals(Status.UP, gate.health().getStatus());
+    }
+
+    private static void awaitReady(ReadinessGate gate) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!gate.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(gate.isReady());
+    }
+}
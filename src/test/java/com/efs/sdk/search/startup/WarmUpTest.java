@@ -0,0 +1,45 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.startup;
+
+import com.efs.sdk.search.clients.QueryBuilder;
+import com.efs.sdk.search.clients.ResultBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ActiveProfiles("test")
+class WarmUpTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WarmUp warmUp;
+
+    @BeforeEach
+    void setup() {
+        WarmUpProperties properties = new WarmUpProperties();
+        properties.setIterations(2);
+        this.warmUp = new WarmUp(properties, objectMapper, new QueryBuilder(objectMapper, ""), new ResultBuilder());
+    }
+
+    @Test
+    void givenFixtures_whenReplay_thenAllReplayed() throws Exception {
+        // 3 queries and 1 response of the fixtures shipped with the service
+        assertEquals(8, warmUp.replay());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+Copyright (C) 2023 e:fs TechHub GmbH (sdk@efs-techhub.com)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package com.efs.sdk.search.utils;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Measurements shared by the {@link Benchmark}s - either the mean time of an operation repeated within a budget, or the latencies of a fixed number
+ * of operations for percentiles.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Measures the mean time of the work, repeated within the budget - the first half of the budget warms up.
+     *
+     * @param budget how long the work is repeated
+     * @param work   the work, called with the number of the iteration
+     * @return the mean time of an iteration in nanoseconds
+     */
+    public static long measure(Duration budget, Work work) throws Exception {
+        long budgetNanos = budget.toNanos();
+        long start = System.nanoTime();
+        long measured = 0;
+        int iterations = 0;
+        for (int i = 0; System.nanoTime() - start < budgetNanos; i++) {
+            long iterationStart = System.nanoTime();
+            work.run(i);
+            if (iterationStart - start > budgetNanos / 2) {
+                measured += System.nanoTime() - iterationStart;
+                iterations++;
+            }
+        }
+        return iterations == 0 ? 0 : measured / iterations;
+    }
+
+    /**
+     * Measures the time of each of the given number of iterations of the work, one after another.
+     *
+     * @param iterations the number of iterations
+     * @param work       the work, called with the number of the iteration
+     * @return the sorted times in nanoseconds, see {@link #percentile(long[], double)}
+     */
+    public static long[] sample(int iterations, Work work) throws Exception {
+        long[] latencies = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            work.run(i);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    public static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.max(0, (int) Math.ceil(sorted.length * percentile) - 1)];
+    }
+
+    @FunctionalInterface
+    public interface Work {
+        void run(int iteration) throws Exception;
+    }
+}
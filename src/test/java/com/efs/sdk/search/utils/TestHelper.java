@@ -15,11 +15,33 @@ limitations under the License.
  */
 package com.efs.sdk.search.utils;
 
+import com.efs.sdk.search.clients.NodeBalancer;
+import com.efs.sdk.search.clients.SearchRouting;
+import com.efs.sdk.search.concurrent.FanOut;
+import com.efs.sdk.search.metrics.SearchMetrics;
+import com.efs.sdk.search.metrics.ServerTiming;
+import com.efs.sdk.search.metrics.SlowQueryLog;
+import com.efs.sdk.search.resilience.AdaptiveConcurrencyLimiter;
+import com.efs.sdk.search.resilience.BulkheadProperties;
+import com.efs.sdk.search.resilience.Bulkheads;
+import com.efs.sdk.search.resilience.CircuitBreakerProperties;
+import com.efs.sdk.search.resilience.CircuitBreakers;
+import com.efs.sdk.search.resilience.ConcurrencyLimitProperties;
+import com.efs.sdk.search.resilience.DeadlineProperties;
+import com.efs.sdk.search.resilience.Deadlines;
+import com.efs.sdk.search.resilience.Hedging;
+import com.efs.sdk.search.resilience.HedgingProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -76,5 +98,56 @@ public class TestHelper {
         Jwt jwt = getJwt();
         return getAccessToken(jwt);
     }
-}
 
+    public static SearchMetrics getSearchMetrics() {
+        return new SearchMetrics(new SimpleMeterRegistry(), new Duration[0]);
+    }
+
+    public static SlowQueryLog getSlowQueryLog() {
+        return new SlowQueryLog(Duration.ofSeconds(2), 10_000, 20, 1000);
+    }
+
+    public static Bulkheads getBulkheads() {
+        return new Bulkheads(new BulkheadProperties(), new SimpleMeterRegistry(), false);
+    }
+
+    public static AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return new AdaptiveConcurrencyLimiter(new ConcurrencyLimitProperties(), new SimpleMeterRegistry());
+    }
+
+    public static CircuitBreakers getCircuitBreakers() {
+        return new CircuitBreakers(new CircuitBreakerProperties(), new SimpleMeterRegistry());
+    }
+
+    public static Deadlines getDeadlines() {
+        return new Deadlines(new DeadlineProperties());
+    }
+
+    public static NodeBalancer getNodeBalancer() {
+        return new NodeBalancer(new SimpleMeterRegistry());
+    }
+
+    public static Hedging getHedging() {
+        return new Hedging(new HedgingProperties(), new SimpleMeterRegistry());
+    }
+
+    public static SearchRouting getSearchRouting() {
+        return new SearchRouting(new ObjectMapper(), false, SearchRouting.Preference.NONE);
+    }
+
+    public static FanOut getFanOut() {
+        return new FanOut(false);
+    }
+
+    /**
+     * Binds a request with a {@link ServerTiming} to the current thread, like the ServerTimingFilter does - reset it by
+     * {@link RequestContextHolder#resetRequestAttributes()}.
+     */
+    public static ServerTiming bindServerTiming() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        ServerTiming serverTiming = new ServerTiming();
+        request.setAttribute(ServerTiming.class.getName(), serverTiming);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return serverTiming;
+    }
+}